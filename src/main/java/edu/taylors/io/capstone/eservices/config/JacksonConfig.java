@@ -0,0 +1,20 @@
+package edu.taylors.io.capstone.eservices.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers Blackbird on the auto-configured ObjectMapper, so the serializers Jackson builds
+ * (once per response record type) read components through generated lambdas instead of
+ * reflective Method.invoke.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,39 @@
+package edu.taylors.io.capstone.eservices.config;
+
+import edu.taylors.io.capstone.eservices.service.PooledSmtpTransport;
+import jakarta.mail.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mail.MailProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Properties;
+
+@Configuration
+@EnableConfigurationProperties(MailProperties.class)
+public class MailTransportConfig {
+
+    // Reads the same spring.mail.* settings as JavaMailSender, so both talk to the same server
+    @Bean
+    public PooledSmtpTransport pooledSmtpTransport(
+            MailProperties mailProperties,
+            @Value("${app.mail.pool.max-connections:4}") int maxConnections,
+            @Value("${app.mail.pool.max-messages-per-connection:100}") int maxMessagesPerConnection,
+            @Value("${app.mail.pool.idle-timeout:60000}") long idleTimeoutMillis,
+            @Value("${app.mail.pool.socket-timeout:10000}") long socketTimeoutMillis) {
+        String protocol = mailProperties.getProtocol();
+
+        Properties properties = new Properties();
+        // A hung server must not pin a pooled connection forever
+        properties.setProperty("mail." + protocol + ".connectiontimeout", String.valueOf(socketTimeoutMillis));
+        properties.setProperty("mail." + protocol + ".timeout", String.valueOf(socketTimeoutMillis));
+        properties.setProperty("mail." + protocol + ".writetimeout", String.valueOf(socketTimeoutMillis));
+        properties.putAll(mailProperties.getProperties());
+
+        int port = mailProperties.getPort() != null ? mailProperties.getPort() : -1;
+        return new PooledSmtpTransport(Session.getInstance(properties), protocol, mailProperties.getHost(), port,
+                mailProperties.getUsername(), mailProperties.getPassword(),
+                maxConnections, maxMessagesPerConnection, idleTimeoutMillis);
+    }
+}
@@ -0,0 +1,12 @@
+package edu.taylors.io.capstone.eservices.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled housekeeping jobs (expired session purge, etc.).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,11 +1,22 @@
 package edu.taylors.io.capstone.eservices.controller;
 
+import edu.taylors.io.capstone.eservices.dto.AppointmentList;
+import edu.taylors.io.capstone.eservices.dto.AppointmentPage;
+import edu.taylors.io.capstone.eservices.dto.AppointmentResult;
+import edu.taylors.io.capstone.eservices.dto.AppointmentStatistics;
+import edu.taylors.io.capstone.eservices.dto.AppointmentView;
+import edu.taylors.io.capstone.eservices.dto.AvailableSlots;
+import edu.taylors.io.capstone.eservices.dto.SlotView;
 import edu.taylors.io.capstone.eservices.service.AppointmentService;
+import edu.taylors.io.capstone.eservices.service.StudentDataVersions;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -21,6 +32,7 @@ import java.util.Map;
 public class AppointmentController {
 
     private final AppointmentService appointmentService;
+    private final StudentDataVersions dataVersions;
 
     //Students Endpoints
     /**
@@ -34,11 +46,8 @@ public class AppointmentController {
             @RequestParam(required = false) String locationName,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
         try {
-            List<Map<String, Object>> slots = appointmentService.getAvailableSlots(locationType, locationName, date);
-            return ResponseEntity.ok(Map.of(
-                    "slots", slots,
-                    "totalSlots", slots.size()
-            ));
+            List<SlotView> slots = appointmentService.getAvailableSlots(locationType, locationName, date);
+            return ResponseEntity.ok(new AvailableSlots(slots));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -67,7 +76,7 @@ public class AppointmentController {
             Authentication auth) {
         try {
             String studentId = auth.getName();
-            Map<String, Object> result = appointmentService.bookAppointment(studentId, request);
+            AppointmentResult result = appointmentService.bookAppointment(studentId, request);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -86,11 +95,8 @@ public class AppointmentController {
             Authentication auth) {
         try {
             String studentId = auth.getName();
-            List<Map<String, Object>> appointments = appointmentService.getMyAppointments(studentId, status);
-            return ResponseEntity.ok(Map.of(
-                    "appointments", appointments,
-                    "total", appointments.size()
-            ));
+            List<AppointmentView> appointments = appointmentService.getMyAppointments(studentId, status);
+            return ResponseEntity.ok(new AppointmentList(appointments));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -99,17 +105,22 @@ public class AppointmentController {
 
     /**
      * GET /api/appointments/upcoming
-     * Get student's upcoming appointments
+     * Get student's upcoming appointments; If-None-Match with the last ETag answers 304 while unchanged
      */
     @GetMapping("/upcoming")
-    public ResponseEntity<?> getUpcomingAppointments(Authentication auth) {
+    public ResponseEntity<?> getUpcomingAppointments(Authentication auth, WebRequest request) {
         try {
             String studentId = auth.getName();
-            List<Map<String, Object>> appointments = appointmentService.getUpcomingAppointments(studentId);
-            return ResponseEntity.ok(Map.of(
-                    "appointments", appointments,
-                    "total", appointments.size()
-            ));
+            // Upcoming also changes at midnight, without any write
+            String etag = dataVersions.etag(studentId, LocalDate.now());
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            List<AppointmentView> appointments = appointmentService.getUpcomingAppointments(studentId);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(new AppointmentList(appointments));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -126,7 +137,7 @@ public class AppointmentController {
             Authentication auth) {
         try {
             String studentId = auth.getName();
-            Map<String, Object> result = appointmentService.confirmAppointment(id, studentId);
+            AppointmentResult result = appointmentService.confirmAppointment(id, studentId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -152,7 +163,7 @@ public class AppointmentController {
         try {
             String userId = auth.getName();
             String reason = (String) request.getOrDefault("reason", "");
-            Map<String, Object> result = appointmentService.cancelAppointment(id, reason, userId);
+            AppointmentResult result = appointmentService.cancelAppointment(id, reason, userId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -181,7 +192,7 @@ public class AppointmentController {
             LocalDate newDate = LocalDate.parse(request.get("newDate").toString());
             LocalTime newTime = LocalTime.parse(request.get("newTime").toString());
 
-            Map<String, Object> result = appointmentService.rescheduleAppointment(id, newDate, newTime, userId);
+            AppointmentResult result = appointmentService.rescheduleAppointment(id, newDate, newTime, userId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -193,20 +204,29 @@ public class AppointmentController {
 
     /**
      * GET /api/appointments/staff/all
-     * Get all appointments
-     * Query params: ?status=PENDING&type=MEDICAL&date=2026-02-20
+     * Get appointments, one page at a time, ordered by date, time and id
+     * Query params (all optional, combinable): ?status=PENDING&type=MEDICAL&locationName=International Office
+     *   &date=2026-02-20 (or fromDate/toDate)&sort=desc&limit=50&cursor=<nextCursor of the previous page>
      */
     @GetMapping("/staff/all")
     public ResponseEntity<?> getAllAppointments(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String type,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @RequestParam(required = false) String locationName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "desc") String sort,
+            @RequestParam(defaultValue = "50") int limit) {
         try {
-            List<Map<String, Object>> appointments = appointmentService.getAllAppointments(status, type, date);
-            return ResponseEntity.ok(Map.of(
-                    "appointments", appointments,
-                    "total", appointments.size()
-            ));
+            if (date != null) {
+                fromDate = date;
+                toDate = date;
+            }
+            AppointmentPage page = appointmentService.getAllAppointments(
+                    status, type, locationName, fromDate, toDate, cursor, sort, limit);
+            return ResponseEntity.ok(page);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -233,7 +253,7 @@ public class AppointmentController {
             String newStatus = (String) request.get("status");
             String notes = (String) request.getOrDefault("notes", "");
 
-            Map<String, Object> result = appointmentService.updateAppointmentStatus(id, newStatus, notes, staffId);
+            AppointmentResult result = appointmentService.updateAppointmentStatus(id, newStatus, notes, staffId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -243,17 +263,22 @@ public class AppointmentController {
 
     /**
      * POST /api/appointments/staff/create-slots
-     * Create time slots
+     * Create recurring time slots (stored as one availability rule)
      *
      * Request body:
      * {
      *   "locationType": "INTERNATIONAL_OFFICE",
      *   "locationName": "International Office",
+     *   "roomNumber": "Room 301, Block A",       // optional
+     *   "staffUserId": 12,                       // optional
      *   "startDate": "2026-02-20",
      *   "endDate": "2026-02-28",
      *   "startTime": "09:00",
      *   "endTime": "17:00",
-     *   "slotDuration": 30
+     *   "slotDuration": 30,
+     *   "capacity": 1,                           // optional, appointments per slot
+     *   "daysOfWeek": "MON,TUE,WED,THU,FRI",     // optional, default every day
+     *   "excludedDates": ["2026-02-24"]          // optional
      * }
      */
     @PostMapping("/staff/create-slots")
@@ -261,7 +286,30 @@ public class AppointmentController {
             @RequestBody Map<String, Object> request,
             Authentication auth) {
         try {
-            Map<String, Object> result = appointmentService.createTimeSlots(request);
+            Map<String, Object> result = appointmentService.createTimeSlots(request, auth.getName());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * POST /api/appointments/staff/availability-rules/{id}/exclude
+     * Close a recurring schedule on one date
+     *
+     * Request body:
+     * {
+     *   "date": "2026-02-24"
+     * }
+     */
+    @PostMapping("/staff/availability-rules/{id}/exclude")
+    public ResponseEntity<?> excludeDate(
+            @PathVariable Long id,
+            @RequestBody Map<String, String> request) {
+        try {
+            LocalDate date = LocalDate.parse(request.get("date"));
+            Map<String, Object> result = appointmentService.excludeDate(id, date);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -276,7 +324,7 @@ public class AppointmentController {
     @GetMapping("/staff/statistics")
     public ResponseEntity<?> getStatistics() {
         try {
-            Map<String, Object> stats = appointmentService.getStatistics();
+            AppointmentStatistics stats = appointmentService.getStatistics();
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -4,6 +4,10 @@ import edu.taylors.io.capstone.eservices.entity.TwoFactorMethod;
 import edu.taylors.io.capstone.eservices.entity.User;
 import edu.taylors.io.capstone.eservices.repository.UserRepository;
 import edu.taylors.io.capstone.eservices.security.JwtUtil;
+import edu.taylors.io.capstone.eservices.security.LoginRateLimiter;
+import edu.taylors.io.capstone.eservices.security.PasswordHashingBusyException;
+import edu.taylors.io.capstone.eservices.security.RequestUserContext;
+import edu.taylors.io.capstone.eservices.security.UserUnitOfWork;
 import edu.taylors.io.capstone.eservices.service.ProfileService;
 import edu.taylors.io.capstone.eservices.service.RefreshTokenService;
 import edu.taylors.io.capstone.eservices.service.TwoFactorAuthService;
@@ -13,14 +17,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -32,10 +35,11 @@ public class AuthController {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
     private final RefreshTokenService refreshTokenService;
     private final TwoFactorAuthService twoFactorAuthService;
     private final ProfileService profileService;
+    private final RequestUserContext requestUserContext;
+    private final LoginRateLimiter loginRateLimiter;
 
 
     /**
@@ -44,6 +48,12 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody LoginRequest loginRequest,
                                    HttpServletRequest request) {
+        // Throttle before any BCrypt check, DB write or email
+        long retryAfterMillis = loginRateLimiter.checkLogin(loginRequest.getStudentId(), request.getRemoteAddr());
+        if (retryAfterMillis > 0) {
+            return tooManyRequests("Too many login attempts, please try again later", retryAfterMillis);
+        }
+
         try {
             System.out.println("=== LOGIN ATTEMPT ===");
             System.out.println("Student ID: " + loginRequest.getStudentId());
@@ -56,21 +66,29 @@ public class AuthController {
                     )
             );
 
-            // Get user info
-            User user = userRepository.findByStudentId(loginRequest.getStudentId())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            // Get user info (already loaded by the authentication above)
+            UserUnitOfWork unitOfWork = requestUserContext.load(loginRequest.getStudentId());
+            User user = unitOfWork.getUser();
+
+            // Stored hash uses an outdated BCrypt cost: rehash now while we have the raw password
+            if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+                unitOfWork.set("password", passwordEncoder.encode(loginRequest.getPassword()));
+            }
 
-            // Record successful login attempt
+            // Record successful login attempt (queued, written behind the request)
             try {
                 String ipAddress = request.getRemoteAddr();
                 String userAgent = request.getHeader("User-Agent");
-                profileService.recordLogin(loginRequest.getStudentId(), ipAddress, userAgent, true);
+                profileService.recordLogin(unitOfWork, ipAddress, userAgent, true);
             } catch (Exception e) {
                 System.err.println("Failed to record login: " + e.getMessage());
             }
 
             // ALWAYS send OTP (mandatory for all logins)
-            twoFactorAuthService.sendEmailOtp(loginRequest.getStudentId());
+            twoFactorAuthService.sendEmailOtp(unitOfWork);
+
+            // UPDATE users only if the hash was upgraded, then the OTP email goes out
+            requestUserContext.flush();
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "OTP sent to your email");
@@ -89,7 +107,8 @@ public class AuthController {
             try {
                 String ipAddress = request.getRemoteAddr();
                 String userAgent = request.getHeader("User-Agent");
-                profileService.recordLogin(loginRequest.getStudentId(), ipAddress, userAgent, false);
+                UserUnitOfWork unitOfWork = requestUserContext.load(loginRequest.getStudentId());
+                profileService.recordLogin(unitOfWork, ipAddress, userAgent, false);
             } catch (Exception ex) {
                 System.err.println("Failed to record failed login: " + ex.getMessage());
             }
@@ -98,6 +117,9 @@ public class AuthController {
             errorResponse.put("error", "Invalid student ID or password");
             return ResponseEntity.status(401).body(errorResponse);
 
+        } catch (PasswordHashingBusyException e) {
+            return tooManyRequests(e);
+
         } catch (Exception e) {
             System.err.println("Login error: " + e.getMessage());
             e.printStackTrace();
@@ -114,11 +136,11 @@ public class AuthController {
     @PostMapping("/login/verify-otp")
     public ResponseEntity<?> verifyLoginOtp(@RequestBody OtpVerificationRequest request) {
         try {
-            User user = userRepository.findByStudentId(request.getStudentId())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            UserUnitOfWork unitOfWork = requestUserContext.load(request.getStudentId());
+            User user = unitOfWork.getUser();
 
             // Verify OTP
-            boolean verified = twoFactorAuthService.verifyEmailOtp(request.getStudentId(), request.getOtp());
+            boolean verified = twoFactorAuthService.verifyEmailOtp(user, request.getOtp());
 
             if (!verified) {
                 Map<String, Object> errorResponse = new HashMap<>();
@@ -127,12 +149,14 @@ public class AuthController {
             }
 
             // Mark OTP as verified
-            twoFactorAuthService.markEmailOtpAsVerified(request.getStudentId());
+            twoFactorAuthService.markEmailOtpAsVerified(unitOfWork);
 
             // OTP verified - generate tokens
-            final UserDetails userDetails = userDetailsService.loadUserByUsername(request.getStudentId());
-            final String accessToken = jwtUtil.generateAccessToken(userDetails);
-            final String refreshToken = refreshTokenService.createRefreshToken(request.getStudentId());
+            final String accessToken = jwtUtil.generateAccessToken(user);
+            final String refreshToken = refreshTokenService.createRefreshToken(user);
+
+            // UPDATE users only the first time the email is verified
+            requestUserContext.flush();
 
             Map<String, Object> response = new HashMap<>();
             response.put("accessToken", accessToken);
@@ -160,15 +184,15 @@ public class AuthController {
     @PostMapping("/login/verify-2fa")
     public ResponseEntity<?> verifyLoginWith2FA(@RequestBody Verify2FALoginRequest request) {
         try {
-            User user = userRepository.findByStudentId(request.getStudentId())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            UserUnitOfWork unitOfWork = requestUserContext.load(request.getStudentId());
+            User user = unitOfWork.getUser();
 
             boolean verified = false;
 
             if (user.getTwoFactorMethod() == TwoFactorMethod.EMAIL_OTP) {
-                verified = twoFactorAuthService.verifyEmailOtp(request.getStudentId(), request.getOtp());
+                verified = twoFactorAuthService.verifyEmailOtp(user, request.getOtp());
                 if (verified) {
-                    twoFactorAuthService.markEmailOtpAsVerified(request.getStudentId());
+                    twoFactorAuthService.markEmailOtpAsVerified(unitOfWork);
                 }
             } else if (user.getTwoFactorMethod() == TwoFactorMethod.GOOGLE_AUTHENTICATOR) {
                 verified = twoFactorAuthService.verifyGoogleAuthCode(request.getStudentId(), Integer.parseInt(request.getOtp()));
@@ -181,9 +205,10 @@ public class AuthController {
             }
 
             // 2FA verified - generate tokens
-            final UserDetails userDetails = userDetailsService.loadUserByUsername(request.getStudentId());
-            final String accessToken = jwtUtil.generateAccessToken(userDetails);
-            final String refreshToken = refreshTokenService.createRefreshToken(request.getStudentId());
+            final String accessToken = jwtUtil.generateAccessToken(user);
+            final String refreshToken = refreshTokenService.createRefreshToken(user);
+
+            requestUserContext.flush();
 
             Map<String, Object> response = new HashMap<>();
             response.put("accessToken", accessToken);
@@ -209,27 +234,21 @@ public class AuthController {
      */
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@RequestBody RefreshTokenRequest request) {
-        String refreshToken = request.getRefreshToken();
+        // One indexed lookup; the presented token is consumed and replaced (rotation)
+        Optional<RefreshTokenService.RotatedToken> rotated = refreshTokenService.rotate(request.getRefreshToken());
 
-        // Validate refresh token
-        if (!refreshTokenService.validateRefreshToken(refreshToken)) {
+        if (rotated.isEmpty()) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Invalid or expired refresh token");
             return ResponseEntity.status(401).body(errorResponse);
         }
 
-        // Get user from refresh token
-        User user = refreshTokenService.findByRefreshToken(refreshToken)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // Load user details
-        UserDetails userDetails = userDetailsService.loadUserByUsername(user.getStudentId());
-
         // Generate new ACCESS token
-        String newAccessToken = jwtUtil.generateAccessToken(userDetails);
+        String newAccessToken = jwtUtil.generateAccessToken(rotated.get().user());
 
         Map<String, Object> response = new HashMap<>();
         response.put("accessToken", newAccessToken);
+        response.put("refreshToken", rotated.get().refreshToken());
         response.put("tokenType", "Bearer");
         response.put("expiresIn", 900);
         response.put("message", "Token refreshed successfully");
@@ -243,7 +262,12 @@ public class AuthController {
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@RequestBody LogoutRequest request) {
         try {
-            refreshTokenService.deleteRefreshToken(request.getStudentId());
+            // With a refresh token only that session ends, otherwise every session of the student
+            if (request.getRefreshToken() != null) {
+                refreshTokenService.deleteRefreshToken(request.getRefreshToken());
+            } else {
+                refreshTokenService.deleteAllRefreshTokens(request.getStudentId());
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Logged out successfully");
@@ -305,6 +329,9 @@ public class AuthController {
 
             return ResponseEntity.ok(response);
 
+        } catch (PasswordHashingBusyException e) {
+            return tooManyRequests(e);
+
         } catch (Exception e) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Registration failed: " + e.getMessage());
@@ -318,11 +345,11 @@ public class AuthController {
     @PostMapping("/register/verify-otp")
     public ResponseEntity<?> verifyRegistrationOtp(@RequestBody OtpVerificationRequest request) {
         try {
-            User user = userRepository.findByStudentId(request.getStudentId())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            UserUnitOfWork unitOfWork = requestUserContext.load(request.getStudentId());
+            User user = unitOfWork.getUser();
 
             // Verify OTP
-            boolean verified = twoFactorAuthService.verifyEmailOtp(request.getStudentId(), request.getOtp());
+            boolean verified = twoFactorAuthService.verifyEmailOtp(user, request.getOtp());
 
             if (!verified) {
                 Map<String, Object> errorResponse = new HashMap<>();
@@ -331,7 +358,8 @@ public class AuthController {
             }
 
             // Mark OTP as verified
-            twoFactorAuthService.markEmailOtpAsVerified(request.getStudentId());
+            twoFactorAuthService.markEmailOtpAsVerified(unitOfWork);
+            requestUserContext.flush();
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Email verified successfully! You can now login.");
@@ -351,13 +379,20 @@ public class AuthController {
      * RESEND OTP - For both registration and login
      */
     @PostMapping("/resend-otp")
-    public ResponseEntity<?> resendOtp(@RequestBody ResendOtpRequest request) {
+    public ResponseEntity<?> resendOtp(@RequestBody ResendOtpRequest request,
+                                       HttpServletRequest httpRequest) {
+        long retryAfterMillis = loginRateLimiter.checkOtpResend(request.getStudentId(), httpRequest.getRemoteAddr());
+        if (retryAfterMillis > 0) {
+            return tooManyRequests("Too many OTP requests, please try again later", retryAfterMillis);
+        }
+
         try {
-            User user = userRepository.findByStudentId(request.getStudentId())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+            UserUnitOfWork unitOfWork = requestUserContext.load(request.getStudentId());
+            User user = unitOfWork.getUser();
 
             // Send new OTP
-            twoFactorAuthService.sendEmailOtp(request.getStudentId());
+            twoFactorAuthService.sendEmailOtp(unitOfWork);
+            requestUserContext.flush();
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "New OTP sent to your email");
@@ -384,6 +419,24 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * HELPER METHOD - 429 when the password hashing pool is saturated
+     */
+    private ResponseEntity<?> tooManyRequests(PasswordHashingBusyException e) {
+        return tooManyRequests(e.getMessage(), 1000);
+    }
+
+    /**
+     * HELPER METHOD - 429 with Retry-After rounded up to whole seconds
+     */
+    private ResponseEntity<?> tooManyRequests(String message, long retryAfterMillis) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("error", message);
+        return ResponseEntity.status(429)
+                .header("Retry-After", String.valueOf((retryAfterMillis + 999) / 1000))
+                .body(errorResponse);
+    }
+
     /**
      * HELPER METHOD - Mask email for security
      */
@@ -424,9 +477,12 @@ class RefreshTokenRequest {
 
 class LogoutRequest {
     private String studentId;
+    private String refreshToken;
 
     public String getStudentId() { return studentId; }
     public void setStudentId(String studentId) { this.studentId = studentId; }
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
 }
 
 class RegisterRequest {
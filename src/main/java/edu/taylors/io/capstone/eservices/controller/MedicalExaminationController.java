@@ -1,13 +1,22 @@
 package edu.taylors.io.capstone.eservices.controller;
 
+import edu.taylors.io.capstone.eservices.dto.MedicalExaminationPage;
+import edu.taylors.io.capstone.eservices.dto.MedicalExaminationResult;
+import edu.taylors.io.capstone.eservices.dto.MedicalExaminationView;
+import edu.taylors.io.capstone.eservices.dto.MedicalStatistics;
 import edu.taylors.io.capstone.eservices.service.MedicalExaminationService;
+import edu.taylors.io.capstone.eservices.service.StudentDataVersions;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.Map;
 
 /**
@@ -21,19 +30,28 @@ import java.util.Map;
 public class MedicalExaminationController {
 
     private final MedicalExaminationService medicalService;
+    private final StudentDataVersions dataVersions;
 
     //STUDENT ENDPOINTS
 
     /**
      * GET /api/medical/my-examination
-     * Get student's medical examination
+     * Get student's medical examination; If-None-Match with the last ETag answers 304 while unchanged
      */
     @GetMapping("/my-examination")
-    public ResponseEntity<?> getMyMedicalExamination(Authentication auth) {
+    public ResponseEntity<?> getMyMedicalExamination(Authentication auth, WebRequest request) {
         try {
             String studentId = auth.getName();
-            Map<String, Object> examination = medicalService.getMedicalExamination(studentId);
-            return ResponseEntity.ok(examination);
+            // Read before loading, so the tag is never newer than the body
+            String etag = dataVersions.etag(studentId);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            MedicalExaminationView examination = medicalService.getMedicalExamination(studentId);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(examination);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -58,7 +76,7 @@ public class MedicalExaminationController {
             Authentication auth) {
         try {
             String studentId = auth.getName();
-            Map<String, Object> result = medicalService.bookAppointment(studentId, request);
+            MedicalExaminationResult result = medicalService.bookAppointment(studentId, request);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -93,18 +111,23 @@ public class MedicalExaminationController {
 
     /**
      * GET /api/medical/staff/all
-     * Get all medical examinations
-     * Query param: ?status=PENDING (optional)
+     * Get medical examinations, one page at a time, ordered by creation time and id
+     * Query params (all optional, combinable): ?status=PENDING&clinicName=Pantai Hospital KL
+     *   &fromDate=2026-01-01&toDate=2026-01-31&sort=desc&limit=50&cursor=<nextCursor of the previous page>
      */
     @GetMapping("/staff/all")
     public ResponseEntity<?> getAllExaminations(
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String clinicName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "desc") String sort,
+            @RequestParam(defaultValue = "50") int limit) {
         try {
-            List<Map<String, Object>> examinations = medicalService.getAllExaminations(status);
-            return ResponseEntity.ok(Map.of(
-                    "examinations", examinations,
-                    "total", examinations.size()
-            ));
+            MedicalExaminationPage page = medicalService.getAllExaminations(
+                    status, clinicName, fromDate, toDate, cursor, sort, limit);
+            return ResponseEntity.ok(page);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -129,7 +152,7 @@ public class MedicalExaminationController {
             Authentication auth) {
         try {
             String staffId = auth.getName();
-            Map<String, Object> result = medicalService.updateTests(id, tests, staffId);
+            MedicalExaminationResult result = medicalService.updateTests(id, tests, staffId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -157,7 +180,7 @@ public class MedicalExaminationController {
             boolean passed = (Boolean) request.get("passed");
             String notes = (String) request.getOrDefault("notes", "");
 
-            Map<String, Object> result = medicalService.submitResults(id, passed, notes, staffId);
+            MedicalExaminationResult result = medicalService.submitResults(id, passed, notes, staffId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -175,7 +198,7 @@ public class MedicalExaminationController {
             Authentication auth) {
         try {
             String staffId = auth.getName();
-            Map<String, Object> result = medicalService.submitToEmgs(id, staffId);
+            MedicalExaminationResult result = medicalService.submitToEmgs(id, staffId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -190,7 +213,7 @@ public class MedicalExaminationController {
     @GetMapping("/staff/statistics")
     public ResponseEntity<?> getStatistics() {
         try {
-            Map<String, Object> stats = medicalService.getStatistics();
+            MedicalStatistics stats = medicalService.getStatistics();
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -2,7 +2,9 @@ package edu.taylors.io.capstone.eservices.controller;
 
 import edu.taylors.io.capstone.eservices.dto.ForgotPasswordRequest;
 import edu.taylors.io.capstone.eservices.dto.ResetPasswordRequest;
+import edu.taylors.io.capstone.eservices.security.LoginRateLimiter;
 import edu.taylors.io.capstone.eservices.service.PasswordResetService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +18,7 @@ import java.util.Map;
 public class PasswordResetController {
 
     private final PasswordResetService passwordResetService;
+    private final LoginRateLimiter loginRateLimiter;
 
     /**
      * Step 1: Request password reset
@@ -23,7 +26,17 @@ public class PasswordResetController {
      * System sends reset link via email
      */
     @PostMapping("/forgot-password")
-    public ResponseEntity<?> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request) {
+    public ResponseEntity<?> forgotPassword(@Valid @RequestBody ForgotPasswordRequest request,
+                                            HttpServletRequest httpRequest) {
+        // Throttled before any lookup or email, so the 429 reveals nothing about the account
+        long retryAfterMillis = loginRateLimiter.checkPasswordReset(
+                request.getEmailOrStudentId(), httpRequest.getRemoteAddr());
+        if (retryAfterMillis > 0) {
+            return ResponseEntity.status(429)
+                    .header("Retry-After", String.valueOf((retryAfterMillis + 999) / 1000))
+                    .body(Map.of("error", "Too many password reset requests, please try again later"));
+        }
+
         try {
             passwordResetService.initiatePasswordReset(request.getEmailOrStudentId());
 
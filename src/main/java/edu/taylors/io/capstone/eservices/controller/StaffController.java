@@ -1,17 +1,120 @@
 package edu.taylors.io.capstone.eservices.controller;
 
+import edu.taylors.io.capstone.eservices.security.BoundedBCryptPasswordEncoder;
+import edu.taylors.io.capstone.eservices.security.LoginRateLimiter;
+import edu.taylors.io.capstone.eservices.security.UserCache;
+import edu.taylors.io.capstone.eservices.service.AppointmentReminderJob;
+import edu.taylors.io.capstone.eservices.service.EmailOutboxDispatcher;
+import edu.taylors.io.capstone.eservices.service.LoginHistoryRecorder;
+import edu.taylors.io.capstone.eservices.service.ReferenceNumberAllocator;
+import edu.taylors.io.capstone.eservices.service.SlotAvailabilityIndex;
+import edu.taylors.io.capstone.eservices.service.StatusCounters;
+import edu.taylors.io.capstone.eservices.service.StudentDataVersions;
+import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/staff")
+@RequiredArgsConstructor
 public class StaffController {
 
+    private final UserCache userCache;
+    private final BoundedBCryptPasswordEncoder passwordEncoder;
+    private final LoginRateLimiter loginRateLimiter;
+    private final LoginHistoryRecorder loginHistoryRecorder;
+    private final EmailOutboxDispatcher emailOutboxDispatcher;
+    private final SlotAvailabilityIndex slotAvailabilityIndex;
+    private final ReferenceNumberAllocator referenceNumberAllocator;
+    private final StatusCounters statusCounters;
+    private final AppointmentReminderJob appointmentReminderJob;
+    private final StudentDataVersions studentDataVersions;
 
     //This is for test staff access
     @GetMapping("/test")
     public String testStaff() {
         return "Staff access OK";
     }
-}
\ No newline at end of file
+
+    // Hit/miss/eviction counters for sizing the user cache
+    @GetMapping("/metrics/user-cache")
+    public Map<String, Object> userCacheMetrics() {
+        return userCache.getStatistics();
+    }
+
+    // Pool size, queue depth and rejections of the password hashing executor
+    @GetMapping("/metrics/password-hashing")
+    public Map<String, Object> passwordHashingMetrics() {
+        return passwordEncoder.getStatistics();
+    }
+
+    // Allowed/rejected counts and live buckets of the auth endpoint rate limiters
+    @GetMapping("/metrics/rate-limit")
+    public Map<String, Object> rateLimitMetrics() {
+        return loginRateLimiter.getStatistics();
+    }
+
+    // Queue depth, drops and batch counts of the write-behind login history
+    @GetMapping("/metrics/login-history")
+    public Map<String, Object> loginHistoryMetrics() {
+        return loginHistoryRecorder.getStatistics();
+    }
+
+    // Outbox rows per status (pending / sending / sent / dead) and dispatcher counters
+    @GetMapping("/metrics/email-outbox")
+    public Map<String, Object> emailOutboxMetrics() {
+        return emailOutboxDispatcher.getStatistics();
+    }
+
+    // Size, lookup count and drift repairs of the in-memory slot availability index
+    @GetMapping("/metrics/slot-index")
+    public Map<String, Object> slotIndexMetrics() {
+        return slotAvailabilityIndex.getStatistics();
+    }
+
+    // Run the index-vs-time_slots consistency check now instead of waiting for the schedule
+    @PostMapping("/slot-index/verify")
+    public Map<String, Object> verifySlotIndex() {
+        return Map.of("repaired", slotAvailabilityIndex.verify());
+    }
+
+    // Reference numbers handed out vs. blocks reserved from reference_sequences
+    @GetMapping("/metrics/reference-numbers")
+    public Map<String, Object> referenceNumberMetrics() {
+        return referenceNumberAllocator.getStatistics();
+    }
+
+    // Totals behind the statistics dashboards and how often reconciliation had to correct them
+    @GetMapping("/metrics/status-counters")
+    public Map<String, Object> statusCounterMetrics() {
+        return statusCounters.getStatistics();
+    }
+
+    // Recount the dashboards' status counters now instead of waiting for the schedule
+    @PostMapping("/status-counters/reconcile")
+    public Map<String, Object> reconcileStatusCounters() {
+        return Map.of("corrected", statusCounters.reconcile());
+    }
+
+    // Chunks processed, reminders queued and duration of the appointment reminder runs
+    @GetMapping("/metrics/appointment-reminders")
+    public Map<String, Object> appointmentReminderMetrics() {
+        return appointmentReminderJob.getStatistics();
+    }
+
+    // Cached student versions, lookups and writes that moved one (student dashboard ETags)
+    @GetMapping("/metrics/student-versions")
+    public Map<String, Object> studentVersionMetrics() {
+        return studentDataVersions.getStatistics();
+    }
+
+    // Queue due appointment reminders now instead of waiting for the schedule (-1 = a run is in progress)
+    @PostMapping("/appointment-reminders/run")
+    public Map<String, Object> runAppointmentReminders() {
+        return Map.of("queued", appointmentReminderJob.sendDueReminders());
+    }
+}
@@ -1,12 +1,23 @@
 package edu.taylors.io.capstone.eservices.controller;
 
+import edu.taylors.io.capstone.eservices.dto.VisaApplicationPage;
+import edu.taylors.io.capstone.eservices.dto.VisaApplicationResult;
+import edu.taylors.io.capstone.eservices.dto.VisaApplicationView;
+import edu.taylors.io.capstone.eservices.dto.VisaHistory;
+import edu.taylors.io.capstone.eservices.dto.VisaStatistics;
+import edu.taylors.io.capstone.eservices.dto.VisaTimeline;
+import edu.taylors.io.capstone.eservices.service.StudentDataVersions;
 import edu.taylors.io.capstone.eservices.service.VisaApplicationService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
+import java.time.LocalDate;
 import java.util.Map;
 
 /**
@@ -19,19 +30,28 @@ import java.util.Map;
 public class VisaApplicationController {
 
     private final VisaApplicationService visaService;
+    private final StudentDataVersions dataVersions;
 
     //STUDENT ENDPOINTS
 
     /**
      * GET /api/visa/my-application
-     * Get student's visa application
+     * Get student's visa application; If-None-Match with the last ETag answers 304 while unchanged
      */
     @GetMapping("/my-application")
-    public ResponseEntity<?> getMyVisaApplication(Authentication auth) {
+    public ResponseEntity<?> getMyVisaApplication(Authentication auth, WebRequest request) {
         try {
             String studentId = auth.getName();
-            Map<String, Object> application = visaService.getVisaApplication(studentId);
-            return ResponseEntity.ok(application);
+            // Read before loading, so the tag is never newer than the body
+            String etag = dataVersions.etag(studentId);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            VisaApplicationView application = visaService.getVisaApplication(studentId);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(application);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -59,7 +79,7 @@ public class VisaApplicationController {
             Authentication auth) {
         try {
             String studentId = auth.getName();
-            Map<String, Object> result = visaService.createVisaApplication(studentId, request);
+            VisaApplicationResult result = visaService.createVisaApplication(studentId, request);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -75,7 +95,7 @@ public class VisaApplicationController {
     public ResponseEntity<?> submitDocuments(Authentication auth) {
         try {
             String studentId = auth.getName();
-            Map<String, Object> result = visaService.submitDocuments(studentId);
+            VisaApplicationResult result = visaService.submitDocuments(studentId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -85,14 +105,22 @@ public class VisaApplicationController {
 
     /**
      * GET /api/visa/timeline
-     * Get visa processing timeline
+     * Get visa processing timeline; If-None-Match with the last ETag answers 304 while unchanged
      */
     @GetMapping("/timeline")
-    public ResponseEntity<?> getVisaTimeline(Authentication auth) {
+    public ResponseEntity<?> getVisaTimeline(Authentication auth, WebRequest request) {
         try {
             String studentId = auth.getName();
-            Map<String, Object> timeline = visaService.getVisaTimeline(studentId);
-            return ResponseEntity.ok(timeline);
+            // Read before loading, so the tag is never newer than the body
+            String etag = dataVersions.etag(studentId);
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            VisaTimeline timeline = visaService.getVisaTimeline(studentId);
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(timeline);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -103,18 +131,24 @@ public class VisaApplicationController {
 
     /**
      * GET /api/visa/staff/all
-     * Get all visa applications
-     * Query param: ?status=EMGS_PROCESSING (optional)
+     * Get visa applications, one page at a time, ordered by creation time and id
+     * Query params (all optional, combinable): ?status=EMGS_PROCESSING&visaType=STUDENT_PASS&nationality=Indonesia
+     *   &fromDate=2026-01-01&toDate=2026-01-31&sort=desc&limit=50&cursor=<nextCursor of the previous page>
      */
     @GetMapping("/staff/all")
     public ResponseEntity<?> getAllVisaApplications(
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) String visaType,
+            @RequestParam(required = false) String nationality,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "desc") String sort,
+            @RequestParam(defaultValue = "50") int limit) {
         try {
-            List<Map<String, Object>> applications = visaService.getAllVisaApplications(status);
-            return ResponseEntity.ok(Map.of(
-                    "applications", applications,
-                    "total", applications.size()
-            ));
+            VisaApplicationPage page = visaService.getAllVisaApplications(
+                    status, visaType, nationality, fromDate, toDate, cursor, sort, limit);
+            return ResponseEntity.ok(page);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -131,7 +165,7 @@ public class VisaApplicationController {
             Authentication auth) {
         try {
             String staffId = auth.getName();
-            Map<String, Object> result = visaService.submitToEmgs(id, staffId);
+            VisaApplicationResult result = visaService.submitToEmgs(id, staffId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -159,7 +193,7 @@ public class VisaApplicationController {
             String newStatus = (String) request.get("status");
             String notes = (String) request.getOrDefault("notes", "");
 
-            Map<String, Object> result = visaService.updateEmgsStatus(id, newStatus, notes, staffId);
+            VisaApplicationResult result = visaService.updateEmgsStatus(id, newStatus, notes, staffId);
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -167,6 +201,21 @@ public class VisaApplicationController {
         }
     }
 
+    /**
+     * GET /api/visa/staff/{id}/history
+     * Get every status change of a visa application, oldest first
+     */
+    @GetMapping("/staff/{id}/history")
+    public ResponseEntity<?> getHistory(@PathVariable Long id) {
+        try {
+            VisaHistory history = visaService.getVisaHistory(id);
+            return ResponseEntity.ok(history);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * GET /api/visa/staff/statistics
      * Get visa application statistics
@@ -174,7 +223,7 @@ public class VisaApplicationController {
     @GetMapping("/staff/statistics")
     public ResponseEntity<?> getStatistics() {
         try {
-            Map<String, Object> stats = visaService.getVisaStatistics();
+            VisaStatistics stats = visaService.getVisaStatistics();
             return ResponseEntity.ok(stats);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -0,0 +1,10 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+import java.util.List;
+
+public record AppointmentList(List<AppointmentView> appointments, int total) {
+
+    public AppointmentList(List<AppointmentView> appointments) {
+        this(appointments, appointments.size());
+    }
+}
@@ -0,0 +1,9 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of the staff appointment list; pass nextCursor back for the next page (null = last page).
+ */
+public record AppointmentPage(List<AppointmentView> appointments, int count, boolean hasMore, String nextCursor) {
+}
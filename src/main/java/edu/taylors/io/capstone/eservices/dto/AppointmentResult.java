@@ -0,0 +1,5 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+// Response of an appointment change: what happened and the appointment as it is now
+public record AppointmentResult(String message, AppointmentView appointment) {
+}
@@ -0,0 +1,11 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+public record AppointmentStatistics(long totalAppointments,
+                                    long pending,
+                                    long confirmed,
+                                    long completed,
+                                    long cancelled,
+                                    long noShow,
+                                    long medicalAppointments,
+                                    long officeAppointments) {
+}
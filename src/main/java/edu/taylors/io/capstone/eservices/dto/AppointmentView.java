@@ -0,0 +1,62 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+import edu.taylors.io.capstone.eservices.entity.Appointment;
+import edu.taylors.io.capstone.eservices.entity.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * The appointment columns the API renders. List queries select straight into this record
+ * (see the projection constructor), so no Appointment or User entities are loaded for them.
+ */
+public record AppointmentView(Long id,
+                              String appointmentNumber,
+                              String studentId,
+                              String studentName,
+                              String appointmentType,
+                              String locationName,
+                              String locationAddress,
+                              String roomNumber,
+                              LocalDate appointmentDate,
+                              LocalTime appointmentTime,
+                              Integer durationMinutes,
+                              String status,
+                              String purpose,
+                              Boolean confirmedByStudent,
+                              String assignedStaff,
+                              LocalDateTime createdAt) {
+
+    /**
+     * Projection constructor: the student and (left-joined, possibly null) staff name columns
+     * instead of their full names.
+     */
+    public AppointmentView(Long id, String appointmentNumber,
+                           String studentId, String studentFirstName, String studentLastName,
+                           String appointmentType, String locationName, String locationAddress, String roomNumber,
+                           LocalDate appointmentDate, LocalTime appointmentTime, Integer durationMinutes,
+                           String status, String purpose, Boolean confirmedByStudent,
+                           String staffId, String staffFirstName, String staffLastName,
+                           LocalDateTime createdAt) {
+        this(id, appointmentNumber, studentId, User.fullName(studentFirstName, studentLastName, studentId),
+                appointmentType, locationName, locationAddress, roomNumber,
+                appointmentDate, appointmentTime, durationMinutes, status, purpose, confirmedByStudent,
+                User.fullName(staffFirstName, staffLastName, staffId), createdAt);
+    }
+
+    // For an appointment already loaded to be changed; student and assignedStaff should be fetched with it
+    public static AppointmentView of(Appointment appointment) {
+        User student = appointment.getStudent();
+        User staff = appointment.getAssignedStaff();
+        return new AppointmentView(appointment.getId(), appointment.getAppointmentNumber(),
+                student.getStudentId(), student.getFullName(),
+                appointment.getAppointmentType(), appointment.getLocationName(),
+                appointment.getLocationAddress(), appointment.getRoomNumber(),
+                appointment.getAppointmentDate(), appointment.getAppointmentTime(),
+                appointment.getDurationMinutes(), appointment.getStatus(), appointment.getPurpose(),
+                appointment.getConfirmedByStudent(),
+                staff != null ? staff.getFullName() : null,
+                appointment.getCreatedAt());
+    }
+}
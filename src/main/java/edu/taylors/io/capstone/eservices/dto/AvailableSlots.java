@@ -0,0 +1,10 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+import java.util.List;
+
+public record AvailableSlots(List<SlotView> slots, int totalSlots) {
+
+    public AvailableSlots(List<SlotView> slots) {
+        this(slots, slots.size());
+    }
+}
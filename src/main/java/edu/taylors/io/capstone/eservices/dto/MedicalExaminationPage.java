@@ -0,0 +1,10 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of the staff medical list; pass nextCursor back for the next page (null = last page).
+ */
+public record MedicalExaminationPage(List<MedicalExaminationView> examinations, int count, boolean hasMore,
+                                     String nextCursor) {
+}
@@ -0,0 +1,13 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Response of a medical examination change; emgsReference only when the change produced one
+public record MedicalExaminationResult(String message,
+                                       @JsonInclude(JsonInclude.Include.NON_NULL) String emgsReference,
+                                       MedicalExaminationView examination) {
+
+    public MedicalExaminationResult(String message, MedicalExaminationView examination) {
+        this(message, null, examination);
+    }
+}
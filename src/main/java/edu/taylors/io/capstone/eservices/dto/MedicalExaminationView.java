@@ -0,0 +1,75 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+import edu.taylors.io.capstone.eservices.entity.MedicalExamination;
+import edu.taylors.io.capstone.eservices.entity.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * The medical examination columns the API renders. List queries select straight into this
+ * record (see the projection constructor), so no MedicalExamination or User entities are
+ * loaded for them.
+ */
+public record MedicalExaminationView(Long id,
+                                     String examinationNumber,
+                                     String studentId,
+                                     String studentName,
+                                     String status,
+                                     Integer progressPercentage,
+                                     LocalDateTime appointmentDate,
+                                     String clinicName,
+                                     String clinicAddress,
+                                     String clinicPhone,
+                                     LocalDateTime examinationDate,
+                                     LocalDateTime resultDate,
+                                     Boolean passed,
+                                     String resultNotes,
+                                     Boolean chestXrayDone,
+                                     Boolean bloodTestDone,
+                                     Boolean urineTestDone,
+                                     Boolean submittedToEmgs,
+                                     LocalDateTime emgsSubmissionDate,
+                                     String emgsReference,
+                                     LocalDateTime expiryDate,
+                                     LocalDateTime createdAt,
+                                     LocalDateTime updatedAt) {
+
+    // Projection constructor: the student name columns instead of the full name
+    public MedicalExaminationView(Long id, String examinationNumber,
+                                  String studentId, String studentFirstName, String studentLastName,
+                                  String status, Integer progressPercentage, LocalDateTime appointmentDate,
+                                  String clinicName, String clinicAddress, String clinicPhone,
+                                  LocalDateTime examinationDate, LocalDateTime resultDate,
+                                  Boolean passed, String resultNotes,
+                                  Boolean chestXrayDone, Boolean bloodTestDone, Boolean urineTestDone,
+                                  Boolean submittedToEmgs, LocalDateTime emgsSubmissionDate, String emgsReference,
+                                  LocalDateTime expiryDate, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, examinationNumber, studentId, User.fullName(studentFirstName, studentLastName, studentId),
+                status, progressPercentage, appointmentDate, clinicName, clinicAddress, clinicPhone,
+                examinationDate, resultDate, passed, resultNotes,
+                chestXrayDone, bloodTestDone, urineTestDone,
+                submittedToEmgs, emgsSubmissionDate, emgsReference,
+                expiryDate, createdAt, updatedAt);
+    }
+
+    // A student with no examination row yet: what a freshly provisioned one renders, not stored
+    public static MedicalExaminationView notStarted(User student) {
+        return new MedicalExaminationView(null, null, student.getStudentId(), student.getFullName(),
+                "PENDING", 0, null, null, null, null,
+                null, null, null, null, null, null, null,
+                false, null, null, null, null, null);
+    }
+
+    // For an examination already loaded to be changed; student should be fetched with it
+    public static MedicalExaminationView of(MedicalExamination exam) {
+        User student = exam.getStudent();
+        return new MedicalExaminationView(exam.getId(), exam.getExaminationNumber(),
+                student.getStudentId(), student.getFullName(),
+                exam.getStatus(), exam.getProgressPercentage(), exam.getAppointmentDate(),
+                exam.getClinicName(), exam.getClinicAddress(), exam.getClinicPhone(),
+                exam.getExaminationDate(), exam.getResultDate(), exam.getPassed(), exam.getResultNotes(),
+                exam.getChestXrayDone(), exam.getBloodTestDone(), exam.getUrineTestDone(),
+                exam.getSubmittedToEmgs(), exam.getEmgsSubmissionDate(), exam.getEmgsReference(),
+                exam.getExpiryDate(), exam.getCreatedAt(), exam.getUpdatedAt());
+    }
+}
@@ -0,0 +1,10 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+public record MedicalStatistics(long totalExaminations,
+                                long pending,
+                                long scheduled,
+                                long completed,
+                                long passed,
+                                long failed,
+                                long submittedToEmgs) {
+}
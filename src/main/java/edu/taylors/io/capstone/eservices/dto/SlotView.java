@@ -0,0 +1,25 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+import edu.taylors.io.capstone.eservices.service.SlotAvailabilityIndex;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * An available slot as the API renders it; availableSlots is read once from the index's live count.
+ */
+public record SlotView(Long id,
+                       String locationType,
+                       String locationName,
+                       String roomNumber,
+                       LocalDate date,
+                       LocalTime startTime,
+                       LocalTime endTime,
+                       int availableSlots,
+                       String staff) {
+
+    public static SlotView of(SlotAvailabilityIndex.Slot slot) {
+        return new SlotView(slot.id(), slot.locationType(), slot.locationName(), slot.roomNumber(),
+                slot.date(), slot.startTime(), slot.endTime(), slot.getAvailableSlots(), slot.staffName());
+    }
+}
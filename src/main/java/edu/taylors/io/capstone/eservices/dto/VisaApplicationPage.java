@@ -0,0 +1,10 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+import java.util.List;
+
+/**
+ * One keyset page of the staff visa list; pass nextCursor back for the next page (null = last page).
+ */
+public record VisaApplicationPage(List<VisaApplicationView> applications, int count, boolean hasMore,
+                                  String nextCursor) {
+}
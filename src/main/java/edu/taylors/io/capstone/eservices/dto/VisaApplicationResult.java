@@ -0,0 +1,13 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// Response of a visa application change; emgsReference only when the change produced one
+public record VisaApplicationResult(String message,
+                                    @JsonInclude(JsonInclude.Include.NON_NULL) String emgsReference,
+                                    VisaApplicationView application) {
+
+    public VisaApplicationResult(String message, VisaApplicationView application) {
+        this(message, null, application);
+    }
+}
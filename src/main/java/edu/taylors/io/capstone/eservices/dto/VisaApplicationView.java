@@ -0,0 +1,86 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+import edu.taylors.io.capstone.eservices.entity.User;
+import edu.taylors.io.capstone.eservices.entity.VisaApplication;
+import edu.taylors.io.capstone.eservices.entity.VisaStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * The visa application columns the API renders. List queries select straight into this
+ * record (see the projection constructor), so no VisaApplication, User or MedicalExamination
+ * entities are loaded for them.
+ */
+public record VisaApplicationView(Long id,
+                                  String applicationNumber,
+                                  String studentId,
+                                  String studentName,
+                                  String status,
+                                  String currentStage,
+                                  Integer progressPercentage,
+                                  String visaType,
+                                  LocalDateTime applicationDate,
+                                  LocalDateTime documentsSubmittedDate,
+                                  LocalDateTime emgsSubmissionDate,
+                                  String emgsReference,
+                                  LocalDateTime emgsApprovalDate,
+                                  LocalDateTime valIssuedDate,
+                                  String valNumber,
+                                  LocalDateTime valExpiryDate,
+                                  String passportNumber,
+                                  String nationality,
+                                  String programName,
+                                  String faculty,
+                                  boolean medicalComplete,
+                                  boolean readyForEmgs,
+                                  LocalDateTime createdAt,
+                                  LocalDateTime updatedAt) {
+
+    /**
+     * Projection constructor: the student name columns and the (left-joined, possibly null)
+     * medical examination status instead of the derived fields.
+     */
+    public VisaApplicationView(Long id, String applicationNumber,
+                               String studentId, String studentFirstName, String studentLastName,
+                               String status, String currentStage, Integer progressPercentage, String visaType,
+                               LocalDateTime applicationDate, LocalDateTime documentsSubmittedDate,
+                               LocalDateTime emgsSubmissionDate, String emgsReference,
+                               LocalDateTime emgsApprovalDate, LocalDateTime valIssuedDate,
+                               String valNumber, LocalDateTime valExpiryDate,
+                               String passportNumber, String nationality, String programName, String faculty,
+                               String medicalStatus,
+                               LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, applicationNumber, studentId, User.fullName(studentFirstName, studentLastName, studentId),
+                status, currentStage, progressPercentage, visaType,
+                applicationDate, documentsSubmittedDate, emgsSubmissionDate, emgsReference,
+                emgsApprovalDate, valIssuedDate, valNumber, valExpiryDate,
+                passportNumber, nationality, programName, faculty,
+                "PASSED".equals(medicalStatus),
+                documentsSubmittedDate != null && "PASSED".equals(medicalStatus),
+                createdAt, updatedAt);
+    }
+
+    // A student with no application row yet: what a freshly provisioned one renders, not stored
+    public static VisaApplicationView notStarted(User student) {
+        return new VisaApplicationView(null, null, student.getStudentId(), student.getFullName(),
+                VisaStatus.PENDING.name(), "Not Started", 0, null,
+                null, null, null, null, null, null, null, null,
+                null, null, null, null,
+                false, false, null, null);
+    }
+
+    // For an application already loaded to be changed; student and medicalExamination should be fetched with it
+    public static VisaApplicationView of(VisaApplication visa) {
+        User student = visa.getStudent();
+        return new VisaApplicationView(visa.getId(), visa.getApplicationNumber(),
+                student.getStudentId(), student.getFullName(),
+                visa.getStatus(), visa.getCurrentStage(), visa.getProgressPercentage(), visa.getVisaType(),
+                visa.getApplicationDate(), visa.getDocumentsSubmittedDate(),
+                visa.getEmgsSubmissionDate(), visa.getEmgsReference(),
+                visa.getEmgsApprovalDate(), visa.getValIssuedDate(),
+                visa.getValNumber(), visa.getValExpiryDate(),
+                visa.getPassportNumber(), visa.getNationality(), visa.getProgramName(), visa.getFaculty(),
+                visa.isMedicalComplete(), visa.isReadyForEmgsSubmission(),
+                visa.getCreatedAt(), visa.getUpdatedAt());
+    }
+}
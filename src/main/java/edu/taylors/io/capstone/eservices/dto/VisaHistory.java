@@ -0,0 +1,21 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+import edu.taylors.io.capstone.eservices.entity.VisaEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Every status transition of one visa application, oldest first (staff audit view).
+ */
+public record VisaHistory(Long applicationId, List<Event> events) {
+
+    public record Event(Long id, String status, LocalDateTime occurredAt, String reference,
+                        String actor, String note) {
+
+        public static Event of(VisaEvent event) {
+            return new Event(event.getId(), event.getStatus().name(), event.getOccurredAt(),
+                    event.getReference(), event.getActor(), event.getNote());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+public record VisaStatistics(long totalApplications,
+                             long pending,
+                             long documentsSubmitted,
+                             long emgsProcessing,
+                             long emgsApproved,
+                             long valIssued,
+                             long immigrationProcessing,
+                             long approved,
+                             long collected,
+                             long rejected) {
+}
@@ -0,0 +1,17 @@
+package edu.taylors.io.capstone.eservices.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record VisaTimeline(String applicationNumber,
+                           String currentStatus,
+                           String currentStage,
+                           Integer progressPercentage,
+                           List<Event> timeline) {
+
+    /**
+     * @param status "completed" or "in_progress"
+     */
+    public record Event(String title, LocalDateTime date, String status, String description) {
+    }
+}
@@ -8,9 +8,15 @@ import java.time.LocalDateTime;
 
 /**
  * Appointment entity - for medical clinics AND International Office
+ * The indexes end in the staff list's keyset (appointmentDate, appointmentTime, id).
  */
 @Entity
-@Table(name = "appointments")
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_date_time", columnList = "appointmentDate, appointmentTime, id"),
+        @Index(name = "idx_appointments_status_date_time", columnList = "status, appointmentDate, appointmentTime, id"),
+        @Index(name = "idx_appointments_type_date_time", columnList = "appointmentType, appointmentDate, appointmentTime, id"),
+        @Index(name = "idx_appointments_location_date_time", columnList = "locationName, appointmentDate, appointmentTime, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -22,15 +28,15 @@ public class Appointment {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User student;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "medical_examination_id")
     private MedicalExamination medicalExamination;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "visa_application_id")
     private VisaApplication visaApplication;
 
@@ -59,7 +65,7 @@ public class Appointment {
     private Integer durationMinutes;  // Default: 30 min (office) or 60 min (medical)
 
     // Staff Assignment (for office appointments)
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "assigned_staff_id")
     private User assignedStaff;
 
@@ -0,0 +1,85 @@
+package edu.taylors.io.capstone.eservices.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Recurring availability: "slotMinutes-long slots from startTime to endTime on these
+ * weekdays between validFrom and validUntil, except on excludedDates".
+ * Slots are computed from rules on demand; a time_slots row only exists once a slot is booked.
+ */
+@Entity
+@Table(name = "availability_rules", indexes = {
+        @Index(name = "idx_availability_rules_location", columnList = "locationName")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AvailabilityRule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Location
+    private String locationType;  // MEDICAL_CLINIC or INTERNATIONAL_OFFICE
+    @Column(nullable = false)
+    private String locationName;
+    private String roomNumber;
+
+    // Staff (for office appointments)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "staff_id")
+    private User staff;
+
+    // Purpose limitation
+    private String appointmentType;  // null = any type
+
+    // Recurrence
+    @Column(nullable = false, length = 30)
+    private String daysOfWeek;  // e.g. "MON,TUE,WED,THU,FRI"
+
+    @Column(nullable = false)
+    private LocalDate validFrom;
+
+    @Column(nullable = false)
+    private LocalDate validUntil;
+
+    @Column(nullable = false)
+    private LocalTime startTime;
+
+    @Column(nullable = false)
+    private LocalTime endTime;
+
+    @Column(nullable = false)
+    private Integer slotMinutes;
+
+    @Column(nullable = false)
+    private Integer capacity;  // appointments per slot
+
+    // Public holidays, closures: no slots on these dates
+    @ElementCollection
+    @CollectionTable(name = "availability_rule_exclusions", joinColumns = @JoinColumn(name = "rule_id"))
+    @Column(name = "excluded_date")
+    @Builder.Default
+    private Set<LocalDate> excludedDates = new HashSet<>();
+
+    private String createdBy;
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (capacity == null) {
+            capacity = 1;
+        }
+    }
+}
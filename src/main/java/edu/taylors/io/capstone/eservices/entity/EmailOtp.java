@@ -0,0 +1,35 @@
+package edu.taylors.io.capstone.eservices.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pending email OTP per student, used by DatabaseOtpStore.
+ * Only the HMAC of the OTP is stored.
+ */
+@Entity
+@Table(name = "email_otps", indexes = {
+        @Index(name = "idx_email_otps_expires_at", columnList = "expiresAt")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOtp {
+
+    @Id
+    @Column(length = 50)
+    private String studentId;
+
+    @Column(nullable = false, length = 32)
+    private byte[] otpHash;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private int attempts;
+}
@@ -0,0 +1,75 @@
+package edu.taylors.io.capstone.eservices.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An email waiting to be (or already) sent by EmailOutboxDispatcher.
+ * Rows are inserted in the same transaction as the business change that triggers them.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+        @Index(name = "idx_email_outbox_due", columnList = "status, nextAttemptAt"),
+        @Index(name = "idx_email_outbox_recipient", columnList = "recipient, status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOutbox {
+
+    // Replaces the body of a sensitive email once it is SENT or DEAD
+    public static final String REDACTED = "[redacted]";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Lob
+    @Column(nullable = false)
+    private String body;
+
+    // Non-urgent notification: held for the digest window and merged with others to the same recipient
+    @Column(nullable = false)
+    private boolean digestible;
+
+    // Body carries a secret (OTP, reset token): redacted once the row is SENT or DEAD
+    @Column(nullable = false)
+    private boolean sensitive;
+
+    @Column(nullable = false, length = 20)
+    private String status;  // PENDING, SENDING, SENT, DEAD
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Next send attempt; while SENDING, the end of the dispatcher's lease on the row
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(length = 1000)
+    private String lastError;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        if (status == null) {
+            status = "PENDING";
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
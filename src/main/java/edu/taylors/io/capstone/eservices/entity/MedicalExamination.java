@@ -6,9 +6,14 @@ import java.time.LocalDateTime;
 
 /**
  * Medical Examination entity - tracks student medical check-ups for visa processing
+ * The indexes end in the staff list's keyset (createdAt, id).
  */
 @Entity
-@Table(name = "medical_examinations")
+@Table(name = "medical_examinations", indexes = {
+        @Index(name = "idx_medical_examinations_created", columnList = "createdAt, id"),
+        @Index(name = "idx_medical_examinations_status_created", columnList = "status, createdAt, id"),
+        @Index(name = "idx_medical_examinations_clinic_created", columnList = "clinicName, createdAt, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,14 +21,11 @@ import java.time.LocalDateTime;
 @Builder
 public class MedicalExamination {
 
-    @OneToOne(mappedBy = "medicalExamination")
-    private VisaApplication visaApplication;
-
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User student;
 
@@ -53,7 +55,7 @@ public class MedicalExamination {
     private Boolean urineTestDone;
 
     // Documents
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "medical_report_file_id")
     private StudentFile medicalReportFile;
 
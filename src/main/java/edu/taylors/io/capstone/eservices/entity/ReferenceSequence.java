@@ -0,0 +1,36 @@
+package edu.taylors.io.capstone.eservices.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row per reference prefix and year (e.g. "APT-2026"), holding the highest number
+ * handed out to any node so far. Nodes reserve numbers from it in blocks; see
+ * ReferenceNumberAllocator.
+ */
+@Entity
+@Table(name = "reference_sequences")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReferenceSequence {
+
+    @Id
+    @Column(length = 30)
+    private String name;  // prefix + "-" + year, e.g. "VA-2026"
+
+    @Column(nullable = false)
+    private Long lastReserved;
+
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -8,9 +8,12 @@ import java.time.LocalTime;
 /**
  * TimeSlot entity - manages available appointment slots
  * Works for both medical clinics and International Office
+ * Slots generated from an AvailabilityRule only get a row here once they are first booked.
  */
 @Entity
-@Table(name = "time_slots")
+@Table(name = "time_slots", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_time_slots_location_date_start", columnNames = {"locationName", "date", "startTime"})
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -44,7 +47,9 @@ public class TimeSlot {
 
     // Capacity
     private Integer maxAppointments;  // How many slots available at this time
-    private Integer bookedAppointments;  // How many are booked
+    // How many are booked; only changed through TimeSlotRepository.tryBook / release so
+    // concurrent bookings cannot overbook
+    private Integer bookedAppointments;
 
     // Availability
     @Column(nullable = false)
@@ -74,23 +79,6 @@ public class TimeSlot {
         return isAvailable && bookedAppointments < maxAppointments;
     }
 
-    public void bookSlot() {
-        if (!hasAvailableSlots()) {
-            throw new RuntimeException("No available slots");
-        }
-        bookedAppointments++;
-        if (bookedAppointments >= maxAppointments) {
-            isAvailable = false;
-        }
-    }
-
-    public void releaseSlot() {
-        if (bookedAppointments > 0) {
-            bookedAppointments--;
-            isAvailable = true;
-        }
-    }
-
     public Integer getAvailableSlots() {
         return maxAppointments - bookedAppointments;
     }
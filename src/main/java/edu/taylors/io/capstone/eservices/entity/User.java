@@ -2,6 +2,7 @@ package edu.taylors.io.capstone.eservices.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -49,24 +50,23 @@ public class User implements UserDetails {
     private LocalDateTime updatedAt;
     private LocalDateTime lastLoginAt;
 
-    // Refresh Token fields
-    @Column(length = 500)
-    private String refreshToken;
-    private LocalDateTime refreshTokenExpiryDate;
-
     // Google Authenticator (TOTP) fields
     private String twoFactorSecret;
     private boolean twoFactorEnabled = false;
 
-    // Email OTP fields
-    private String emailOtp;
-    private LocalDateTime emailOtpExpiryDate;
+    // Email ownership confirmed with an OTP (pending OTPs live in OtpStore)
     private boolean emailOtpVerified = false;
 
     // Track 2FA method preference
     @Enumerated(EnumType.STRING)
     private TwoFactorMethod twoFactorMethod = TwoFactorMethod.NONE;
 
+    // Moved only by UserRepository.incrementDataVersion (see StudentDataVersions); never written
+    // from the entity, so saving a loaded user cannot put an older version back
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private long dataVersion;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -110,6 +110,11 @@ public class User implements UserDetails {
 
     // Helper method to get full name
     public String getFullName() {
+        return fullName(firstName, lastName, studentId);
+    }
+
+    // Same rule for projections that select the name columns instead of the User
+    public static String fullName(String firstName, String lastName, String studentId) {
         if (firstName != null && lastName != null) {
             return firstName + " " + lastName;
         }
@@ -6,9 +6,15 @@ import java.time.LocalDateTime;
 
 /**
  * Visa Application entity - tracks student visa processing
+ * The indexes end in the staff list's keyset (createdAt, id).
  */
 @Entity
-@Table(name = "visa_applications")
+@Table(name = "visa_applications", indexes = {
+        @Index(name = "idx_visa_applications_created", columnList = "createdAt, id"),
+        @Index(name = "idx_visa_applications_status_created", columnList = "status, createdAt, id"),
+        @Index(name = "idx_visa_applications_type_created", columnList = "visaType, createdAt, id"),
+        @Index(name = "idx_visa_applications_nationality_created", columnList = "nationality, createdAt, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -20,7 +26,7 @@ public class VisaApplication {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User student;
 
@@ -37,7 +43,7 @@ public class VisaApplication {
 
     // Current Status
     @Column(nullable = false)
-    private String status;  // PENDING, DOCUMENTS_SUBMITTED, EMGS_PROCESSING, VAL_ISSUED, etc.
+    private String status;  // VisaStatus name; changed only through VisaApplicationService.transition
 
     // Progress
     private Integer progressPercentage;
@@ -69,7 +75,7 @@ public class VisaApplication {
     private String rejectionReason;
 
     // Link to Medical Examination
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "medical_examination_id")
     private MedicalExamination medicalExamination;
 
@@ -95,41 +101,9 @@ public class VisaApplication {
         updatedAt = LocalDateTime.now();
     }
 
-    // Helper method to calculate progress
-    public void updateProgress() {
-        int progress = 0;
-
-        // Application created: 5%
-        if (applicationDate != null) progress += 5;
-
-        // Documents submitted: 15%
-        if (documentsSubmittedDate != null) progress += 15;
-
-        // Medical cleared: 10%
-        if (medicalExamination != null &&
-                medicalExamination.getStatus().equals("PASSED")) {
-            progress += 10;
-        }
-
-        // EMGS submission: 10%
-        if (emgsSubmissionDate != null) progress += 10;
-
-        // EMGS approval (32%): 20%
-        if (emgsApprovalDate != null) progress += 20;
-
-        // VAL issued (70%): 20%
-        if (valIssuedDate != null) progress += 20;
-
-        // Immigration submission: 10%
-        if (immigrationSubmissionDate != null) progress += 10;
-
-        // Immigration approval: 5%
-        if (immigrationApprovalDate != null) progress += 5;
-
-        // Pass collected: 5%
-        if (passCollectedDate != null) progress += 5;
-
-        this.progressPercentage = progress;
+    // Progress is projected from visa_events: each event adds its state's weight
+    public void advance(VisaStatus next) {
+        progressPercentage = Math.min(100, (progressPercentage != null ? progressPercentage : 0) + next.getWeight());
     }
 
     // Check if medical is required and completed
@@ -0,0 +1,48 @@
+package edu.taylors.io.capstone.eservices.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One visa status transition, append-only. An application's timeline and audit history are
+ * a range scan of idx_visa_events_application.
+ */
+@Entity
+@Table(name = "visa_events", indexes = {
+        @Index(name = "idx_visa_events_application", columnList = "visaApplicationId, id")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VisaEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long visaApplicationId;
+
+    // The state entered
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private VisaStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    // Application number, EMGS reference or VAL number, depending on status
+    @Column(length = 50)
+    private String reference;
+
+    // Student or staff ID that made the change
+    @Column(length = 50)
+    private String actor;
+
+    @Column(length = 500)
+    private String note;
+}
@@ -0,0 +1,82 @@
+package edu.taylors.io.capstone.eservices.entity;
+
+/**
+ * Visa processing states, in processing order. Each transition is appended to visa_events;
+ * the weights add up to 100 so progress can be advanced one event at a time.
+ */
+public enum VisaStatus {
+    PENDING("Application Created", 5,
+            "Application Created", "Application %s created"),
+    DOCUMENTS_SUBMITTED("Documents Submitted - Pending Review", 15,
+            "Documents Submitted", "All required documents submitted"),
+    // Submission requires a passed medical, so its weight includes the medical's 10%
+    EMGS_PROCESSING("EMGS Processing - 0%", 20,
+            "EMGS Submission", "Reference: %s"),
+    EMGS_APPROVED("EMGS Approved - 32%", 20,
+            "EMGS Approved (32%)", "EMGS approval received"),
+    VAL_ISSUED("VAL Issued - 70%", 20,
+            "VAL Issued (70%)", "VAL Number: %s"),
+    IMMIGRATION_SUBMITTED("Immigration Processing", 10,
+            "Immigration Submission", "Submitted to Immigration Department"),
+    IMMIGRATION_APPROVED("Student Pass Approved - Ready for Collection", 5,
+            "Immigration Approved", "Student Pass approved"),
+    PASS_COLLECTED("Student Pass Collected - Complete", 5,
+            "Pass Collected", "Student Pass collected - Process complete"),
+    REJECTED("Application Rejected", 0,
+            "Application Rejected", "Application rejected");
+
+    private final String stage;
+    private final int weight;
+    private final String title;
+    private final String description;
+
+    VisaStatus(String stage, int weight, String title, String description) {
+        this.stage = stage;
+        this.weight = weight;
+        this.title = title;
+        this.description = description;
+    }
+
+    public static VisaStatus from(String status) {
+        try {
+            return valueOf(status);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new RuntimeException("Invalid visa status: " + status);
+        }
+    }
+
+    public boolean canMoveTo(VisaStatus next) {
+        return switch (this) {
+            case PENDING -> next == DOCUMENTS_SUBMITTED || next == REJECTED;
+            case DOCUMENTS_SUBMITTED -> next == EMGS_PROCESSING || next == REJECTED;
+            case EMGS_PROCESSING -> next == EMGS_APPROVED || next == REJECTED;
+            case EMGS_APPROVED -> next == VAL_ISSUED || next == REJECTED;
+            case VAL_ISSUED -> next == IMMIGRATION_SUBMITTED || next == REJECTED;
+            case IMMIGRATION_SUBMITTED -> next == IMMIGRATION_APPROVED || next == REJECTED;
+            case IMMIGRATION_APPROVED -> next == PASS_COLLECTED;
+            case PASS_COLLECTED, REJECTED -> false;
+        };
+    }
+
+    // Human-readable currentStage once in this state
+    public String getStage() {
+        return stage;
+    }
+
+    // Progress percentage this state's event adds
+    public int getWeight() {
+        return weight;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    // Timeline description of an event; %s is the event's reference
+    public String describe(VisaEvent event) {
+        if (this == REJECTED && event.getNote() != null && !event.getNote().isBlank()) {
+            return description + ": " + event.getNote();
+        }
+        return description.formatted(event.getReference());
+    }
+}
@@ -1,22 +1,58 @@
 package edu.taylors.io.capstone.eservices.repository;
 
+import edu.taylors.io.capstone.eservices.dto.AppointmentView;
 import edu.taylors.io.capstone.eservices.entity.Appointment;
 import edu.taylors.io.capstone.eservices.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appointment, Long>, AppointmentRepositoryCustom {
+
+    // Only the rendered columns (see AppointmentView), student and staff names joined in the same query
+    String VIEW = "SELECT new edu.taylors.io.capstone.eservices.dto.AppointmentView(" +
+            "a.id, a.appointmentNumber, s.studentId, s.firstName, s.lastName, " +
+            "a.appointmentType, a.locationName, a.locationAddress, a.roomNumber, " +
+            "a.appointmentDate, a.appointmentTime, a.durationMinutes, a.status, a.purpose, a.confirmedByStudent, " +
+            "st.studentId, st.firstName, st.lastName, a.createdAt) " +
+            "FROM Appointment a JOIN a.student s LEFT JOIN a.assignedStaff st ";
 
     Optional<Appointment> findByAppointmentNumber(String appointmentNumber);
 
+    // For changes whose response renders the appointment: student and staff in the same SELECT
+    @EntityGraph(attributePaths = {"student", "assignedStaff"})
+    Optional<Appointment> findWithStudentById(Long id);
+
+    @Query("SELECT a.locationName FROM Appointment a WHERE a.id = :id")
+    Optional<String> findLocationNameById(@Param("id") Long id);
+
+    @Query(VIEW + "WHERE s.studentId = :studentId ORDER BY a.appointmentDate DESC, a.appointmentTime DESC")
+    List<AppointmentView> findViewsByStudentId(@Param("studentId") String studentId);
+
+    @Query(VIEW + "WHERE s.studentId = :studentId AND a.status = :status " +
+            "ORDER BY a.appointmentDate DESC, a.appointmentTime DESC")
+    List<AppointmentView> findViewsByStudentIdAndStatus(@Param("studentId") String studentId,
+                                                        @Param("status") String status);
+
+    @Query(VIEW + "WHERE s.studentId = :studentId AND a.appointmentDate >= :today " +
+            "AND a.status IN ('PENDING', 'CONFIRMED') " +
+            "ORDER BY a.appointmentDate ASC, a.appointmentTime ASC")
+    List<AppointmentView> findUpcomingViewsByStudentId(@Param("studentId") String studentId,
+                                                       @Param("today") LocalDate today);
+
     // Find by student
     List<Appointment> findByStudentOrderByAppointmentDateDescAppointmentTimeDesc(User student);
 
@@ -42,11 +78,31 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
             "ORDER BY a.appointmentTime ASC")
     List<Appointment> findByDate(@Param("date") LocalDate date);
 
-    // Find appointments needing reminder
-    @Query("SELECT a FROM Appointment a WHERE a.appointmentDate = :tomorrow " +
-            "AND a.status IN ('PENDING', 'CONFIRMED') " +
+    // Next chunk of appointments due a reminder: starting after the (date, time, id) cursor
+    // and no later than the until date/time, in keyset order
+    @Query("SELECT a FROM Appointment a JOIN FETCH a.student " +
+            "WHERE a.status IN ('PENDING', 'CONFIRMED', 'RESCHEDULED') " +
+            "AND (a.reminderSent = false OR a.reminderSent IS NULL) " +
+            "AND (a.appointmentDate > :afterDate OR (a.appointmentDate = :afterDate " +
+            "AND (a.appointmentTime > :afterTime OR (a.appointmentTime = :afterTime AND a.id > :afterId)))) " +
+            "AND (a.appointmentDate < :untilDate OR (a.appointmentDate = :untilDate AND a.appointmentTime <= :untilTime)) " +
+            "ORDER BY a.appointmentDate ASC, a.appointmentTime ASC, a.id ASC")
+    List<Appointment> findReminderChunk(@Param("afterDate") LocalDate afterDate,
+                                        @Param("afterTime") LocalTime afterTime,
+                                        @Param("afterId") Long afterId,
+                                        @Param("untilDate") LocalDate untilDate,
+                                        @Param("untilTime") LocalTime untilTime,
+                                        Pageable pageable);
+
+    // Flag reminders as sent in one statement; only rows still unsent (and still upcoming) count,
+    // so a result smaller than ids.size() means another node or a status change got there first
+    @Modifying
+    @Transactional
+    @Query("UPDATE Appointment a SET a.reminderSent = true, a.reminderSentDate = :sentAt, " +
+            "a.reminderCount = COALESCE(a.reminderCount, 0) + 1 " +
+            "WHERE a.id IN :ids AND a.status IN ('PENDING', 'CONFIRMED', 'RESCHEDULED') " +
             "AND (a.reminderSent = false OR a.reminderSent IS NULL)")
-    List<Appointment> findAppointmentsNeedingReminder(@Param("tomorrow") LocalDate tomorrow);
+    int markReminderSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
 
     // Find past appointments not marked as completed
     @Query("SELECT a FROM Appointment a WHERE a.appointmentDate < :today " +
@@ -77,4 +133,20 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
             @Param("staffId") Long staffId,
             @Param("today") LocalDate today
     );
+
+    // Highest number after this prefix (e.g. "APT-2026-"), to seed ReferenceNumberAllocator.
+    // Compared as numbers: as strings "APT-2026-9999" would sort after "APT-2026-10000"
+    @Query("SELECT MAX(CAST(SUBSTRING(a.appointmentNumber, LENGTH(:prefix) + 1) AS Long)) FROM Appointment a " +
+            "WHERE a.appointmentNumber LIKE CONCAT(:prefix, '%')")
+    Long findHighestNumber(@Param("prefix") String prefix);
+
+    // Every statistic in one pass: [status, appointmentType, count]
+    @Query("SELECT a.status, a.appointmentType, COUNT(a) FROM Appointment a GROUP BY a.status, a.appointmentType")
+    List<Object[]> countGroupedByStatusAndType();
+
+    // Compare-and-set on status: 0 rows = another request changed the appointment first
+    @Modifying
+    @Transactional
+    @Query("UPDATE Appointment a SET a.status = :newStatus WHERE a.id = :id AND a.status = :expected")
+    int updateStatusIf(@Param("id") Long id, @Param("expected") String expected, @Param("newStatus") String newStatus);
 }
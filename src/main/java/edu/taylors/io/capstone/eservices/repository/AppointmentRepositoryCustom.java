@@ -0,0 +1,15 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import edu.taylors.io.capstone.eservices.dto.AppointmentView;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface AppointmentRepositoryCustom {
+
+    // One page of the staff list (rendered columns only) ordered by (appointmentDate, appointmentTime, id);
+    // null filters are ignored
+    List<AppointmentView> findStaffPage(String status, String type, String locationName,
+                                        LocalDate fromDate, LocalDate toDate,
+                                        String cursor, boolean descending, int limit);
+}
@@ -0,0 +1,78 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import edu.taylors.io.capstone.eservices.dto.AppointmentView;
+import edu.taylors.io.capstone.eservices.entity.Appointment;
+import edu.taylors.io.capstone.eservices.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class AppointmentRepositoryCustomImpl implements AppointmentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AppointmentView> findStaffPage(String status, String type, String locationName,
+                                               LocalDate fromDate, LocalDate toDate,
+                                               String cursor, boolean descending, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AppointmentView> query = cb.createQuery(AppointmentView.class);
+        Root<Appointment> appointment = query.from(Appointment.class);
+        Join<Appointment, User> student = appointment.join("student");
+        Join<Appointment, User> staff = appointment.join("assignedStaff", JoinType.LEFT);
+
+        Path<LocalDate> date = appointment.get("appointmentDate");
+        Path<LocalTime> time = appointment.get("appointmentTime");
+        Path<Long> id = appointment.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        if (status != null) {
+            where.add(cb.equal(appointment.get("status"), status));
+        }
+        if (type != null) {
+            where.add(cb.equal(appointment.get("appointmentType"), type));
+        }
+        if (locationName != null) {
+            where.add(cb.equal(appointment.get("locationName"), locationName));
+        }
+        if (fromDate != null) {
+            where.add(cb.greaterThanOrEqualTo(date, fromDate));
+        }
+        if (toDate != null) {
+            where.add(cb.lessThanOrEqualTo(date, toDate));
+        }
+        if (cursor != null) {
+            where.add(KeysetCursor.after(cb, descending, new Path[]{date, time, id},
+                    KeysetCursor.decode(cursor, LocalDate::parse, LocalTime::parse, Long::valueOf)));
+        }
+
+        // Same columns as AppointmentRepository.VIEW
+        query.select(cb.construct(AppointmentView.class,
+                        id, appointment.get("appointmentNumber"),
+                        student.get("studentId"), student.get("firstName"), student.get("lastName"),
+                        appointment.get("appointmentType"), appointment.get("locationName"),
+                        appointment.get("locationAddress"), appointment.get("roomNumber"),
+                        date, time, appointment.get("durationMinutes"),
+                        appointment.get("status"), appointment.get("purpose"), appointment.get("confirmedByStudent"),
+                        staff.get("studentId"), staff.get("firstName"), staff.get("lastName"),
+                        appointment.get("createdAt")))
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(KeysetCursor.orderBy(cb, descending, date, time, id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,16 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import edu.taylors.io.capstone.eservices.entity.AvailabilityRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AvailabilityRuleRepository extends JpaRepository<AvailabilityRule, Long> {
+
+    // Everything SlotAvailabilityIndex needs, staff and exclusions included, in one query
+    @Query("SELECT DISTINCT r FROM AvailabilityRule r LEFT JOIN FETCH r.staff LEFT JOIN FETCH r.excludedDates")
+    List<AvailabilityRule> findAllWithDetails();
+}
@@ -0,0 +1,27 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import edu.taylors.io.capstone.eservices.entity.EmailOtp;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface EmailOtpRepository extends JpaRepository<EmailOtp, String> {
+
+    // Counts the attempt only while the OTP is live and under the limit; 0 rows = reject
+    @Modifying
+    @Query("UPDATE EmailOtp o SET o.attempts = o.attempts + 1 " +
+            "WHERE o.studentId = :studentId AND o.attempts < :maxAttempts AND o.expiresAt > :now")
+    int recordAttempt(@Param("studentId") String studentId,
+                      @Param("maxAttempts") int maxAttempts,
+                      @Param("now") LocalDateTime now);
+
+    // Clean up expired OTPs
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailOtp o WHERE o.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,81 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import edu.taylors.io.capstone.eservices.entity.EmailOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Due emails, oldest first; SENDING rows whose lease ran out (crashed node) are due again
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status IN ('PENDING', 'SENDING') " +
+            "AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt ASC")
+    List<EmailOutbox> findDue(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Take the row for one send attempt; 0 rows = another dispatcher got it first
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = 'SENDING', e.attempts = e.attempts + 1, " +
+            "e.nextAttemptAt = :leaseUntil " +
+            "WHERE e.id = :id AND e.status IN ('PENDING', 'SENDING') AND e.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id,
+              @Param("now") LocalDateTime now,
+              @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // Held notifications for one recipient, whether or not their own window has ended yet
+    @Query("SELECT e FROM EmailOutbox e WHERE e.recipient = :recipient AND e.digestible = true " +
+            "AND e.status = 'PENDING' AND e.id <> :excludeId ORDER BY e.id ASC")
+    List<EmailOutbox> findDigestible(@Param("recipient") String recipient,
+                                     @Param("excludeId") Long excludeId,
+                                     Pageable pageable);
+
+    // Take a held notification early, to go out in the digest being sent now
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = 'SENDING', e.attempts = e.attempts + 1, " +
+            "e.nextAttemptAt = :leaseUntil " +
+            "WHERE e.id = :id AND e.status = 'PENDING' AND e.digestible = true")
+    int claimForDigest(@Param("id") Long id, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    // A sensitive body is dropped in the same statement, so the secret never outlives delivery
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = 'SENT', e.sentAt = :sentAt, e.lastError = NULL, " +
+            "e.body = CASE WHEN e.sensitive = true THEN '" + EmailOutbox.REDACTED + "' ELSE e.body END " +
+            "WHERE e.id = :id")
+    int markSent(@Param("id") Long id, @Param("sentAt") LocalDateTime sentAt);
+
+    // Back to PENDING for a retry at nextAttemptAt
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = 'PENDING', e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :error WHERE e.id = :id")
+    int markRetry(@Param("id") Long id,
+                  @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                  @Param("error") String error);
+
+    // Out of attempts: kept for staff to inspect, without the secret of a sensitive body
+    @Modifying
+    @Transactional
+    @Query("UPDATE EmailOutbox e SET e.status = 'DEAD', e.nextAttemptAt = :deadAt, e.lastError = :error, " +
+            "e.body = CASE WHEN e.sensitive = true THEN '" + EmailOutbox.REDACTED + "' ELSE e.body END " +
+            "WHERE e.id = :id")
+    int markDead(@Param("id") Long id,
+                 @Param("deadAt") LocalDateTime deadAt,
+                 @Param("error") String error);
+
+    @Query("SELECT e.status, COUNT(e) FROM EmailOutbox e GROUP BY e.status")
+    List<Object[]> countByStatus();
+
+    // Clean up delivered emails
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailOutbox e WHERE e.status = 'SENT' AND e.sentAt < :cutoff")
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff);
+}
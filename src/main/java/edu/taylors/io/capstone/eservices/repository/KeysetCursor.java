@@ -0,0 +1,79 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Opaque cursors and "rows after the cursor" predicates for keyset pagination.
+ *
+ * A cursor is the sort key of the last row on the previous page, URL-safe base64 encoded.
+ * The next page is read with WHERE key > cursor ORDER BY key LIMIT n, which stays on the
+ * composite index however deep the page is, unlike OFFSET.
+ */
+public final class KeysetCursor {
+
+    private KeysetCursor() {
+    }
+
+    public static String encode(Object... keyValues) {
+        StringBuilder text = new StringBuilder();
+        for (Object value : keyValues) {
+            if (!text.isEmpty()) {
+                text.append('|');
+            }
+            text.append(value);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The key values of a cursor, each read with the parser at its position. Anything that does
+     * not decode, has the wrong number of keys or fails to parse is an "Invalid cursor".
+     */
+    @SafeVarargs
+    @SuppressWarnings("rawtypes")
+    public static Comparable[] decode(String cursor, Function<String, ? extends Comparable>... parsers) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length != parsers.length) {
+                throw new IllegalArgumentException();
+            }
+            Comparable[] values = new Comparable[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                values[i] = parsers[i].apply(parts[i]);
+            }
+            return values;
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    /**
+     * (k1, k2, ..., kn) strictly after the given values, written as
+     * k1 > v1 OR (k1 = v1 AND (k2 > v2 OR (k2 = v2 AND ...))) since JPQL has no row comparison.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Predicate after(CriteriaBuilder cb, boolean descending, Path[] keys, Comparable[] values) {
+        Predicate result = null;
+        for (int i = keys.length - 1; i >= 0; i--) {
+            Predicate beyond = descending ? cb.lessThan(keys[i], values[i]) : cb.greaterThan(keys[i], values[i]);
+            result = result == null ? beyond : cb.or(beyond, cb.and(cb.equal(keys[i], values[i]), result));
+        }
+        return result;
+    }
+
+    static Order[] orderBy(CriteriaBuilder cb, boolean descending, Path<?>... keys) {
+        Order[] orders = new Order[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            orders[i] = descending ? cb.desc(keys[i]) : cb.asc(keys[i]);
+        }
+        return orders;
+    }
+}
@@ -1,9 +1,12 @@
 package edu.taylors.io.capstone.eservices.repository;
 
+import edu.taylors.io.capstone.eservices.dto.MedicalExaminationView;
 import edu.taylors.io.capstone.eservices.entity.MedicalExamination;
 import edu.taylors.io.capstone.eservices.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -11,14 +14,40 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface MedicalExaminationRepository extends JpaRepository<MedicalExamination, Long> {
+public interface MedicalExaminationRepository extends JpaRepository<MedicalExamination, Long>, MedicalExaminationRepositoryCustom {
+
+    // Only the rendered columns (see MedicalExaminationView), student name joined in the same query
+    String VIEW = "SELECT new edu.taylors.io.capstone.eservices.dto.MedicalExaminationView(" +
+            "m.id, m.examinationNumber, s.studentId, s.firstName, s.lastName, " +
+            "m.status, m.progressPercentage, m.appointmentDate, m.clinicName, m.clinicAddress, m.clinicPhone, " +
+            "m.examinationDate, m.resultDate, m.passed, m.resultNotes, " +
+            "m.chestXrayDone, m.bloodTestDone, m.urineTestDone, " +
+            "m.submittedToEmgs, m.emgsSubmissionDate, m.emgsReference, m.expiryDate, m.createdAt, m.updatedAt) " +
+            "FROM MedicalExamination m JOIN m.student s ";
 
     Optional<MedicalExamination> findByStudent(User student);
 
+    // For changes whose response renders the examination: student in the same SELECT
+    @EntityGraph(attributePaths = "student")
+    Optional<MedicalExamination> findWithStudentById(Long id);
+
+    @Query(VIEW + "WHERE s.studentId = :studentId")
+    Optional<MedicalExaminationView> findViewByStudentId(@Param("studentId") String studentId);
+
     Optional<MedicalExamination> findByStudentStudentId(String studentId);
 
     List<MedicalExamination> findByStatus(String status);
 
     @Query("SELECT m FROM MedicalExamination m WHERE m.expiryDate < :now AND m.status = 'PASSED'")
     List<MedicalExamination> findExpired(LocalDateTime now);
+
+    // Highest number after this prefix (e.g. "MED-2026-"), to seed ReferenceNumberAllocator.
+    // Compared as numbers: as strings "MED-2026-9999" would sort after "MED-2026-10000"
+    @Query("SELECT MAX(CAST(SUBSTRING(m.examinationNumber, LENGTH(:prefix) + 1) AS Long)) FROM MedicalExamination m " +
+            "WHERE m.examinationNumber LIKE CONCAT(:prefix, '%')")
+    Long findHighestNumber(@Param("prefix") String prefix);
+
+    // Every statistic in one pass: [status, count]
+    @Query("SELECT m.status, COUNT(m) FROM MedicalExamination m GROUP BY m.status")
+    List<Object[]> countGroupedByStatus();
 }
@@ -0,0 +1,14 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import edu.taylors.io.capstone.eservices.dto.MedicalExaminationView;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface MedicalExaminationRepositoryCustom {
+
+    // One page of the staff list (rendered columns only) ordered by (createdAt, id); null filters are ignored
+    List<MedicalExaminationView> findStaffPage(String status, String clinicName,
+                                               LocalDate fromDate, LocalDate toDate,
+                                               String cursor, boolean descending, int limit);
+}
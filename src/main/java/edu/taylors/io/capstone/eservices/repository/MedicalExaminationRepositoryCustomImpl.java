@@ -0,0 +1,72 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import edu.taylors.io.capstone.eservices.dto.MedicalExaminationView;
+import edu.taylors.io.capstone.eservices.entity.MedicalExamination;
+import edu.taylors.io.capstone.eservices.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MedicalExaminationRepositoryCustomImpl implements MedicalExaminationRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<MedicalExaminationView> findStaffPage(String status, String clinicName,
+                                                      LocalDate fromDate, LocalDate toDate,
+                                                      String cursor, boolean descending, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<MedicalExaminationView> query = cb.createQuery(MedicalExaminationView.class);
+        Root<MedicalExamination> exam = query.from(MedicalExamination.class);
+        Join<MedicalExamination, User> student = exam.join("student");
+
+        Path<LocalDateTime> createdAt = exam.get("createdAt");
+        Path<Long> id = exam.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        if (status != null) {
+            where.add(cb.equal(exam.get("status"), status));
+        }
+        if (clinicName != null) {
+            where.add(cb.equal(exam.get("clinicName"), clinicName));
+        }
+        if (fromDate != null) {
+            where.add(cb.greaterThanOrEqualTo(createdAt, fromDate.atStartOfDay()));
+        }
+        if (toDate != null) {
+            where.add(cb.lessThan(createdAt, toDate.plusDays(1).atStartOfDay()));
+        }
+        if (cursor != null) {
+            where.add(KeysetCursor.after(cb, descending, new Path[]{createdAt, id},
+                    KeysetCursor.decode(cursor, LocalDateTime::parse, Long::valueOf)));
+        }
+
+        // Same columns as MedicalExaminationRepository.VIEW
+        query.select(cb.construct(MedicalExaminationView.class,
+                        id, exam.get("examinationNumber"),
+                        student.get("studentId"), student.get("firstName"), student.get("lastName"),
+                        exam.get("status"), exam.get("progressPercentage"), exam.get("appointmentDate"),
+                        exam.get("clinicName"), exam.get("clinicAddress"), exam.get("clinicPhone"),
+                        exam.get("examinationDate"), exam.get("resultDate"), exam.get("passed"), exam.get("resultNotes"),
+                        exam.get("chestXrayDone"), exam.get("bloodTestDone"), exam.get("urineTestDone"),
+                        exam.get("submittedToEmgs"), exam.get("emgsSubmissionDate"), exam.get("emgsReference"),
+                        exam.get("expiryDate"), createdAt, exam.get("updatedAt")))
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(KeysetCursor.orderBy(cb, descending, createdAt, id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
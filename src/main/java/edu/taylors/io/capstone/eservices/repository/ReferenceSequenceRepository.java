@@ -0,0 +1,15 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import edu.taylors.io.capstone.eservices.entity.ReferenceSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReferenceSequenceRepository extends JpaRepository<ReferenceSequence, String> {
+
+    // Blocks are reserved over ReferenceNumberAllocator's own connection pool, in plain SQL
+    @Query("SELECT s.lastReserved FROM ReferenceSequence s WHERE s.name = :name")
+    Long findLastReserved(@Param("name") String name);
+}
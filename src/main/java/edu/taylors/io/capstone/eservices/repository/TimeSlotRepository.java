@@ -3,9 +3,11 @@ package edu.taylors.io.capstone.eservices.repository;
 import edu.taylors.io.capstone.eservices.entity.TimeSlot;
 import edu.taylors.io.capstone.eservices.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -65,4 +67,25 @@ public interface TimeSlotRepository extends JpaRepository<TimeSlot, Long> {
             "AND t.isAvailable = true " +
             "ORDER BY t.date ASC, t.startTime ASC")
     List<TimeSlot> findMedicalAvailableSlots(@Param("startDate") LocalDate startDate);
+
+    // Everything SlotAvailabilityIndex needs, staff included, in one query
+    @Query("SELECT t FROM TimeSlot t LEFT JOIN FETCH t.staff")
+    List<TimeSlot> findAllWithStaff();
+
+    // Take one seat only if one is free, in a single statement; 0 rows = full or closed.
+    // isAvailable is assigned first: MySQL evaluates SET left to right on the new values.
+    @Modifying
+    @Transactional
+    @Query("UPDATE TimeSlot t SET " +
+            "t.isAvailable = CASE WHEN t.bookedAppointments + 1 >= t.maxAppointments THEN false ELSE true END, " +
+            "t.bookedAppointments = t.bookedAppointments + 1 " +
+            "WHERE t.id = :id AND t.isAvailable = true AND t.bookedAppointments < t.maxAppointments")
+    int tryBook(@Param("id") Long id);
+
+    // Give one seat back; never drops below zero
+    @Modifying
+    @Transactional
+    @Query("UPDATE TimeSlot t SET t.isAvailable = true, t.bookedAppointments = t.bookedAppointments - 1 " +
+            "WHERE t.id = :id AND t.bookedAppointments > 0")
+    int release(@Param("id") Long id);
 }
@@ -2,18 +2,29 @@ package edu.taylors.io.capstone.eservices.repository;
 
 import edu.taylors.io.capstone.eservices.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
     Optional<User> findByStudentId(String studentId);
 
     Optional<User> findByEmail(String email);
 
-    Optional<User> findByRefreshToken(String refreshToken);
-
     boolean existsByStudentId(String studentId);
 
     boolean existsByEmail(String email);
+
+    // Joins the caller's transaction, so the version moves exactly when the write commits
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.dataVersion = u.dataVersion + 1 WHERE u.studentId = :studentId")
+    int incrementDataVersion(@Param("studentId") String studentId);
+
+    @Query("SELECT u.dataVersion FROM User u WHERE u.studentId = :studentId")
+    Optional<Long> findDataVersionByStudentId(@Param("studentId") String studentId);
 }
\ No newline at end of file
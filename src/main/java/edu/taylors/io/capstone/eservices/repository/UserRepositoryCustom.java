@@ -0,0 +1,9 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import java.util.Map;
+
+public interface UserRepositoryCustom {
+
+    // Write only the given columns of one user in a single UPDATE, without loading the row
+    int updateFields(Long userId, Map<String, Object> changes);
+}
@@ -0,0 +1,47 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import edu.taylors.io.capstone.eservices.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int updateFields(Long userId, Map<String, Object> changes) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = cb.createCriteriaUpdate(User.class);
+        Root<User> user = update.from(User.class);
+
+        changes.forEach((attribute, value) -> {
+            Path<Object> column = user.get(attribute);
+            if (value == null) {
+                update.set(column, cb.nullLiteral(column.getJavaType()));
+            } else {
+                update.set(column, value);
+            }
+        });
+        // Bulk updates bypass @PreUpdate, so keep updatedAt current here
+        if (!changes.containsKey("updatedAt")) {
+            update.set("updatedAt", LocalDateTime.now());
+        }
+        update.where(cb.equal(user.get("id"), userId));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+}
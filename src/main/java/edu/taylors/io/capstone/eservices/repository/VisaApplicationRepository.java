@@ -1,23 +1,45 @@
 package edu.taylors.io.capstone.eservices.repository;
 
+import edu.taylors.io.capstone.eservices.dto.VisaApplicationView;
 import edu.taylors.io.capstone.eservices.entity.VisaApplication;
 import edu.taylors.io.capstone.eservices.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface VisaApplicationRepository extends JpaRepository<VisaApplication, Long> {
+public interface VisaApplicationRepository extends JpaRepository<VisaApplication, Long>, VisaApplicationRepositoryCustom {
 
+    // Only the rendered columns (see VisaApplicationView), student name and medical status joined in the same query
+    String VIEW = "SELECT new edu.taylors.io.capstone.eservices.dto.VisaApplicationView(" +
+            "v.id, v.applicationNumber, s.studentId, s.firstName, s.lastName, " +
+            "v.status, v.currentStage, v.progressPercentage, v.visaType, " +
+            "v.applicationDate, v.documentsSubmittedDate, v.emgsSubmissionDate, v.emgsReference, " +
+            "v.emgsApprovalDate, v.valIssuedDate, v.valNumber, v.valExpiryDate, " +
+            "v.passportNumber, v.nationality, v.programName, v.faculty, m.status, v.createdAt, v.updatedAt) " +
+            "FROM VisaApplication v JOIN v.student s LEFT JOIN v.medicalExamination m ";
+
+    @EntityGraph(attributePaths = "medicalExamination")
     Optional<VisaApplication> findByStudent(User student);
 
+    @EntityGraph(attributePaths = "medicalExamination")
     Optional<VisaApplication> findByStudentStudentId(String studentId);
 
+    // For changes whose response renders the application: student and medical examination in the same SELECT
+    @EntityGraph(attributePaths = {"student", "medicalExamination"})
+    Optional<VisaApplication> findWithStudentById(Long id);
+
+    @Query(VIEW + "WHERE s.studentId = :studentId")
+    Optional<VisaApplicationView> findViewByStudentId(@Param("studentId") String studentId);
+
     Optional<VisaApplication> findByApplicationNumber(String applicationNumber);
 
     List<VisaApplication> findByStatus(String status);
@@ -29,4 +51,20 @@ public interface VisaApplicationRepository extends JpaRepository<VisaApplication
     List<VisaApplication> findPendingVALIssuance();
 
     Long countByStatus(String status);
+
+    // Highest number after this prefix (e.g. "VA-2026-"), to seed ReferenceNumberAllocator.
+    // Compared as numbers: as strings "VA-2026-9999" would sort after "VA-2026-10000"
+    @Query("SELECT MAX(CAST(SUBSTRING(v.applicationNumber, LENGTH(:prefix) + 1) AS Long)) FROM VisaApplication v " +
+            "WHERE v.applicationNumber LIKE CONCAT(:prefix, '%')")
+    Long findHighestNumber(@Param("prefix") String prefix);
+
+    // Every statistic in one pass: [status, count]
+    @Query("SELECT v.status, COUNT(v) FROM VisaApplication v GROUP BY v.status")
+    List<Object[]> countGroupedByStatus();
+
+    // Compare-and-set on status: 0 rows = another request moved the application first
+    @Modifying
+    @Transactional
+    @Query("UPDATE VisaApplication v SET v.status = :newStatus WHERE v.id = :id AND v.status = :expected")
+    int updateStatusIf(@Param("id") Long id, @Param("expected") String expected, @Param("newStatus") String newStatus);
 }
@@ -0,0 +1,14 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import edu.taylors.io.capstone.eservices.dto.VisaApplicationView;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface VisaApplicationRepositoryCustom {
+
+    // One page of the staff list (rendered columns only) ordered by (createdAt, id); null filters are ignored
+    List<VisaApplicationView> findStaffPage(String status, String visaType, String nationality,
+                                            LocalDate fromDate, LocalDate toDate,
+                                            String cursor, boolean descending, int limit);
+}
@@ -0,0 +1,81 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import edu.taylors.io.capstone.eservices.dto.VisaApplicationView;
+import edu.taylors.io.capstone.eservices.entity.MedicalExamination;
+import edu.taylors.io.capstone.eservices.entity.User;
+import edu.taylors.io.capstone.eservices.entity.VisaApplication;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class VisaApplicationRepositoryCustomImpl implements VisaApplicationRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<VisaApplicationView> findStaffPage(String status, String visaType, String nationality,
+                                                   LocalDate fromDate, LocalDate toDate,
+                                                   String cursor, boolean descending, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<VisaApplicationView> query = cb.createQuery(VisaApplicationView.class);
+        Root<VisaApplication> application = query.from(VisaApplication.class);
+        Join<VisaApplication, User> student = application.join("student");
+        Join<VisaApplication, MedicalExamination> medical = application.join("medicalExamination", JoinType.LEFT);
+
+        Path<LocalDateTime> createdAt = application.get("createdAt");
+        Path<Long> id = application.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        if (status != null) {
+            where.add(cb.equal(application.get("status"), status));
+        }
+        if (visaType != null) {
+            where.add(cb.equal(application.get("visaType"), visaType));
+        }
+        if (nationality != null) {
+            where.add(cb.equal(application.get("nationality"), nationality));
+        }
+        if (fromDate != null) {
+            where.add(cb.greaterThanOrEqualTo(createdAt, fromDate.atStartOfDay()));
+        }
+        if (toDate != null) {
+            where.add(cb.lessThan(createdAt, toDate.plusDays(1).atStartOfDay()));
+        }
+        if (cursor != null) {
+            where.add(KeysetCursor.after(cb, descending, new Path[]{createdAt, id},
+                    KeysetCursor.decode(cursor, LocalDateTime::parse, Long::valueOf)));
+        }
+
+        // Same columns as VisaApplicationRepository.VIEW
+        query.select(cb.construct(VisaApplicationView.class,
+                        id, application.get("applicationNumber"),
+                        student.get("studentId"), student.get("firstName"), student.get("lastName"),
+                        application.get("status"), application.get("currentStage"),
+                        application.get("progressPercentage"), application.get("visaType"),
+                        application.get("applicationDate"), application.get("documentsSubmittedDate"),
+                        application.get("emgsSubmissionDate"), application.get("emgsReference"),
+                        application.get("emgsApprovalDate"), application.get("valIssuedDate"),
+                        application.get("valNumber"), application.get("valExpiryDate"),
+                        application.get("passportNumber"), application.get("nationality"),
+                        application.get("programName"), application.get("faculty"),
+                        medical.get("status"), createdAt, application.get("updatedAt")))
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(KeysetCursor.orderBy(cb, descending, createdAt, id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,14 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import edu.taylors.io.capstone.eservices.entity.VisaEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface VisaEventRepository extends JpaRepository<VisaEvent, Long> {
+
+    // Oldest first: idx_visa_events_application in index order
+    List<VisaEvent> findByVisaApplicationIdOrderByIdAsc(Long visaApplicationId);
+}
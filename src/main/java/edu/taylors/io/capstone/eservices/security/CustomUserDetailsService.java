@@ -1,26 +1,30 @@
 package edu.taylors.io.capstone.eservices.security;
 
-import edu.taylors.io.capstone.eservices.entity.User;
-import edu.taylors.io.capstone.eservices.repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
 
 @Service
 public class CustomUserDetailsService implements UserDetailsService {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final RequestUserContext requestUserContext;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public CustomUserDetailsService(UserCache userCache, RequestUserContext requestUserContext) {
+        this.userCache = userCache;
+        this.requestUserContext = requestUserContext;
     }
 
     @Override
     public UserDetails loadUserByUsername(String studentId)
             throws UsernameNotFoundException {
 
-        return userRepository.findByStudentId(studentId)
+        // Inside a web request, share the lookup with the rest of the request
+        boolean inRequest = RequestContextHolder.getRequestAttributes() != null;
+
+        return (inRequest ? requestUserContext.findUser(studentId) : userCache.findByStudentId(studentId))
                 .orElseThrow(() ->
                         new UsernameNotFoundException("User not found with Student ID: " + studentId));
     }
@@ -0,0 +1,118 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import edu.taylors.io.capstone.eservices.entity.EmailOtp;
+import edu.taylors.io.capstone.eservices.repository.EmailOtpRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OTPs in the email_otps table so every node sees the same OTP and attempt count.
+ * The HMAC key has to be shared by all nodes, so it comes from configuration.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.2fa.otp.store", havingValue = "database")
+public class DatabaseOtpStore implements OtpStore, DisposableBean {
+
+    private static final int OTP_DIGITS = 6;
+
+    private final EmailOtpRepository emailOtpRepository;
+
+    @Value("${app.2fa.otp.expiration}")
+    private Long otpExpiration;
+
+    @Value("${app.2fa.otp.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.2fa.otp.hash-key:${jwt.secret}}")
+    private String hashKey;
+
+    @Value("${app.2fa.otp.purge-interval:60000}")
+    private long purgeIntervalMillis;
+
+    private OtpCodes codes;
+    private ScheduledExecutorService purger;
+
+    public DatabaseOtpStore(EmailOtpRepository emailOtpRepository) {
+        this.emailOtpRepository = emailOtpRepository;
+    }
+
+    @PostConstruct
+    public void init() {
+        codes = new OtpCodes(hashKey.getBytes(StandardCharsets.UTF_8));
+
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otp-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeExpired, purgeIntervalMillis, purgeIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    @Transactional
+    public String issue(String studentId) {
+        String otp = OtpCodes.generate(OTP_DIGITS);
+
+        emailOtpRepository.save(EmailOtp.builder()
+                .studentId(studentId)
+                .otpHash(codes.hash(studentId, otp))
+                .expiresAt(LocalDateTime.now().plusNanos(otpExpiration * 1_000_000))
+                .attempts(0)
+                .build());
+        return otp;
+    }
+
+    @Override
+    @Transactional
+    public boolean verify(String studentId, String otp) {
+        if (studentId == null) {
+            return false;
+        }
+
+        // Atomic across nodes: concurrent guesses cannot exceed maxAttempts
+        if (emailOtpRepository.recordAttempt(studentId, maxAttempts, LocalDateTime.now()) == 0) {
+            emailOtpRepository.deleteById(studentId);
+            return false;
+        }
+
+        return emailOtpRepository.findById(studentId)
+                .map(entry -> codes.matches(entry.getOtpHash(), studentId, otp))
+                .orElse(false);
+    }
+
+    @Override
+    @Transactional
+    public void invalidate(String studentId) {
+        if (studentId != null) {
+            emailOtpRepository.deleteById(studentId);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    // An exception would cancel the schedule, so log and carry on
+    private void purgeExpired() {
+        try {
+            emailOtpRepository.deleteExpired(LocalDateTime.now());
+        } catch (Exception e) {
+            log.warn("Failed to purge expired OTPs: {}", e.getMessage());
+        }
+    }
+}
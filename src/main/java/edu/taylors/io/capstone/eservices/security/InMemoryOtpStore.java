@@ -0,0 +1,120 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OTPs in a ConcurrentHashMap keyed by studentId, dropped by a timing wheel once expired.
+ * Hashes are keyed with a random per-process secret, which is fine because the OTPs
+ * themselves do not survive a restart.
+ */
+@Component
+@ConditionalOnProperty(name = "app.2fa.otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore, DisposableBean {
+
+    private static final int OTP_DIGITS = 6;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final OtpCodes codes = new OtpCodes(OtpCodes.randomKey());
+
+    @Value("${app.2fa.otp.expiration}")
+    private Long otpExpiration;
+
+    @Value("${app.2fa.otp.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.2fa.otp.wheel.tick:1000}")
+    private long wheelTickMillis;
+
+    private TimingWheel<String> wheel;
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void init() {
+        // 64 slots of one tick, then 64 x 64 ticks in the outer wheel
+        wheel = new TimingWheel<>(wheelTickMillis, 64, System.currentTimeMillis());
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "otp-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::sweep, wheelTickMillis, wheelTickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public String issue(String studentId) {
+        String otp = OtpCodes.generate(OTP_DIGITS);
+        long expiresAtMillis = System.currentTimeMillis() + otpExpiration;
+
+        entries.put(studentId, new Entry(codes.hash(studentId, otp), expiresAtMillis, new AtomicInteger()));
+        wheel.schedule(studentId, expiresAtMillis);
+        return otp;
+    }
+
+    @Override
+    public boolean verify(String studentId, String otp) {
+        if (studentId == null) {
+            return false;
+        }
+        Entry entry = entries.get(studentId);
+        if (entry == null) {
+            return false;
+        }
+
+        if (entry.expiresAtMillis() <= System.currentTimeMillis()
+                || entry.attempts().incrementAndGet() > maxAttempts) {
+            entries.remove(studentId, entry);
+            return false;
+        }
+
+        return codes.matches(entry.hash(), studentId, otp);
+    }
+
+    @Override
+    public void invalidate(String studentId) {
+        if (studentId != null) {
+            entries.remove(studentId);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void destroy() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        wheel.advance(now, studentId -> {
+            Entry entry = entries.get(studentId);
+            if (entry == null) {
+                return;
+            }
+            if (entry.expiresAtMillis() <= now) {
+                entries.remove(studentId, entry);
+            } else {
+                // Re-issued since this slot was scheduled
+                wheel.schedule(studentId, entry.expiresAtMillis());
+            }
+        });
+    }
+
+    private record Entry(byte[] hash, long expiresAtMillis, AtomicInteger attempts) {
+    }
+}
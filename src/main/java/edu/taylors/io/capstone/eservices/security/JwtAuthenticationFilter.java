@@ -1,10 +1,13 @@
 package edu.taylors.io.capstone.eservices.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -12,16 +15,22 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final CustomUserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil,
+                                   CustomUserDetailsService userDetailsService,
+                                   TokenRevocationService tokenRevocationService) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -32,31 +41,58 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String studentId = null;
-        String jwt = null;
+        // Extract JWT from Authorization header and verify it once
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String jwt = authorizationHeader.substring(7);
+            Optional<Claims> claims = jwtUtil.validateAndGetClaims(jwt);
 
-        // Extract JWT from Authorization header
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            studentId = jwtUtil.extractUsername(jwt);
+            // Validate token and set authentication
+            if (claims.isPresent() && claims.get().getSubject() != null) {
+                UsernamePasswordAuthenticationToken authToken = buildAuthentication(claims.get());
+
+                if (authToken != null) {
+                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                }
+            }
         }
 
-        // Validate token and set authentication
-        if (studentId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(studentId);
+        filterChain.doFilter(request, response);
+    }
+
+    private UsernamePasswordAuthenticationToken buildAuthentication(Claims claims) {
+        String studentId = claims.getSubject();
+
+        if (tokenRevocationService.isRevoked(studentId, claims.getIssuedAt())) {
+            return null;
+        }
+
+        List<?> roles = claims.get(JwtUtil.ROLES_CLAIM, List.class);
+        Boolean enabled = claims.get(JwtUtil.ENABLED_CLAIM, Boolean.class);
 
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+        // Tokens issued before roles were embedded: fall back to loading the user
+        if (roles == null || enabled == null) {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(studentId);
+            if (!userDetails.isEnabled()) {
+                return null;
             }
+            return new UsernamePasswordAuthenticationToken(
+                    userDetails,
+                    null,
+                    userDetails.getAuthorities()
+            );
         }
 
-        filterChain.doFilter(request, response);
+        if (!enabled) {
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(role.toString()))
+                .toList();
+
+        // Principal is the studentId, so authentication.getName() keeps working everywhere
+        return new UsernamePasswordAuthenticationToken(studentId, null, authorities);
     }
-}
\ No newline at end of file
+}
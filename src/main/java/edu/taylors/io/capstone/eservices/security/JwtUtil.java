@@ -1,9 +1,13 @@
 package edu.taylors.io.capstone.eservices.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
@@ -12,12 +16,16 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtil {
 
+    public static final String ROLES_CLAIM = "roles";
+    public static final String ENABLED_CLAIM = "enabled";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -27,9 +35,50 @@ public class JwtUtil {
     @Value("${jwt.refresh-token.expiration}")
     private Long refreshTokenExpiration;
 
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private int claimsCacheMaxSize;
+
+    // Built once at startup instead of on every sign/parse call
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private JwtClaimsCache claimsCache;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        claimsCache = new JwtClaimsCache(claimsCacheMaxSize);
+    }
+
     private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
+    }
+
+    /**
+     * Verify the token once and return its claims.
+     * Tokens seen before are answered from the claims cache until they expire.
+     * Empty if the token is malformed, tampered with or expired.
+     */
+    public Optional<Claims> validateAndGetClaims(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+
+        long now = System.currentTimeMillis();
+        Claims cached = claimsCache.get(token, now);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        try {
+            Claims claims = extractAllClaims(token);
+            claimsCache.put(token, claims);
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 
     // Extract username (studentId) from token
@@ -42,30 +91,27 @@ public class JwtUtil {
         return extractClaim(token, Claims::getExpiration);
     }
 
-    // Extract a specific claim
+    // Extract a specific claim (invalid tokens still throw the parser's exception)
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = validateAndGetClaims(token)
+                .orElseGet(() -> extractAllClaims(token));
         return claimsResolver.apply(claims);
     }
 
     // Extract all claims
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    // Check if token is expired
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     // Generate ACCESS token for user (short-lived)
+    // Role and enabled state travel in the token so requests can be authenticated without a DB lookup
     public String generateAccessToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("type", "access");
+        claims.put(ROLES_CLAIM, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        claims.put(ENABLED_CLAIM, userDetails.isEnabled());
         return createToken(claims, userDetails.getUsername(), accessTokenExpiration);
     }
 
@@ -87,8 +133,9 @@ public class JwtUtil {
 
     // Validate token
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateAndGetClaims(token)
+                .map(claims -> claims.getSubject().equals(userDetails.getUsername()))
+                .orElse(false);
     }
 
     // Get refresh token expiration date
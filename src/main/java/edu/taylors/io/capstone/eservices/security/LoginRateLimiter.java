@@ -0,0 +1,134 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token-bucket limits for the unauthenticated auth endpoints that cost a BCrypt check,
+ * DB writes or an email: login, resend-otp and forgot-password.
+ *
+ * Every call is checked against a per-IP bucket shared by the three endpoints and a
+ * per-account bucket for the endpoint itself. Controllers call this before
+ * authenticating or sending mail, and answer 429 when a wait time is returned.
+ */
+@Component
+public class LoginRateLimiter implements DisposableBean {
+
+    @Value("${app.rate-limit.login.capacity:5}")
+    private int loginCapacity;
+
+    @Value("${app.rate-limit.login.interval:60000}")
+    private long loginIntervalMillis;
+
+    @Value("${app.rate-limit.otp.capacity:3}")
+    private int otpCapacity;
+
+    @Value("${app.rate-limit.otp.interval:60000}")
+    private long otpIntervalMillis;
+
+    @Value("${app.rate-limit.password-reset.capacity:3}")
+    private int passwordResetCapacity;
+
+    @Value("${app.rate-limit.password-reset.interval:300000}")
+    private long passwordResetIntervalMillis;
+
+    @Value("${app.rate-limit.ip.capacity:30}")
+    private int ipCapacity;
+
+    @Value("${app.rate-limit.ip.interval:2000}")
+    private long ipIntervalMillis;
+
+    @Value("${app.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${app.rate-limit.wheel.tick:1000}")
+    private long wheelTickMillis;
+
+    @Value("${app.rate-limit.wheel.slots:512}")
+    private int wheelSlots;
+
+    private RateLimiter loginByAccount;
+    private RateLimiter otpByAccount;
+    private RateLimiter passwordResetByAccount;
+    private RateLimiter byIp;
+
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void init() {
+        loginByAccount = newLimiter("login", loginCapacity, loginIntervalMillis);
+        otpByAccount = newLimiter("resend-otp", otpCapacity, otpIntervalMillis);
+        passwordResetByAccount = newLimiter("forgot-password", passwordResetCapacity, passwordResetIntervalMillis);
+        byIp = newLimiter("ip", ipCapacity, ipIntervalMillis);
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleAtFixedRate(this::sweep, wheelTickMillis, wheelTickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return 0 if the login may proceed, otherwise milliseconds until it may be retried
+     */
+    public long checkLogin(String studentId, String ipAddress) {
+        return check(loginByAccount, studentId, ipAddress);
+    }
+
+    public long checkOtpResend(String studentId, String ipAddress) {
+        return check(otpByAccount, studentId, ipAddress);
+    }
+
+    public long checkPasswordReset(String emailOrStudentId, String ipAddress) {
+        return check(passwordResetByAccount, emailOrStudentId, ipAddress);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("login", loginByAccount.getStatistics());
+        stats.put("resendOtp", otpByAccount.getStatistics());
+        stats.put("forgotPassword", passwordResetByAccount.getStatistics());
+        stats.put("ip", byIp.getStatistics());
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    private long check(RateLimiter byAccount, String account, String ipAddress) {
+        long now = System.currentTimeMillis();
+
+        long waitMillis = byIp.tryAcquire(ipAddress, now);
+        if (waitMillis > 0) {
+            return waitMillis;
+        }
+        // studentId / email lookups are case-insensitive, so the bucket key must be too
+        return byAccount.tryAcquire(account == null ? null : account.trim().toLowerCase(Locale.ROOT), now);
+    }
+
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        loginByAccount.sweep(now);
+        otpByAccount.sweep(now);
+        passwordResetByAccount.sweep(now);
+        byIp.sweep(now);
+    }
+
+    private RateLimiter newLimiter(String name, int capacity, long intervalMillis) {
+        return new RateLimiter(name, capacity, intervalMillis, maxKeys, wheelTickMillis, wheelSlots);
+    }
+}
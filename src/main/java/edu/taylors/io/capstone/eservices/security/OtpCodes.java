@@ -0,0 +1,60 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+/**
+ * OTP generation and hashing shared by the OtpStore implementations.
+ * A 6-digit OTP has only a million values, so a plain digest could be reversed by
+ * brute force; HMAC-SHA256 with a secret key cannot be without the key.
+ */
+final class OtpCodes {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final String HMAC_SHA_256 = "HmacSHA256";
+
+    private final ThreadLocal<Mac> mac;
+
+    OtpCodes(byte[] key) {
+        SecretKeySpec keySpec = new SecretKeySpec(key, HMAC_SHA_256);
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(HMAC_SHA_256);
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 not available", e);
+            }
+        });
+    }
+
+    static String generate(int digits) {
+        char[] otp = new char[digits];
+        for (int i = 0; i < digits; i++) {
+            otp[i] = (char) ('0' + RANDOM.nextInt(10));
+        }
+        return new String(otp);
+    }
+
+    static byte[] randomKey() {
+        byte[] key = new byte[32];
+        RANDOM.nextBytes(key);
+        return key;
+    }
+
+    // Bound to the student so a hash cannot be replayed against another account
+    byte[] hash(String studentId, String otp) {
+        Mac instance = mac.get();
+        instance.update(studentId.getBytes(StandardCharsets.UTF_8));
+        instance.update((byte) 0);
+        return instance.doFinal(otp.getBytes(StandardCharsets.UTF_8));
+    }
+
+    boolean matches(byte[] expectedHash, String studentId, String otp) {
+        return otp != null && MessageDigest.isEqual(expectedHash, hash(studentId, otp));
+    }
+}
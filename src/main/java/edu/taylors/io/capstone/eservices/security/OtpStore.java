@@ -0,0 +1,29 @@
+package edu.taylors.io.capstone.eservices.security;
+
+/**
+ * Short-lived one-time passwords for email 2FA, kept out of the users table.
+ * Only a keyed hash of each OTP is stored; the plain value is returned once by
+ * {@link #issue(String)} so it can be mailed.
+ *
+ * {@link InMemoryOtpStore} is the default (single node). Set
+ * {@code app.2fa.otp.store=database} to use {@link DatabaseOtpStore} when several
+ * nodes sit behind a load balancer.
+ */
+public interface OtpStore {
+
+    /**
+     * Generate a new OTP for the student, replacing any previous one.
+     *
+     * @return the OTP in plain text, for the email only
+     */
+    String issue(String studentId);
+
+    /**
+     * Check an OTP without consuming it. Expired OTPs, and OTPs that have seen too many
+     * wrong guesses, are discarded and never match again.
+     */
+    boolean verify(String studentId, String otp);
+
+    // Discard the student's OTP (after successful verification or when 2FA is disabled)
+    void invalidate(String studentId);
+}
@@ -0,0 +1,12 @@
+package edu.taylors.io.capstone.eservices.security;
+
+/**
+ * Thrown when the password hashing executor is saturated.
+ * Controllers translate it into HTTP 429 so clients back off and retry.
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,138 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free token bucket per key.
+ *
+ * Each bucket is a single AtomicLong holding its "theoretical arrival time" (GCRA form of a
+ * token bucket): a bucket of {@code capacity} tokens refilled with one token every
+ * {@code intervalMillis} is empty when that time is {@code capacity * intervalMillis} ahead
+ * of now, and full once it is in the past. Acquiring a token is one CAS; the only locking is
+ * ConcurrentHashMap's per-bin lock when a new key is inserted.
+ *
+ * Full buckets carry no information, so a timing wheel swept by {@link #sweep(long)} drops
+ * them once they have been idle long enough to refill.
+ */
+public class RateLimiter {
+
+    // Sweeper is removing the bucket; acquirers drop it from the map and start a new one
+    private static final long EXPIRED = Long.MAX_VALUE;
+
+    private final String name;
+    private final int capacity;
+    private final long intervalMillis;
+    private final long burstMillis;
+    private final int maxKeys;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final TimingWheel<String> wheel;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder overflow = new LongAdder();
+
+    public RateLimiter(String name, int capacity, long intervalMillis, int maxKeys,
+                       long wheelTickMillis, int wheelSlots) {
+        this.name = name;
+        this.capacity = capacity;
+        this.intervalMillis = intervalMillis;
+        this.burstMillis = capacity * intervalMillis;
+        this.maxKeys = maxKeys;
+        this.wheel = new TimingWheel<>(wheelTickMillis, wheelSlots, System.currentTimeMillis());
+    }
+
+    /**
+     * Take one token for the key.
+     *
+     * @return 0 if the request may proceed, otherwise the milliseconds until a token is available
+     */
+    public long tryAcquire(String key, long nowMillis) {
+        if (key == null || capacity <= 0) {
+            return 0;
+        }
+
+        while (true) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null) {
+                if (buckets.size() >= maxKeys) {
+                    // Fail open for this key rather than grow without bound; other limiters still apply
+                    overflow.increment();
+                    return 0;
+                }
+                AtomicLong created = new AtomicLong(nowMillis);
+                bucket = buckets.putIfAbsent(key, created);
+                if (bucket == null) {
+                    bucket = created;
+                    wheel.schedule(key, nowMillis + intervalMillis);
+                }
+            }
+
+            long arrival = bucket.get();
+            if (arrival == EXPIRED) {
+                buckets.remove(key, bucket);
+                continue;
+            }
+
+            long next = Math.max(arrival, nowMillis) + intervalMillis;
+            long waitMillis = next - nowMillis - burstMillis;
+            if (waitMillis > 0) {
+                rejected.increment();
+                return waitMillis;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Advance the timing wheel to nowMillis, dropping buckets that have refilled completely
+     * and re-scheduling the ones still in use.
+     */
+    public void sweep(long nowMillis) {
+        wheel.advance(nowMillis, key -> {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket == null) {
+                return;
+            }
+            long arrival = bucket.get();
+            if (arrival == EXPIRED) {
+                buckets.remove(key, bucket);
+            } else if (arrival <= nowMillis) {
+                if (bucket.compareAndSet(arrival, EXPIRED)) {
+                    buckets.remove(key, bucket);
+                    expired.increment();
+                } else {
+                    wheel.schedule(key, bucket.get());
+                }
+            } else {
+                wheel.schedule(key, arrival);
+            }
+        });
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("capacity", capacity);
+        stats.put("intervalMillis", intervalMillis);
+        stats.put("keys", buckets.size());
+        stats.put("maxKeys", maxKeys);
+        stats.put("allowed", allowed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("expired", expired.sum());
+        stats.put("overflow", overflow.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,55 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import edu.taylors.io.capstone.eservices.entity.User;
+import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.Optional;
+
+/**
+ * Request-scoped unit of work for the login / OTP endpoints.
+ * The user is looked up once per request (including the lookup done by the
+ * AuthenticationManager) and all staged changes are flushed in a single UPDATE.
+ */
+@Component
+@RequestScope
+public class RequestUserContext {
+
+    private final UserCache userCache;
+    private final UserRepository userRepository;
+
+    private UserUnitOfWork unitOfWork;
+
+    public RequestUserContext(UserCache userCache, UserRepository userRepository) {
+        this.userCache = userCache;
+        this.userRepository = userRepository;
+    }
+
+    public Optional<User> findUser(String studentId) {
+        if (unitOfWork != null && unitOfWork.getStudentId().equals(studentId)) {
+            return Optional.of(unitOfWork.getUser());
+        }
+
+        Optional<User> user = userCache.findByStudentId(studentId);
+        user.ifPresent(u -> unitOfWork = new UserUnitOfWork(u));
+        return user;
+    }
+
+    public UserUnitOfWork load(String studentId) {
+        findUser(studentId).orElseThrow(() -> new RuntimeException("User not found"));
+        return unitOfWork;
+    }
+
+    public void flush() {
+        if (unitOfWork == null) {
+            return;
+        }
+
+        if (unitOfWork.isDirty()) {
+            userRepository.updateFields(unitOfWork.getUser().getId(), unitOfWork.getChanges());
+            userCache.evict(unitOfWork.getStudentId());
+        }
+        unitOfWork.drainAfterFlushActions().forEach(Runnable::run);
+    }
+}
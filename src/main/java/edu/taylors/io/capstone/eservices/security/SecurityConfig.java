@@ -1,5 +1,6 @@
 package edu.taylors.io.capstone.eservices.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -7,8 +8,6 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
@@ -50,8 +49,15 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedBCryptPasswordEncoder passwordEncoder(
+            @Value("${app.password.bcrypt.target-hash-millis:250}") long targetHashMillis,
+            @Value("${app.password.bcrypt.min-strength:10}") int minStrength,
+            @Value("${app.password.bcrypt.max-strength:14}") int maxStrength,
+            @Value("${app.password.executor.threads:0}") int threads,
+            @Value("${app.password.executor.queue-capacity:64}") int queueCapacity) {
+        int strength = BoundedBCryptPasswordEncoder.calibrateStrength(targetHashMillis, minStrength, maxStrength);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedBCryptPasswordEncoder(strength, poolSize, queueCapacity);
     }
 
     @Bean
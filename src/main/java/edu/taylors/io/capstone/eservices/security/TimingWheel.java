@@ -0,0 +1,92 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Two-level hierarchical timing wheel of keys to re-check at a due time.
+ *
+ * The inner wheel has {@code slotCount} slots of {@code tickMillis}; keys due further out go
+ * into the outer wheel (slots of {@code tickMillis * slotCount}) and cascade into the inner
+ * wheel when their outer slot comes round. Scheduling is one set insert from any thread;
+ * {@link #advance(long, Consumer)} must only be called from a single sweeper thread.
+ *
+ * The wheel only says when to look again: owners re-check the entry's real expiry in the
+ * callback and re-schedule it if it is still live.
+ */
+final class TimingWheel<K> {
+
+    private final long tickMillis;
+    private final int slotCount;
+    private final List<Set<K>> inner;
+    private final List<Map<K, Long>> outer;
+    private volatile long currentTick;
+
+    TimingWheel(long tickMillis, int slotCount, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slotCount = slotCount;
+        this.inner = new ArrayList<>(slotCount);
+        this.outer = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            inner.add(ConcurrentHashMap.newKeySet());
+            outer.add(new ConcurrentHashMap<>());
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    void schedule(K key, long dueMillis) {
+        long tick = currentTick;
+        long dueTick = Math.max(dueMillis / tickMillis, tick + 1);
+
+        if (dueTick - tick < slotCount) {
+            inner.get(slot(dueTick)).add(key);
+            return;
+        }
+
+        // Beyond the outer span: park in the furthest outer slot, it is re-scheduled from there
+        long outerTick = Math.min(dueTick / slotCount, tick / slotCount + slotCount - 1);
+        outer.get(slot(outerTick)).put(key, dueMillis);
+    }
+
+    void advance(long nowMillis, Consumer<K> onDue) {
+        long targetTick = nowMillis / tickMillis;
+        // After a long pause, one full outer rotation is enough to visit every slot
+        long tick = Math.max(currentTick + 1, targetTick - (long) slotCount * slotCount + 1);
+
+        for (; tick <= targetTick; tick++) {
+            currentTick = tick;
+
+            if (tick % slotCount == 0) {
+                cascade(outer.get(slot(tick / slotCount)));
+            }
+
+            Set<K> slot = inner.get(slot(tick));
+            if (slot.isEmpty()) {
+                continue;
+            }
+            // Snapshot first: onDue may re-schedule a key into this very slot
+            for (K key : new ArrayList<>(slot)) {
+                slot.remove(key);
+                onDue.accept(key);
+            }
+        }
+    }
+
+    private void cascade(Map<K, Long> outerSlot) {
+        if (outerSlot.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<K, Long> entry : new ArrayList<>(outerSlot.entrySet())) {
+            outerSlot.remove(entry.getKey(), entry.getValue());
+            schedule(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private int slot(long tick) {
+        return (int) (tick % slotCount);
+    }
+}
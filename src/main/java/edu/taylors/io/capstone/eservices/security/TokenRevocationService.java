@@ -0,0 +1,52 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory revocation list for stateless access tokens.
+ * After a password change every access token issued to that student up to that moment
+ * is rejected by JwtAuthenticationFilter. Entries only need to live as long as an access
+ * token, so they are purged after that.
+ *
+ * Nothing disables accounts yet. The filter reads "enabled" from the token's claims, so
+ * code that does must call {@link #revokeAllTokens(String)}; refresh already checks the
+ * user row and stops issuing new tokens.
+ *
+ * Like InMemoryOtpStore this is per process (single node): a revocation is lost on restart
+ * and not seen by other nodes, which keep accepting the old tokens until they expire.
+ */
+@Component
+public class TokenRevocationService {
+
+    // studentId -> tokens issued at or before this second are revoked
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    @Value("${jwt.access-token.expiration}")
+    private Long accessTokenExpiration;
+
+    public void revokeAllTokens(String studentId) {
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        revokedBefore.merge(studentId, nowSeconds, Math::max);
+        purgeStaleEntries();
+    }
+
+    public boolean isRevoked(String studentId, Date issuedAt) {
+        Long cutoff = revokedBefore.get(studentId);
+        if (cutoff == null) {
+            return false;
+        }
+        // JWT "iat" has second precision, so a token from the same second counts as revoked
+        return issuedAt == null || issuedAt.getTime() / 1000 <= cutoff;
+    }
+
+    // Once every token issued before the cutoff has expired anyway, the entry is useless
+    private void purgeStaleEntries() {
+        long oldestUsefulSeconds = (System.currentTimeMillis() - accessTokenExpiration) / 1000;
+        revokedBefore.values().removeIf(cutoff -> cutoff < oldestUsefulSeconds);
+    }
+}
@@ -0,0 +1,140 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import edu.taylors.io.capstone.eservices.entity.User;
+import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded in-process cache of users by studentId for the read-only lookups
+ * done during login, token refresh and OTP verification.
+ *
+ * Cached users are detached snapshots: read them, never modify and save them.
+ * Every service method that writes a user must call {@link #evict(String)}.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Value("${app.user-cache.max-size:5000}")
+    private int maxSize;
+
+    @Value("${app.user-cache.ttl:600000}")
+    private long ttlMillis;
+
+    public UserCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public Optional<User> findByStudentId(String studentId) {
+        if (studentId == null) {
+            return Optional.empty();
+        }
+
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(studentId);
+        if (entry != null) {
+            if (entry.expiresAtMillis() > now) {
+                hits.increment();
+                return Optional.of(entry.user());
+            }
+            if (entries.remove(studentId, entry)) {
+                evictions.increment();
+            }
+        }
+
+        misses.increment();
+        Optional<User> user = userRepository.findByStudentId(studentId);
+        user.ifPresent(u -> put(studentId, u, now));
+        return user;
+    }
+
+    /**
+     * Drop the cached user now and again when the surrounding transaction completes,
+     * so a concurrent reader cannot re-cache the pre-commit row.
+     */
+    public void evict(String studentId) {
+        if (studentId == null) {
+            return;
+        }
+        if (entries.remove(studentId) != null) {
+            invalidations.increment();
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entries.remove(studentId);
+                }
+            });
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) hitCount / lookups);
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private void put(String studentId, User user, long now) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            makeRoom(now);
+        }
+        entries.put(studentId, new Entry(user, now + ttlMillis));
+    }
+
+    // Expired entries go first; if the cache is still full, drop arbitrary ones
+    private void makeRoom(long now) {
+        Iterator<Entry> values = entries.values().iterator();
+        while (values.hasNext()) {
+            if (values.next().expiresAtMillis() <= now) {
+                values.remove();
+                evictions.increment();
+            }
+        }
+
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() >= maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.increment();
+        }
+    }
+
+    private record Entry(User user, long expiresAtMillis) {
+    }
+}
@@ -0,0 +1,58 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import edu.taylors.io.capstone.eservices.entity.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The user loaded for the current auth request plus the column changes staged against it.
+ * Services stage changes here instead of saving the user themselves;
+ * {@link RequestUserContext#flush()} writes them all in one UPDATE.
+ */
+public class UserUnitOfWork {
+
+    private final User user;
+    private final Map<String, Object> changes = new LinkedHashMap<>();
+    private final List<Runnable> afterFlushActions = new ArrayList<>();
+
+    UserUnitOfWork(User user) {
+        this.user = user;
+    }
+
+    // Read-only view of the user as loaded; staged changes are not applied to it
+    public User getUser() {
+        return user;
+    }
+
+    public String getStudentId() {
+        return user.getStudentId();
+    }
+
+    public void set(String attribute, Object value) {
+        changes.put(attribute, value);
+    }
+
+    // Side effects (e.g. emails) that must only happen once the changes are stored
+    public void afterFlush(Runnable action) {
+        afterFlushActions.add(action);
+    }
+
+    public boolean isDirty() {
+        return !changes.isEmpty();
+    }
+
+    Map<String, Object> getChanges() {
+        return Collections.unmodifiableMap(changes);
+    }
+
+    List<Runnable> drainAfterFlushActions() {
+        List<Runnable> actions = new ArrayList<>(afterFlushActions);
+        afterFlushActions.clear();
+        changes.clear();
+        return actions;
+    }
+}
@@ -0,0 +1,269 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.entity.Appointment;
+import edu.taylors.io.capstone.eservices.entity.User;
+import edu.taylors.io.capstone.eservices.repository.AppointmentRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Queues a reminder email for every upcoming appointment that starts within {@code lead-time}.
+ *
+ * Due appointments are read in keyset chunks of {@code chunk-size} ordered by (date, time, id),
+ * and up to {@code parallelism} chunks are processed at once. Each chunk is one transaction:
+ * a single UPDATE flags the whole chunk as reminded and the reminder emails go into the
+ * email_outbox with it, so a chunk is either fully queued and flagged or not at all. After a
+ * crash the next run simply picks up the appointments still unflagged, and none is reminded
+ * twice. If another node (or a cancellation) got to part of a chunk first, the chunk is rolled
+ * back and retried one appointment at a time. SMTP itself is left to EmailOutboxDispatcher.
+ */
+@Slf4j
+@Component
+public class AppointmentReminderJob implements DisposableBean {
+
+    private final AppointmentRepository appointmentRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transaction;
+
+    @Value("${app.appointments.reminder.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.appointments.reminder.lead-time:24h}")
+    private Duration leadTime;
+
+    @Value("${app.appointments.reminder.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${app.appointments.reminder.parallelism:4}")
+    private int parallelism;
+
+    private ExecutorService workers;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder chunks = new LongAdder();
+    private final LongAdder remindersQueued = new LongAdder();
+    private final LongAdder chunksRetriedPerAppointment = new LongAdder();
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunMillis;
+
+    public AppointmentReminderJob(AppointmentRepository appointmentRepository, EmailService emailService,
+                                  PlatformTransactionManager transactionManager) {
+        this.appointmentRepository = appointmentRepository;
+        this.emailService = emailService;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * The lead time as told to students, e.g. "24 hours" or "90 minutes".
+     */
+    public String describeLeadTime() {
+        long minutes = leadTime.toMinutes();
+        if (minutes % 60 != 0) {
+            return minutes + (minutes == 1 ? " minute" : " minutes");
+        }
+        long hours = minutes / 60;
+        return hours + (hours == 1 ? " hour" : " hours");
+    }
+
+    @PostConstruct
+    public void init() {
+        workers = Executors.newFixedThreadPool(parallelism, daemonThreads("appointment-reminder"));
+    }
+
+    @Scheduled(fixedDelayString = "${app.appointments.reminder.interval:300000}",
+            initialDelayString = "${app.appointments.reminder.interval:300000}")
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            sendDueReminders();
+        } catch (RuntimeException e) {
+            log.error("Appointment reminder run failed; unsent reminders are retried next run", e);
+        }
+    }
+
+    /**
+     * Queue reminders for appointments starting between now and now + lead-time.
+     *
+     * @return reminders queued by this run, or -1 if a run was already in progress
+     */
+    public int sendDueReminders() {
+        return sendDueReminders(LocalDateTime.now());
+    }
+
+    int sendDueReminders(LocalDateTime now) {
+        if (!running.compareAndSet(false, true)) {
+            return -1;
+        }
+        long started = System.nanoTime();
+        try {
+            int queued = processWindow(now, now.plus(leadTime));
+            runs.increment();
+            lastRunAt = now;
+            if (queued > 0) {
+                log.info("Queued {} appointment reminders", queued);
+            }
+            return queued;
+        } finally {
+            lastRunMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+            running.set(false);
+        }
+    }
+
+    private int processWindow(LocalDateTime from, LocalDateTime until) {
+        // Chunks are read here and handed to the workers; the permits keep at most
+        // parallelism chunks (and their entities) in memory at once
+        Semaphore permits = new Semaphore(parallelism);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        LocalDate afterDate = from.toLocalDate();
+        LocalTime afterTime = from.toLocalTime();
+        long afterId = 0L;
+        try {
+            while (true) {
+                List<Appointment> chunk = appointmentRepository.findReminderChunk(afterDate, afterTime, afterId,
+                        until.toLocalDate(), until.toLocalTime(), PageRequest.of(0, chunkSize));
+                if (chunk.isEmpty()) {
+                    break;
+                }
+
+                Appointment last = chunk.get(chunk.size() - 1);
+                afterDate = last.getAppointmentDate();
+                afterTime = last.getAppointmentTime();
+                afterId = last.getId();
+
+                permits.acquire();
+                results.add(workers.submit(() -> {
+                    try {
+                        return sendChunk(chunk);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+            }
+
+            int queued = 0;
+            for (Future<Integer> result : results) {
+                queued += result.get();
+            }
+            return queued;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while sending appointment reminders", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to send appointment reminders", e.getCause());
+        }
+    }
+
+    private int sendChunk(List<Appointment> chunk) {
+        chunks.increment();
+        List<Long> ids = chunk.stream().map(Appointment::getId).toList();
+
+        Integer queued = transaction.execute(status -> {
+            int claimed = appointmentRepository.markReminderSent(ids, LocalDateTime.now());
+            if (claimed != ids.size()) {
+                status.setRollbackOnly();
+                return null;
+            }
+            chunk.forEach(this::queueReminder);
+            return claimed;
+        });
+        if (queued != null) {
+            remindersQueued.add(queued);
+            return queued;
+        }
+
+        // Some of the chunk is no longer due: claim what is left one by one
+        chunksRetriedPerAppointment.increment();
+        int queuedOneByOne = 0;
+        for (Appointment appointment : chunk) {
+            Boolean sent = transaction.execute(status -> {
+                if (appointmentRepository.markReminderSent(List.of(appointment.getId()), LocalDateTime.now()) == 0) {
+                    return false;
+                }
+                queueReminder(appointment);
+                return true;
+            });
+            if (Boolean.TRUE.equals(sent)) {
+                queuedOneByOne++;
+            }
+        }
+        remindersQueued.add(queuedOneByOne);
+        return queuedOneByOne;
+    }
+
+    private void queueReminder(Appointment appointment) {
+        User student = appointment.getStudent();
+        emailService.sendNotification(student.getEmail(), "appointment-reminder",
+                "fullName", student.getFullName(),
+                "appointmentType", appointment.getAppointmentType(),
+                "locationName", appointment.getLocationName(),
+                "roomNumber", appointment.getRoomNumber(),
+                "appointmentDate", appointment.getAppointmentDate(),
+                "appointmentTime", appointment.getAppointmentTime());
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("leadTimeMinutes", leadTime.toMinutes());
+        stats.put("chunkSize", chunkSize);
+        stats.put("parallelism", parallelism);
+        stats.put("running", running.get());
+        stats.put("runs", runs.sum());
+        stats.put("chunks", chunks.sum());
+        stats.put("remindersQueued", remindersQueued.sum());
+        stats.put("chunksRetriedPerAppointment", chunksRetriedPerAppointment.sum());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunMillis", lastRunMillis);
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        // Unfinished chunks roll back and are picked up by the next run
+        workers.shutdownNow();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,80 +1,105 @@
 package edu.taylors.io.capstone.eservices.service;
 
+import edu.taylors.io.capstone.eservices.dto.AppointmentPage;
+import edu.taylors.io.capstone.eservices.dto.AppointmentResult;
+import edu.taylors.io.capstone.eservices.dto.AppointmentStatistics;
+import edu.taylors.io.capstone.eservices.dto.AppointmentView;
+import edu.taylors.io.capstone.eservices.dto.SlotView;
 import edu.taylors.io.capstone.eservices.entity.Appointment;
+import edu.taylors.io.capstone.eservices.entity.AvailabilityRule;
 import edu.taylors.io.capstone.eservices.entity.TimeSlot;
 import edu.taylors.io.capstone.eservices.entity.User;
 import edu.taylors.io.capstone.eservices.repository.AppointmentRepository;
+import edu.taylors.io.capstone.eservices.repository.AvailabilityRuleRepository;
+import edu.taylors.io.capstone.eservices.repository.KeysetCursor;
 import edu.taylors.io.capstone.eservices.repository.TimeSlotRepository;
 import edu.taylors.io.capstone.eservices.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AppointmentService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final AppointmentRepository appointmentRepository;
     private final TimeSlotRepository timeSlotRepository;
+    private final AvailabilityRuleRepository availabilityRuleRepository;
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final SlotAvailabilityIndex slotIndex;
+    private final SlotMaterializer slotMaterializer;
+    private final ReferenceNumberAllocator referenceNumbers;
+    private final StatusCounters statusCounters;
+    private final StudentDataVersions dataVersions;
+    private final AppointmentReminderJob reminderJob;
+    private final TransactionTemplate transaction;
 
     /**
-     * Get available time slots
+     * Get available time slots (served from SlotAvailabilityIndex, no database access)
      */
-    public List<Map<String, Object>> getAvailableSlots(String locationType, String locationName, LocalDate date) {
-        List<TimeSlot> slots;
+    public List<SlotView> getAvailableSlots(String locationType, String locationName, LocalDate date) {
+        List<SlotAvailabilityIndex.Slot> slots;
 
         if (locationName != null && !locationName.isEmpty()) {
-            slots = timeSlotRepository.findAvailableSlots(locationName, date);
+            slots = slotIndex.findAvailable(locationName, date);
         } else if (locationType != null && !locationType.isEmpty()) {
             LocalDate endDate = date.plusDays(7); // Next 7 days
-            slots = timeSlotRepository.findAvailableSlotsByType(locationType, date, endDate);
+            slots = slotIndex.findAvailableByType(locationType, date, endDate);
         } else {
-            slots = timeSlotRepository.findAll().stream()
-                    .filter(TimeSlot::hasAvailableSlots)
-                    .collect(Collectors.toList());
+            slots = slotIndex.findAllAvailable();
         }
 
         return slots.stream()
-                .map(this::convertSlotToMap)
-                .collect(Collectors.toList());
+                .map(SlotView::of)
+                .toList();
     }
 
     /**
-     * Book appointment
+     * Book appointment. The slot row is created (if needed) before the booking transaction
+     * opens, so the request never holds two pooled connections at once.
      */
-    @Transactional
-    public Map<String, Object> bookAppointment(String studentId, Map<String, Object> request) {
+    public AppointmentResult bookAppointment(String studentId, Map<String, Object> request) {
+        String locationName = (String) request.get("locationName");
+        LocalDate date = LocalDate.parse(request.get("date").toString());
+        LocalTime time = LocalTime.parse(request.get("time").toString());
+
+        materializeSlot(locationName, date, time);
+        return transaction.execute(status -> book(studentId, request, locationName, date, time));
+    }
+
+    private AppointmentResult book(String studentId, Map<String, Object> request,
+                                   String locationName, LocalDate date, LocalTime time) {
         User student = userRepository.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
 
         // Parse request
         String appointmentType = (String) request.get("appointmentType");
-        String locationName = (String) request.get("locationName");
-        LocalDate date = LocalDate.parse(request.get("date").toString());
-        LocalTime time = LocalTime.parse(request.get("time").toString());
         String purpose = (String) request.getOrDefault("purpose", "");
         String notes = (String) request.getOrDefault("notes", "");
 
-        // Find time slot
         TimeSlot slot = timeSlotRepository.findByLocationNameAndDateAndStartTime(locationName, date, time)
                 .orElseThrow(() -> new RuntimeException("Time slot not available"));
 
-        if (!slot.hasAvailableSlots()) {
+        // Take the seat first: a single conditional UPDATE, so concurrent bookers cannot both get the last one
+        if (timeSlotRepository.tryBook(slot.getId()) == 0) {
             throw new RuntimeException("This time slot is fully booked");
         }
+        slotIndex.booked(slot.getId());
 
         // Create appointment
         Appointment appointment = Appointment.builder()
@@ -96,93 +121,70 @@ public class AppointmentService {
                 .createdBy(studentId)
                 .build();
 
-        // Book the slot
-        slot.bookSlot();
-        timeSlotRepository.save(slot);
-
         appointment = appointmentRepository.save(appointment);
+        statusCounters.created(StatusCounters.Kind.APPOINTMENT, appointment.getStatus(), appointmentType);
+        dataVersions.changed(studentId);
         log.info("Appointment {} booked by student {}", appointment.getAppointmentNumber(), studentId);
 
         // Send confirmation email
         sendAppointmentConfirmationEmail(student, appointment);
 
-        return Map.of(
-                "message", "Appointment booked successfully",
-                "appointment", convertToMap(appointment)
-        );
+        return new AppointmentResult("Appointment booked successfully", AppointmentView.of(appointment));
     }
 
     /**
      * Get student's appointments
      */
-    public List<Map<String, Object>> getMyAppointments(String studentId, String status) {
-        List<Appointment> appointments;
-
-        if (status != null && !status.isEmpty()) {
-            User student = userRepository.findByStudentId(studentId)
-                    .orElseThrow(() -> new RuntimeException("Student not found"));
-            appointments = appointmentRepository.findByStudentOrderByAppointmentDateDescAppointmentTimeDesc(student)
-                    .stream()
-                    .filter(a -> a.getStatus().equals(status))
-                    .collect(Collectors.toList());
-        } else {
-            appointments = appointmentRepository.findByStudentStudentIdOrderByAppointmentDateDescAppointmentTimeDesc(studentId);
-        }
-
-        return appointments.stream()
-                .map(this::convertToMap)
-                .collect(Collectors.toList());
+    public List<AppointmentView> getMyAppointments(String studentId, String status) {
+        return status != null && !status.isEmpty()
+                ? appointmentRepository.findViewsByStudentIdAndStatus(studentId, status)
+                : appointmentRepository.findViewsByStudentId(studentId);
     }
 
     /**
      * Get student's upcoming appointments
      */
-    public List<Map<String, Object>> getUpcomingAppointments(String studentId) {
-        List<Appointment> appointments = appointmentRepository.findStudentUpcomingAppointments(
+    public List<AppointmentView> getUpcomingAppointments(String studentId) {
+        return appointmentRepository.findUpcomingViewsByStudentId(
                 studentId,
                 LocalDate.now()
         );
-
-        return appointments.stream()
-                .map(this::convertToMap)
-                .collect(Collectors.toList());
     }
 
     /**
      * Confirm appointment
      */
     @Transactional
-    public Map<String, Object> confirmAppointment(Long appointmentId, String studentId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+    public AppointmentResult confirmAppointment(Long appointmentId, String studentId) {
+        Appointment appointment = appointmentRepository.findWithStudentById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
         if (!appointment.getStudent().getStudentId().equals(studentId)) {
             throw new RuntimeException("Not authorized");
         }
 
-        appointment.setStatus("CONFIRMED");
+        changeStatus(appointment, "CONFIRMED");
         appointment.setConfirmedByStudent(true);
         appointment.setConfirmationDate(LocalDateTime.now());
 
         appointmentRepository.save(appointment);
 
-        return Map.of(
-                "message", "Appointment confirmed",
-                "appointment", convertToMap(appointment)
-        );
+        return new AppointmentResult("Appointment confirmed", AppointmentView.of(appointment));
     }
 
     /**
      * Cancel appointment
      */
     @Transactional
-    public Map<String, Object> cancelAppointment(Long appointmentId, String reason, String userId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+    public AppointmentResult cancelAppointment(Long appointmentId, String reason, String userId) {
+        Appointment appointment = appointmentRepository.findWithStudentById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
         if (!appointment.canCancel()) {
             throw new RuntimeException("Cannot cancel this appointment");
         }
+        // Claim the status change before touching the seat so a racing cancel cannot free it twice
+        claimStatus(appointment, "CANCELLED");
 
         // Release the time slot
         TimeSlot slot = timeSlotRepository.findByLocationNameAndDateAndStartTime(
@@ -191,12 +193,11 @@ public class AppointmentService {
                 appointment.getAppointmentTime()
         ).orElse(null);
 
-        if (slot != null) {
-            slot.releaseSlot();
-            timeSlotRepository.save(slot);
+        if (slot != null && timeSlotRepository.release(slot.getId()) == 1) {
+            slotIndex.released(slot.getId());
         }
 
-        appointment.setStatus("CANCELLED");
+        changeStatus(appointment, "CANCELLED");
         appointment.setCancellationReason(reason);
 
         appointmentRepository.save(appointment);
@@ -204,49 +205,43 @@ public class AppointmentService {
         // Send cancellation email
         sendCancellationEmail(appointment.getStudent(), appointment);
 
-        return Map.of(
-                "message", "Appointment cancelled successfully",
-                "appointment", convertToMap(appointment)
-        );
+        return new AppointmentResult("Appointment cancelled successfully", AppointmentView.of(appointment));
     }
 
     /**
-     * Reschedule appointment
+     * Reschedule appointment. As with booking, a new slot row is created before the
+     * transaction that moves the booking opens.
      */
-    @Transactional
-    public Map<String, Object> rescheduleAppointment(Long appointmentId, LocalDate newDate, LocalTime newTime, String userId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+    public AppointmentResult rescheduleAppointment(Long appointmentId, LocalDate newDate, LocalTime newTime, String userId) {
+        String locationName = appointmentRepository.findLocationNameById(appointmentId)
+                .orElseThrow(() -> new RuntimeException("Appointment not found"));
+
+        materializeSlot(locationName, newDate, newTime);
+        return transaction.execute(status -> reschedule(appointmentId, newDate, newTime));
+    }
+
+    private AppointmentResult reschedule(Long appointmentId, LocalDate newDate, LocalTime newTime) {
+        Appointment appointment = appointmentRepository.findWithStudentById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
         if (!appointment.canReschedule()) {
             throw new RuntimeException("Cannot reschedule this appointment");
         }
+        claimStatus(appointment, "RESCHEDULED");
 
-        // Release old slot
         TimeSlot oldSlot = timeSlotRepository.findByLocationNameAndDateAndStartTime(
                 appointment.getLocationName(),
                 appointment.getAppointmentDate(),
                 appointment.getAppointmentTime()
         ).orElse(null);
 
-        if (oldSlot != null) {
-            oldSlot.releaseSlot();
-            timeSlotRepository.save(oldSlot);
-        }
-
-        // Book new slot
         TimeSlot newSlot = timeSlotRepository.findByLocationNameAndDateAndStartTime(
                 appointment.getLocationName(),
                 newDate,
                 newTime
         ).orElseThrow(() -> new RuntimeException("New time slot not available"));
 
-        if (!newSlot.hasAvailableSlots()) {
-            throw new RuntimeException("New time slot is fully booked");
-        }
-
-        newSlot.bookSlot();
-        timeSlotRepository.save(newSlot);
+        moveBooking(oldSlot, newSlot);
 
         // Update appointment
         if (appointment.getOriginalDate() == null) {
@@ -254,18 +249,17 @@ public class AppointmentService {
         }
         appointment.setAppointmentDate(newDate);
         appointment.setAppointmentTime(newTime);
-        appointment.setStatus("RESCHEDULED");
+        changeStatus(appointment, "RESCHEDULED");
         appointment.setRescheduleCount(appointment.getRescheduleCount() + 1);
+        // Remind again ahead of the new time (see AppointmentReminderJob)
+        appointment.setReminderSent(false);
 
         appointmentRepository.save(appointment);
 
         // Send notification
         sendRescheduleEmail(appointment.getStudent(), appointment);
 
-        return Map.of(
-                "message", "Appointment rescheduled successfully",
-                "appointment", convertToMap(appointment)
-        );
+        return new AppointmentResult("Appointment rescheduled successfully", AppointmentView.of(appointment));
     }
 
     // ==================== STAFF ENDPOINTS ====================
@@ -273,48 +267,49 @@ public class AppointmentService {
     /**
      * Get all appointments (Staff)
      */
-    public List<Map<String, Object>> getAllAppointments(String status, String type, LocalDate date) {
-        List<Appointment> appointments;
-
-        if (status != null && !status.isEmpty()) {
-            appointments = appointmentRepository.findByStatusOrderByAppointmentDateDescAppointmentTimeDesc(status);
-        } else if (type != null && !type.isEmpty()) {
-            appointments = appointmentRepository.findByAppointmentTypeOrderByAppointmentDateDescAppointmentTimeDesc(type);
-        } else if (date != null) {
-            appointments = appointmentRepository.findByDate(date);
-        } else {
-            appointments = appointmentRepository.findAll();
+    public AppointmentPage getAllAppointments(String status, String type, String locationName,
+                                              LocalDate fromDate, LocalDate toDate,
+                                              String cursor, String sort, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        boolean descending = !"asc".equalsIgnoreCase(sort);
+
+        // One row more than the page tells whether there is a next page, without a COUNT
+        List<AppointmentView> rows = appointmentRepository.findStaffPage(emptyToNull(status), emptyToNull(type),
+                emptyToNull(locationName), fromDate, toDate, emptyToNull(cursor), descending, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<AppointmentView> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            AppointmentView last = page.get(page.size() - 1);
+            nextCursor = KeysetCursor.encode(last.appointmentDate(), last.appointmentTime(), last.id());
         }
 
-        return appointments.stream()
-                .map(this::convertToMap)
-                .collect(Collectors.toList());
+        return new AppointmentPage(page, page.size(), hasMore, nextCursor);
     }
 
     /**
      * Update appointment status (Staff)
      */
     @Transactional
-    public Map<String, Object> updateAppointmentStatus(Long appointmentId, String newStatus, String notes, String staffId) {
-        Appointment appointment = appointmentRepository.findById(appointmentId)
+    public AppointmentResult updateAppointmentStatus(Long appointmentId, String newStatus, String notes, String staffId) {
+        Appointment appointment = appointmentRepository.findWithStudentById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found"));
 
-        appointment.setStatus(newStatus);
+        changeStatus(appointment, newStatus);
         appointment.setStaffNotes(notes);
 
         appointmentRepository.save(appointment);
 
-        return Map.of(
-                "message", "Appointment status updated",
-                "appointment", convertToMap(appointment)
-        );
+        return new AppointmentResult("Appointment status updated", AppointmentView.of(appointment));
     }
 
     /**
-     * Create time slots (Staff)
+     * Create time slots (Staff). Stored as one AvailabilityRule; individual time_slots rows
+     * are only written when a slot is first booked.
      */
     @Transactional
-    public Map<String, Object> createTimeSlots(Map<String, Object> request) {
+    public Map<String, Object> createTimeSlots(Map<String, Object> request, String staffId) {
         String locationType = (String) request.get("locationType");
         String locationName = (String) request.get("locationName");
         LocalDate startDate = LocalDate.parse(request.get("startDate").toString());
@@ -322,232 +317,205 @@ public class AppointmentService {
         LocalTime startTime = LocalTime.parse(request.get("startTime").toString());
         LocalTime endTime = LocalTime.parse(request.get("endTime").toString());
         Integer slotDuration = (Integer) request.getOrDefault("slotDuration", 30); // minutes
+        Integer capacity = (Integer) request.getOrDefault("capacity", 1);
+        String daysOfWeek = (String) request.getOrDefault("daysOfWeek", "MON,TUE,WED,THU,FRI,SAT,SUN");
 
-        int slotsCreated = 0;
+        if (endDate.isBefore(startDate) || !endTime.isAfter(startTime) || slotDuration <= 0) {
+            throw new RuntimeException("Invalid date or time range");
+        }
+        if (SlotAvailabilityIndex.Rule.parseDays(daysOfWeek).isEmpty()) {
+            throw new RuntimeException("Invalid daysOfWeek: " + daysOfWeek);
+        }
 
-        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            LocalTime currentTime = startTime;
-
-            while (currentTime.isBefore(endTime)) {
-                LocalTime slotEnd = currentTime.plusMinutes(slotDuration);
-                if (slotEnd.isAfter(endTime)) break;
-
-                TimeSlot slot = TimeSlot.builder()
-                        .locationType(locationType)
-                        .locationName(locationName)
-                        .date(date)
-                        .startTime(currentTime)
-                        .endTime(slotEnd)
-                        .maxAppointments(1)
-                        .bookedAppointments(0)
-                        .isAvailable(true)
-                        .build();
-
-                timeSlotRepository.save(slot);
-                slotsCreated++;
-
-                currentTime = slotEnd;
+        Set<LocalDate> excludedDates = new HashSet<>();
+        Object excluded = request.get("excludedDates");
+        if (excluded instanceof List<?> dates) {
+            for (Object date : dates) {
+                excludedDates.add(LocalDate.parse(date.toString()));
             }
         }
 
-        log.info("Created {} time slots for {}", slotsCreated, locationName);
+        User staff = null;
+        Object staffUserId = request.get("staffUserId");
+        if (staffUserId != null) {
+            staff = userRepository.findById(Long.valueOf(staffUserId.toString()))
+                    .orElseThrow(() -> new RuntimeException("Staff not found"));
+        }
+
+        AvailabilityRule rule = AvailabilityRule.builder()
+                .locationType(locationType)
+                .locationName(locationName)
+                .roomNumber((String) request.get("roomNumber"))
+                .staff(staff)
+                .appointmentType((String) request.get("appointmentType"))
+                .daysOfWeek(daysOfWeek)
+                .validFrom(startDate)
+                .validUntil(endDate)
+                .startTime(startTime)
+                .endTime(endTime)
+                .slotMinutes(slotDuration)
+                .capacity(capacity)
+                .excludedDates(excludedDates)
+                .createdBy(staffId)
+                .build();
+
+        rule = availabilityRuleRepository.save(rule);
+        slotIndex.ruleChanged(rule);
+
+        SlotAvailabilityIndex.Rule snapshot = SlotAvailabilityIndex.Rule.of(rule);
+        int slotsCreated = 0;
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (snapshot.appliesOn(date)) {
+                slotsCreated += snapshot.startTimes().length;
+            }
+        }
+        log.info("Created availability rule {} ({} time slots) for {}", rule.getId(), slotsCreated, locationName);
 
         return Map.of(
                 "message", "Time slots created successfully",
+                "ruleId", rule.getId(),
                 "slotsCreated", slotsCreated
         );
     }
 
     /**
-     * Get appointment statistics
+     * Close an availability rule on one date (public holiday, staff leave). Slots already
+     * booked on that date are left alone.
      */
-    public Map<String, Object> getStatistics() {
-        long total = appointmentRepository.count();
-        long pending = appointmentRepository.countByStatus("PENDING");
-        long confirmed = appointmentRepository.countByStatus("CONFIRMED");
-        long completed = appointmentRepository.countByStatus("COMPLETED");
-        long cancelled = appointmentRepository.countByStatus("CANCELLED");
-        long noShow = appointmentRepository.countByStatus("NO_SHOW");
+    @Transactional
+    public Map<String, Object> excludeDate(Long ruleId, LocalDate date) {
+        AvailabilityRule rule = availabilityRuleRepository.findById(ruleId)
+                .orElseThrow(() -> new RuntimeException("Availability rule not found"));
 
-        long medical = appointmentRepository.countByAppointmentType("MEDICAL");
-        long office = appointmentRepository.countByAppointmentType("OFFICE_CONSULTATION");
+        rule.getExcludedDates().add(date);
+        rule = availabilityRuleRepository.save(rule);
+        slotIndex.ruleChanged(rule);
 
         return Map.of(
-                "totalAppointments", total,
-                "pending", pending,
-                "confirmed", confirmed,
-                "completed", completed,
-                "cancelled", cancelled,
-                "noShow", noShow,
-                "medicalAppointments", medical,
-                "officeAppointments", office
+                "message", "Date excluded successfully",
+                "ruleId", rule.getId(),
+                "excludedDate", date
         );
     }
 
     /**
-     * Send appointment reminders (Scheduled job)
+     * Get appointment statistics (from StatusCounters, no database access)
      */
-    @Transactional
-    public void sendAppointmentReminders() {
-        LocalDate tomorrow = LocalDate.now().plusDays(1);
-        List<Appointment> appointments = appointmentRepository.findAppointmentsNeedingReminder(tomorrow);
-
-        for (Appointment appointment : appointments) {
-            sendReminderEmail(appointment.getStudent(), appointment);
-            appointment.setReminderSent(true);
-            appointment.setReminderSentDate(LocalDateTime.now());
-            appointment.setReminderCount(appointment.getReminderCount() + 1);
-            appointmentRepository.save(appointment);
-        }
-
-        log.info("Sent {} appointment reminders", appointments.size());
+    public AppointmentStatistics getStatistics() {
+        StatusCounters.Counts counts = statusCounters.get(StatusCounters.Kind.APPOINTMENT);
+
+        return new AppointmentStatistics(
+                counts.total(),
+                counts.status("PENDING"),
+                counts.status("CONFIRMED"),
+                counts.status("COMPLETED"),
+                counts.status("CANCELLED"),
+                counts.status("NO_SHOW"),
+                counts.type("MEDICAL"),
+                counts.type("OFFICE_CONSULTATION")
+        );
     }
 
     // Helper methods
 
-    private String generateAppointmentNumber() {
-        int year = LocalDateTime.now().getYear();
-        long count = appointmentRepository.count() + 1;
-        return String.format("APT-%d-%05d", year, count);
+    /**
+     * Write the time_slots row for a slot the availability rules offer but nobody has booked
+     * yet. Runs outside any transaction; the index answers the common case without a query.
+     * A concurrent first booking may insert the same row, in which case both book that one.
+     */
+    private void materializeSlot(String locationName, LocalDate date, LocalTime time) {
+        if (slotIndex.isPersisted(locationName, date, time)) {
+            return;
+        }
+        slotIndex.findRule(locationName, date, time).ifPresent(rule -> {
+            try {
+                slotMaterializer.materialize(rule, date, time);
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Slot {} {} {} was materialized concurrently", locationName, date, time);
+            }
+        });
     }
 
-    private Map<String, Object> convertToMap(Appointment appointment) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", appointment.getId());
-        map.put("appointmentNumber", appointment.getAppointmentNumber());
-        map.put("studentId", appointment.getStudent().getStudentId());
-        map.put("studentName", appointment.getStudent().getFullName());
-        map.put("appointmentType", appointment.getAppointmentType());
-        map.put("locationName", appointment.getLocationName());
-        map.put("locationAddress", appointment.getLocationAddress());
-        map.put("roomNumber", appointment.getRoomNumber());
-        map.put("appointmentDate", appointment.getAppointmentDate());
-        map.put("appointmentTime", appointment.getAppointmentTime());
-        map.put("durationMinutes", appointment.getDurationMinutes());
-        map.put("status", appointment.getStatus());
-        map.put("purpose", appointment.getPurpose());
-        map.put("confirmedByStudent", appointment.getConfirmedByStudent());
-        map.put("assignedStaff", appointment.getAssignedStaff() != null ?
-                appointment.getAssignedStaff().getFullName() : null);
-        map.put("createdAt", appointment.getCreatedAt());
-        return map;
+    /**
+     * Book newSlot and release oldSlot in one transaction. The two row locks are always taken
+     * in ascending slot id order, so two students swapping slots cannot deadlock each other;
+     * if the new slot is full the exception rolls back the release as well.
+     */
+    private void moveBooking(TimeSlot oldSlot, TimeSlot newSlot) {
+        if (oldSlot != null && oldSlot.getId().equals(newSlot.getId())) {
+            return;
+        }
+
+        boolean bookFirst = oldSlot == null || newSlot.getId() < oldSlot.getId();
+        if (!bookFirst) {
+            releaseSlot(oldSlot);
+        }
+        if (timeSlotRepository.tryBook(newSlot.getId()) == 0) {
+            throw new RuntimeException("New time slot is fully booked");
+        }
+        slotIndex.booked(newSlot.getId());
+        if (bookFirst && oldSlot != null) {
+            releaseSlot(oldSlot);
+        }
     }
 
-    private Map<String, Object> convertSlotToMap(TimeSlot slot) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", slot.getId());
-        map.put("locationType", slot.getLocationType());
-        map.put("locationName", slot.getLocationName());
-        map.put("roomNumber", slot.getRoomNumber());
-        map.put("date", slot.getDate());
-        map.put("startTime", slot.getStartTime());
-        map.put("endTime", slot.getEndTime());
-        map.put("availableSlots", slot.getAvailableSlots());
-        map.put("staff", slot.getStaff() != null ? slot.getStaff().getFullName() : null);
-        return map;
+    private void releaseSlot(TimeSlot slot) {
+        if (timeSlotRepository.release(slot.getId()) == 1) {
+            slotIndex.released(slot.getId());
+        }
     }
 
-    // Email notifications
+    // The guards above read the status; this makes the check and the write one statement.
+    // The loser throws, so its transaction rolls back without moving any seat.
+    private void claimStatus(Appointment appointment, String newStatus) {
+        if (appointmentRepository.updateStatusIf(appointment.getId(), appointment.getStatus(), newStatus) == 0) {
+            throw new RuntimeException("Appointment was changed by another request, please reload");
+        }
+    }
 
-    private void sendAppointmentConfirmationEmail(User student, Appointment appointment) {
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("hh:mm a");
-
-        String subject = "Appointment Booked - " + appointment.getAppointmentType();
-        String message = String.format(
-                "Dear %s,\n\n" +
-                        "Your appointment has been booked successfully.\n\n" +
-                        "Appointment Details:\n" +
-                        "Number: %s\n" +
-                        "Type: %s\n" +
-                        "Location: %s\n" +
-                        "Room: %s\n" +
-                        "Date: %s\n" +
-                        "Time: %s\n" +
-                        "Duration: %d minutes\n\n" +
-                        "Purpose: %s\n\n" +
-                        "Please confirm your appointment by clicking the link in your student portal.\n" +
-                        "You will receive a reminder 24 hours before your appointment.\n\n" +
-                        "Best regards,\n" +
-                        "Taylor's University",
-                student.getFullName(),
-                appointment.getAppointmentNumber(),
-                appointment.getAppointmentType(),
-                appointment.getLocationName(),
-                appointment.getRoomNumber() != null ? appointment.getRoomNumber() : "N/A",
-                appointment.getAppointmentDate().format(dateFormatter),
-                appointment.getAppointmentTime().format(timeFormatter),
-                appointment.getDurationMinutes(),
-                appointment.getPurpose()
-        );
+    private void changeStatus(Appointment appointment, String newStatus) {
+        statusCounters.statusChanged(StatusCounters.Kind.APPOINTMENT, appointment.getStatus(), newStatus);
+        appointment.setStatus(newStatus);
+        // Every appointment change goes through here; the student is fetched with the appointment
+        dataVersions.changed(appointment.getStudent().getStudentId());
+    }
 
-        emailService.sendEmail(student.getEmail(), subject, message);
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
     }
 
-    private void sendReminderEmail(User student, Appointment appointment) {
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("hh:mm a");
-
-        String subject = "Reminder: Appointment Tomorrow";
-        String message = String.format(
-                "Dear %s,\n\n" +
-                        "This is a reminder of your appointment tomorrow:\n\n" +
-                        "Type: %s\n" +
-                        "Location: %s\n" +
-                        "Room: %s\n" +
-                        "Date: %s\n" +
-                        "Time: %s\n\n" +
-                        "Please arrive 10 minutes early.\n\n" +
-                        "Best regards,\n" +
-                        "Taylor's University",
-                student.getFullName(),
-                appointment.getAppointmentType(),
-                appointment.getLocationName(),
-                appointment.getRoomNumber() != null ? appointment.getRoomNumber() : "N/A",
-                appointment.getAppointmentDate().format(dateFormatter),
-                appointment.getAppointmentTime().format(timeFormatter)
-        );
+    private String generateAppointmentNumber() {
+        return referenceNumbers.next("APT", appointmentRepository::findHighestNumber);
+    }
+
+    // Email notifications
 
-        emailService.sendEmail(student.getEmail(), subject, message);
+    private void sendAppointmentConfirmationEmail(User student, Appointment appointment) {
+        emailService.sendNotification(student.getEmail(), "appointment-booked",
+                "fullName", student.getFullName(),
+                "appointmentNumber", appointment.getAppointmentNumber(),
+                "appointmentType", appointment.getAppointmentType(),
+                "locationName", appointment.getLocationName(),
+                "roomNumber", appointment.getRoomNumber(),
+                "appointmentDate", appointment.getAppointmentDate(),
+                "appointmentTime", appointment.getAppointmentTime(),
+                "durationMinutes", appointment.getDurationMinutes(),
+                "purpose", appointment.getPurpose(),
+                "reminderLeadTime", reminderJob.describeLeadTime());
     }
 
     private void sendCancellationEmail(User student, Appointment appointment) {
-        String subject = "Appointment Cancelled";
-        String message = String.format(
-                "Dear %s,\n\n" +
-                        "Your appointment has been cancelled.\n\n" +
-                        "Appointment Number: %s\n" +
-                        "Reason: %s\n\n" +
-                        "You can book a new appointment through the student portal.\n\n" +
-                        "Best regards,\n" +
-                        "Taylor's University",
-                student.getFullName(),
-                appointment.getAppointmentNumber(),
-                appointment.getCancellationReason()
-        );
-
-        emailService.sendEmail(student.getEmail(), subject, message);
+        emailService.sendNotification(student.getEmail(), "appointment-cancelled",
+                "fullName", student.getFullName(),
+                "appointmentNumber", appointment.getAppointmentNumber(),
+                "cancellationReason", appointment.getCancellationReason());
     }
 
     private void sendRescheduleEmail(User student, Appointment appointment) {
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
-        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("hh:mm a");
-
-        String subject = "Appointment Rescheduled";
-        String message = String.format(
-                "Dear %s,\n\n" +
-                        "Your appointment has been rescheduled.\n\n" +
-                        "New Date: %s\n" +
-                        "New Time: %s\n" +
-                        "Location: %s\n\n" +
-                        "Best regards,\n" +
-                        "Taylor's University",
-                student.getFullName(),
-                appointment.getAppointmentDate().format(dateFormatter),
-                appointment.getAppointmentTime().format(timeFormatter),
-                appointment.getLocationName()
-        );
-
-        emailService.sendEmail(student.getEmail(), subject, message);
+        emailService.sendNotification(student.getEmail(), "appointment-rescheduled",
+                "fullName", student.getFullName(),
+                "appointmentDate", appointment.getAppointmentDate(),
+                "appointmentTime", appointment.getAppointmentTime(),
+                "locationName", appointment.getLocationName());
     }
 }
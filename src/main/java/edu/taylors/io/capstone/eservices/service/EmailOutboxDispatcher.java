@@ -0,0 +1,353 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.entity.EmailOutbox;
+import edu.taylors.io.capstone.eservices.repository.EmailOutboxRepository;
+import edu.taylors.io.capstone.eservices.service.NotificationTemplate.RenderedEmail;
+import jakarta.annotation.PostConstruct;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends the email_outbox in the background so no request or transaction waits on SMTP.
+ *
+ * A poller claims due rows (a conditional UPDATE, so several nodes can share the table) and
+ * hands them in chunks of {@code chunk-size} to {@code parallelism} sender threads; each chunk
+ * goes out over one pooled SMTP session (see {@link PooledSmtpTransport}), so a bulk
+ * notification run does not pay a TLS handshake and AUTH per message. When a held
+ * notification (see {@link EmailService#sendNotification}) comes due, every other held
+ * notification to the same recipient is claimed with it and they go out as one digest.
+ * A failed send goes back to PENDING with exponential backoff; after {@code max-attempts}
+ * the row is left as DEAD for staff to inspect. A claimed row whose sender died is picked up
+ * again once its lease expires, so delivery is at-least-once.
+ */
+@Slf4j
+@Component
+public class EmailOutboxDispatcher implements DisposableBean {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final EmailOutboxRepository outboxRepository;
+    private final PooledSmtpTransport transport;
+    private final NotificationTemplates templates;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${app.email.outbox.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.email.outbox.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.email.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.email.outbox.chunk-size:20}")
+    private int chunkSize;
+
+    @Value("${app.email.digest.max-items:20}")
+    private int digestMaxItems;
+
+    @Value("${app.email.outbox.poll-interval:1000}")
+    private long pollIntervalMillis;
+
+    @Value("${app.email.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.email.outbox.initial-backoff:30000}")
+    private long initialBackoffMillis;
+
+    @Value("${app.email.outbox.max-backoff:3600000}")
+    private long maxBackoffMillis;
+
+    @Value("${app.email.outbox.lease:300000}")
+    private long leaseMillis;
+
+    @Value("${app.email.outbox.sent-retention-days:7}")
+    private int sentRetentionDays;
+
+    private ScheduledExecutorService poller;
+    private ExecutorService senders;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private volatile boolean backlog;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder deadLettered = new LongAdder();
+    private final LongAdder digestsSent = new LongAdder();
+    private final LongAdder mergedIntoDigests = new LongAdder();
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository, PooledSmtpTransport transport,
+                                 NotificationTemplates templates) {
+        this.outboxRepository = outboxRepository;
+        this.transport = transport;
+        this.templates = templates;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("Email outbox dispatcher disabled; emails stay queued in email_outbox");
+            return;
+        }
+
+        poller = Executors.newSingleThreadScheduledExecutor(daemonThreads("email-outbox-poller"));
+        senders = Executors.newFixedThreadPool(parallelism, daemonThreads("email-sender"));
+        poller.scheduleWithFixedDelay(this::pollQuietly, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    // Called once a new outbox row is committed, so fresh mail (e.g. an OTP) skips the poll delay
+    public void wakeUp() {
+        if (poller != null && wakeUpPending.compareAndSet(false, true)) {
+            poller.execute(() -> {
+                wakeUpPending.set(false);
+                pollQuietly();
+            });
+        }
+    }
+
+    @Scheduled(cron = "${app.email.outbox.purge-cron:0 30 3 * * *}")
+    public void purgeSentEmails() {
+        int purged = outboxRepository.deleteSentBefore(LocalDateTime.now().minusDays(sentRetentionDays));
+        if (purged > 0) {
+            log.info("Purged {} sent emails from the outbox", purged);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Object[] row : outboxRepository.countByStatus()) {
+            stats.put(String.valueOf(row[0]).toLowerCase(), row[1]);
+        }
+        stats.put("inFlight", inFlight.get());
+        stats.put("parallelism", parallelism);
+        stats.put("sentSinceStartup", sent.sum());
+        stats.put("retriedSinceStartup", retried.sum());
+        stats.put("deadLetteredSinceStartup", deadLettered.sum());
+        stats.put("digestsSentSinceStartup", digestsSent.sum());
+        stats.put("mergedIntoDigestsSinceStartup", mergedIntoDigests.sum());
+        stats.put("smtp", transport.getStatistics());
+        return stats;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        if (poller == null) {
+            return;
+        }
+        poller.shutdownNow();
+        // Let sends in progress finish; anything left is re-sent after its lease expires
+        senders.shutdown();
+        senders.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void poll() {
+        // Keep at most one batch claimed, so rows are not leased long before they can be sent
+        int capacity = batchSize - inFlight.get();
+        if (capacity <= 0) {
+            backlog = true;
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> due = outboxRepository.findDue(now, PageRequest.of(0, capacity));
+        backlog = due.size() == capacity;
+
+        List<Claimed> chunk = new ArrayList<>(chunkSize);
+        for (EmailOutbox email : due) {
+            LocalDateTime leaseUntil = now.plus(leaseMillis, ChronoUnit.MILLIS);
+            if (outboxRepository.claim(email.getId(), now, leaseUntil) == 0) {
+                continue;
+            }
+            List<EmailOutbox> merged = email.isDigestible() ? claimDigestItems(email, leaseUntil) : List.of();
+            chunk.add(new Claimed(email, email.getAttempts() + 1, merged));
+            if (chunk.size() == chunkSize) {
+                submit(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            submit(chunk);
+        }
+    }
+
+    // The rest of the recipient's held notifications, taken now even if their own window is still open
+    private List<EmailOutbox> claimDigestItems(EmailOutbox email, LocalDateTime leaseUntil) {
+        if (digestMaxItems <= 1) {
+            return List.of();
+        }
+        List<EmailOutbox> merged = new ArrayList<>();
+        for (EmailOutbox held : outboxRepository.findDigestible(email.getRecipient(), email.getId(),
+                PageRequest.of(0, digestMaxItems - 1))) {
+            if (outboxRepository.claimForDigest(held.getId(), leaseUntil) == 1) {
+                merged.add(held);
+            }
+        }
+        return merged;
+    }
+
+    private void submit(List<Claimed> chunk) {
+        inFlight.addAndGet(chunk.size());
+        senders.execute(() -> {
+            try {
+                send(chunk);
+            } finally {
+                inFlight.addAndGet(-chunk.size());
+                if (backlog) {
+                    wakeUp();
+                }
+            }
+        });
+    }
+
+    private void send(List<Claimed> chunk) {
+        // A message that cannot even be built (e.g. a malformed address) fails alone
+        Exception[] results = new Exception[chunk.size()];
+        List<MimeMessage> messages = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            Claimed claimed = chunk.get(i);
+            try {
+                RenderedEmail email = claimed.merged().isEmpty()
+                        ? new RenderedEmail(claimed.email().getSubject(), claimed.email().getBody())
+                        : digest(claimed);
+                messages.add(transport.createMessage(fromEmail, claimed.email().getRecipient(), email.subject(), email.body()));
+                positions.add(i);
+            } catch (Exception e) {
+                results[i] = e;
+            }
+        }
+
+        try {
+            List<Exception> sendResults = transport.sendBatch(messages);
+            for (int j = 0; j < positions.size(); j++) {
+                results[positions.get(j)] = sendResults.get(j);
+            }
+        } catch (InterruptedException e) {
+            // Shutting down: the rows are picked up again once their lease expires
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        for (int i = 0; i < chunk.size(); i++) {
+            Claimed claimed = chunk.get(i);
+            if (results[i] != null) {
+                handleFailure(claimed.email(), claimed.attempt(), results[i]);
+                // Each held row keeps its own attempt count; they will likely be merged again on retry
+                for (EmailOutbox held : claimed.merged()) {
+                    handleFailure(held, held.getAttempts() + 1, results[i]);
+                }
+                continue;
+            }
+            markSent(claimed.email());
+            if (!claimed.merged().isEmpty()) {
+                claimed.merged().forEach(this::markSent);
+                digestsSent.increment();
+                mergedIntoDigests.add(claimed.merged().size());
+            }
+        }
+    }
+
+    private void markSent(EmailOutbox email) {
+        try {
+            outboxRepository.markSent(email.getId(), LocalDateTime.now());
+            sent.increment();
+        } catch (Exception e) {
+            // Delivered but not recorded: the row is sent again once its lease expires
+            log.warn("Email {} sent but could not be marked SENT: {}", email.getId(), e.getMessage());
+        }
+    }
+
+    private RenderedEmail digest(Claimed claimed) {
+        List<EmailOutbox> items = new ArrayList<>(claimed.merged().size() + 1);
+        items.add(claimed.email());
+        items.addAll(claimed.merged());
+        items.sort(Comparator.comparing(EmailOutbox::getId));
+
+        StringBuilder sections = new StringBuilder();
+        for (EmailOutbox item : items) {
+            if (!sections.isEmpty()) {
+                sections.append("\n\n");
+            }
+            sections.append("=== ").append(item.getSubject()).append(" ===\n\n").append(item.getBody());
+        }
+        return templates.render("digest", "count", items.size(), "items", sections);
+    }
+
+    private void handleFailure(EmailOutbox email, int attempt, Exception e) {
+        String error = truncate(e.getMessage());
+
+        if (attempt >= maxAttempts) {
+            outboxRepository.markDead(email.getId(), LocalDateTime.now(), error);
+            deadLettered.increment();
+            log.error("Email {} to {} moved to DEAD after {} attempts: {}",
+                    email.getId(), email.getRecipient(), attempt, error);
+            return;
+        }
+
+        LocalDateTime nextAttemptAt = LocalDateTime.now().plus(backoffMillis(attempt), ChronoUnit.MILLIS);
+        outboxRepository.markRetry(email.getId(), nextAttemptAt, error);
+        retried.increment();
+        log.warn("Email {} to {} failed (attempt {}), retrying at {}: {}",
+                email.getId(), email.getRecipient(), attempt, nextAttemptAt, error);
+    }
+
+    // initial * 2^(attempt-1), capped, plus up to 10% jitter so failed batches do not retry in lockstep
+    private long backoffMillis(int attempt) {
+        long backoff = initialBackoffMillis << Math.min(attempt - 1, 30);
+        if (backoff <= 0 || backoff > maxBackoffMillis) {
+            backoff = maxBackoffMillis;
+        }
+        return backoff + ThreadLocalRandom.current().nextLong(backoff / 10 + 1);
+    }
+
+    // An exception would cancel the poller's schedule, so log and carry on
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (Exception e) {
+            log.warn("Email outbox poll failed: {}", e.getMessage());
+        }
+    }
+
+    // merged: other held notifications to the same recipient, sent in one digest with email
+    private record Claimed(EmailOutbox email, int attempt, List<EmailOutbox> merged) {
+    }
+
+    private static String truncate(String value) {
+        return value == null || value.length() <= MAX_ERROR_LENGTH ? value : value.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
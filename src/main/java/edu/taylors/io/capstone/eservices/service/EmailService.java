@@ -1,100 +1,115 @@
 package edu.taylors.io.capstone.eservices.service;
 
+import edu.taylors.io.capstone.eservices.entity.EmailOutbox;
+import edu.taylors.io.capstone.eservices.repository.EmailOutboxRepository;
+import edu.taylors.io.capstone.eservices.service.NotificationTemplate.RenderedEmail;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
-    private final JavaMailSender mailSender;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailOutboxDispatcher dispatcher;
+    private final NotificationTemplates templates;
 
-    @Value("${app.name}")
-    private String appName;
+    @Value("${app.email.digest.window:120000}")
+    private long digestWindowMillis;
 
+    /**
+     * Queue an email in the email_outbox; EmailOutboxDispatcher sends it.
+     * Inside a transaction the row commits or rolls back with the caller's changes,
+     * and nothing here waits on SMTP.
+     */
     public void sendEmail(String toEmail, String subject, String text) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject(subject);
-        message.setText(text);
-        mailSender.send(message);
+        queue(toEmail, subject, text, false);
+    }
+
+    /**
+     * Queue a non-urgent notification. It is held for app.email.digest.window; if more
+     * notifications for the same recipient arrive meanwhile they all go out as one digest.
+     * OTP, password and 2FA mails must use sendEmail / sendTemplate instead.
+     */
+    public void sendNotification(String toEmail, String templateName, Object... namesAndValues) {
+        if (digestWindowMillis <= 0) {
+            sendTemplate(toEmail, templateName, namesAndValues);
+            return;
+        }
+
+        RenderedEmail email = templates.render(templateName, namesAndValues);
+        outboxRepository.save(EmailOutbox.builder()
+                .recipient(toEmail)
+                .subject(email.subject())
+                .body(email.body())
+                .digestible(true)
+                .nextAttemptAt(LocalDateTime.now().plus(digestWindowMillis, ChronoUnit.MILLIS))
+                .build());
+    }
+
+    // sensitive: the body holds a secret that must not stay in email_outbox after delivery
+    private void queue(String toEmail, String subject, String text, boolean sensitive) {
+        outboxRepository.save(EmailOutbox.builder()
+                .recipient(toEmail)
+                .subject(subject)
+                .body(text)
+                .sensitive(sensitive)
+                .build());
+        wakeDispatcher();
+    }
+
+    // Like sendTemplate, for mails carrying an OTP or token
+    private void sendSensitiveTemplate(String toEmail, String templateName, Object... namesAndValues) {
+        RenderedEmail email = templates.render(templateName, namesAndValues);
+        queue(toEmail, email.subject(), email.body(), true);
+    }
+
+    private void wakeDispatcher() {
+        // Wake the dispatcher once the row is visible to it
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatcher.wakeUp();
+                }
+            });
+        } else {
+            dispatcher.wakeUp();
+        }
+    }
+
+    /**
+     * Render a template from resources/templates/email (see NotificationTemplates) and queue it.
+     */
+    public void sendTemplate(String toEmail, String templateName, Object... namesAndValues) {
+        RenderedEmail email = templates.render(templateName, namesAndValues);
+        sendEmail(toEmail, email.subject(), email.body());
     }
 
     public void sendOtpEmail(String toEmail, String otp, String studentId) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject(appName + " - Your OTP Code");
-        message.setText(
-                "Hello " + studentId + ",\n\n" +
-                        "Your OTP code is: " + otp + "\n\n" +
-                        "This code will expire in 5 minutes.\n\n" +
-                        "If you didn't request this code, please ignore this email.\n\n" +
-                        "Best regards,\n" +
-                        appName + " Team"
-        );
-
-        mailSender.send(message);
+        sendSensitiveTemplate(toEmail, "otp", "studentId", studentId, "otp", otp);
     }
 
     public void send2FASetupEmail(String toEmail, String studentId, String method) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject(appName + " - 2FA Enabled");
-        message.setText(
-                "Hello " + studentId + ",\n\n" +
-                        "Two-Factor Authentication has been successfully enabled on your account.\n\n" +
-                        "Method: " + method + "\n\n" +
-                        "If you didn't enable this, please contact support immediately.\n\n" +
-                        "Best regards,\n" +
-                        appName + " Team"
-        );
-
-        mailSender.send(message);
+        sendTemplate(toEmail, "two-factor-enabled", "studentId", studentId, "method", method);
     }
+
     public void sendPasswordResetEmail(String toEmail, String resetToken, String studentId) {
         String resetLink = "http://localhost:9090/api/auth/reset-password?token=" + resetToken;
 
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject(appName + " - Password Reset Request");
-        message.setText(
-                "Hello " + studentId + ",\n\n" +
-                        "You requested to reset your password.\n\n" +
-                        "Please click the link below to reset your password:\n" +
-                        resetLink + "\n\n" +
-                        "Or use this token: " + resetToken + "\n\n" +
-                        "This link will expire in 1 hour.\n\n" +
-                        "If you didn't request this, please ignore this email and your password will remain unchanged.\n\n" +
-                        "Best regards,\n" +
-                        appName + " Team"
-        );
-
-        mailSender.send(message);
+        sendSensitiveTemplate(toEmail, "password-reset",
+                "studentId", studentId,
+                "resetLink", resetLink,
+                "resetToken", resetToken);
     }
 
     public void sendPasswordChangedConfirmation(String toEmail, String studentId) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setFrom(fromEmail);
-        message.setTo(toEmail);
-        message.setSubject(appName + " - Password Changed Successfully");
-        message.setText(
-                "Hello " + studentId + ",\n\n" +
-                        "Your password has been changed successfully.\n\n" +
-                        "If you didn't make this change, please contact support immediately.\n\n" +
-                        "Best regards,\n" +
-                        appName + " Team"
-        );
-
-        mailSender.send(message);
+        sendTemplate(toEmail, "password-changed", "studentId", studentId);
     }
-}
\ No newline at end of file
+}
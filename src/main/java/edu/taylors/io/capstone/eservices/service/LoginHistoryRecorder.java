@@ -0,0 +1,198 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind recorder for login audit rows.
+ *
+ * Login requests only enqueue an event (a lock-free queue bounded by an atomic counter;
+ * events beyond the capacity are dropped and counted). A background writer drains the
+ * queue in JDBC batches: one batched INSERT into login_history, plus one UPDATE of
+ * users.last_login_at per user, coalesced to the latest successful login in the batch.
+ * The queue is flushed on shutdown.
+ */
+@Slf4j
+@Component
+public class LoginHistoryRecorder implements DisposableBean {
+
+    private static final String INSERT_HISTORY_SQL =
+            "INSERT INTO login_history (user_id, ip_address, user_agent, location, login_time, successful) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)";
+
+    // Never move lastLoginAt backwards if batches land out of order
+    private static final String UPDATE_LAST_LOGIN_SQL =
+            "UPDATE users SET last_login_at = ? WHERE id = ? AND (last_login_at IS NULL OR last_login_at < ?)";
+
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Queue<LoginEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    @Value("${app.login-history.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.login-history.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.login-history.flush-interval:500}")
+    private long flushIntervalMillis;
+
+    private ScheduledExecutorService writer;
+
+    public LoginHistoryRecorder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void init() {
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "login-history-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queue a login event; never blocks.
+     *
+     * @return false if the queue was full and the event was dropped
+     */
+    public boolean record(Long userId, String ipAddress, String userAgent, boolean successful) {
+        if (depth.incrementAndGet() > queueCapacity) {
+            depth.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+
+        queue.offer(new LoginEvent(userId, truncate(ipAddress), truncate(userAgent),
+                successful, LocalDateTime.now()));
+        recorded.increment();
+        return true;
+    }
+
+    // Drain everything queued so far; called by the writer thread, on shutdown and from tests
+    public synchronized void flush() {
+        List<LoginEvent> batch = new ArrayList<>(batchSize);
+        while (true) {
+            batch.clear();
+            LoginEvent event;
+            while (batch.size() < batchSize && (event = queue.poll()) != null) {
+                batch.add(event);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            depth.addAndGet(-batch.size());
+            write(batch);
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", depth.get());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("recorded", recorded.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("written", written.sum());
+        stats.put("failed", failed.sum());
+        stats.put("batches", batches.sum());
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushQuietly();
+    }
+
+    private void write(List<LoginEvent> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_HISTORY_SQL, batch, batch.size(), (ps, event) -> {
+                ps.setLong(1, event.userId());
+                ps.setString(2, event.ipAddress());
+                ps.setString(3, event.userAgent());
+                ps.setString(4, "Unknown"); // You can integrate IP geolocation API here
+                ps.setTimestamp(5, Timestamp.valueOf(event.loginTime()));
+                ps.setBoolean(6, event.successful());
+            });
+
+            // One UPDATE per user however many times they logged in during the batch
+            Map<Long, LocalDateTime> lastLogins = new HashMap<>();
+            for (LoginEvent event : batch) {
+                if (event.successful()) {
+                    lastLogins.merge(event.userId(), event.loginTime(),
+                            (a, b) -> a.isAfter(b) ? a : b);
+                }
+            }
+            if (!lastLogins.isEmpty()) {
+                List<Map.Entry<Long, LocalDateTime>> updates = new ArrayList<>(lastLogins.entrySet());
+                jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN_SQL, updates, updates.size(), (ps, entry) -> {
+                    Timestamp lastLoginAt = Timestamp.valueOf(entry.getValue());
+                    ps.setTimestamp(1, lastLoginAt);
+                    ps.setLong(2, entry.getKey());
+                    ps.setTimestamp(3, lastLoginAt);
+                });
+            }
+
+            written.add(batch.size());
+            batches.increment();
+        } catch (DataAccessException e) {
+            failed.add(batch.size());
+            log.warn("Failed to write {} login history rows: {}", batch.size(), e.getMessage());
+        }
+    }
+
+    // An exception would cancel the writer's schedule, so log and carry on
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Login history flush failed: {}", e.getMessage());
+        }
+    }
+
+    private static String truncate(String value) {
+        return value == null || value.length() <= MAX_COLUMN_LENGTH ? value : value.substring(0, MAX_COLUMN_LENGTH);
+    }
+
+    private record LoginEvent(Long userId, String ipAddress, String userAgent,
+                              boolean successful, LocalDateTime loginTime) {
+    }
+}
@@ -1,9 +1,14 @@
 package edu.taylors.io.capstone.eservices.service;
 
+import edu.taylors.io.capstone.eservices.dto.MedicalExaminationPage;
+import edu.taylors.io.capstone.eservices.dto.MedicalExaminationResult;
+import edu.taylors.io.capstone.eservices.dto.MedicalExaminationView;
+import edu.taylors.io.capstone.eservices.dto.MedicalStatistics;
 import edu.taylors.io.capstone.eservices.entity.FileCategory;
 import edu.taylors.io.capstone.eservices.entity.MedicalExamination;
 import edu.taylors.io.capstone.eservices.entity.StudentFile;
 import edu.taylors.io.capstone.eservices.entity.User;
+import edu.taylors.io.capstone.eservices.repository.KeysetCursor;
 import edu.taylors.io.capstone.eservices.repository.MedicalExaminationRepository;
 import edu.taylors.io.capstone.eservices.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -12,72 +17,86 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MedicalExaminationService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final MedicalExaminationRepository medicalRepository;
     private final UserRepository userRepository;
     private final EmailService emailService;
     private final FileStorageService fileStorageService;
+    private final ReferenceNumberAllocator referenceNumbers;
+    private final StatusCounters statusCounters;
+    private final StudentDataVersions dataVersions;
 
     /**
-     * Get or create medical examination for student
+     * Get medical examination for student. Read-only: a student without one gets a "Not Started"
+     * view that is not stored; the row is provisioned by the first write that needs it.
      */
-    @Transactional
-    public Map<String, Object> getMedicalExamination(String studentId) {
+    @Transactional(readOnly = true)
+    public MedicalExaminationView getMedicalExamination(String studentId) {
+        Optional<MedicalExaminationView> existing = medicalRepository.findViewByStudentId(studentId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
         User student = userRepository.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
+        return MedicalExaminationView.notStarted(student);
+    }
 
-        MedicalExamination exam = medicalRepository.findByStudent(student)
+    /**
+     * The student's examination, created on first use (lazy provisioning for booking,
+     * uploads and visa creation)
+     */
+    @Transactional
+    public MedicalExamination provision(User student) {
+        return medicalRepository.findByStudent(student)
                 .orElseGet(() -> createNewExamination(student));
-
-        return convertToMap(exam);
     }
 
     /**
      * Book medical appointment
      */
     @Transactional
-    public Map<String, Object> bookAppointment(String studentId, Map<String, Object> request) {
+    public MedicalExaminationResult bookAppointment(String studentId, Map<String, Object> request) {
         User student = userRepository.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
 
-        MedicalExamination exam = medicalRepository.findByStudent(student)
-                .orElseGet(() -> createNewExamination(student));
+        MedicalExamination exam = provision(student);
 
         // Update appointment details
         exam.setAppointmentDate(LocalDateTime.parse(request.get("appointmentDate").toString()));
         exam.setClinicName((String) request.get("clinicName"));
         exam.setClinicAddress((String) request.get("clinicAddress"));
         exam.setClinicPhone((String) request.get("clinicPhone"));
-        exam.setStatus("SCHEDULED");
+        changeStatus(exam, "SCHEDULED");
         exam.updateProgress();
 
         medicalRepository.save(exam);
+        dataVersions.changed(studentId);
 
         // Send confirmation email
         sendAppointmentEmail(student, exam);
 
-        return Map.of(
-                "message", "Appointment booked successfully",
-                "examination", convertToMap(exam)
-        );
+        return new MedicalExaminationResult("Appointment booked successfully", MedicalExaminationView.of(exam));
     }
 
     /**
      * Update test results
      */
     @Transactional
-    public Map<String, Object> updateTests(Long id, Map<String, Object> tests, String staffId) {
-        MedicalExamination exam = medicalRepository.findById(id)
+    public MedicalExaminationResult updateTests(Long id, Map<String, Object> tests, String staffId) {
+        MedicalExamination exam = medicalRepository.findWithStudentById(id)
                 .orElseThrow(() -> new RuntimeException("Examination not found"));
 
         if (tests.containsKey("chestXrayDone")) {
@@ -91,21 +110,22 @@ public class MedicalExaminationService {
         }
 
         if (exam.allTestsCompleted()) {
-            exam.setStatus("COMPLETED");
+            changeStatus(exam, "COMPLETED");
         }
 
         exam.updateProgress();
         medicalRepository.save(exam);
+        dataVersions.changed(exam.getStudent().getStudentId());
 
-        return Map.of("message", "Tests updated", "examination", convertToMap(exam));
+        return new MedicalExaminationResult("Tests updated", MedicalExaminationView.of(exam));
     }
 
     /**
      * Submit medical results
      */
     @Transactional
-    public Map<String, Object> submitResults(Long id, boolean passed, String notes, String staffId) {
-        MedicalExamination exam = medicalRepository.findById(id)
+    public MedicalExaminationResult submitResults(Long id, boolean passed, String notes, String staffId) {
+        MedicalExamination exam = medicalRepository.findWithStudentById(id)
                 .orElseThrow(() -> new RuntimeException("Examination not found"));
 
         exam.setResultDate(LocalDateTime.now());
@@ -113,29 +133,28 @@ public class MedicalExaminationService {
         exam.setResultNotes(notes);
 
         if (passed) {
-            exam.setStatus("PASSED");
+            changeStatus(exam, "PASSED");
             exam.setExpiryDate(LocalDateTime.now().plusMonths(3)); // Valid 3 months
             sendPassedEmail(exam.getStudent(), exam);
         } else {
-            exam.setStatus("FAILED");
+            changeStatus(exam, "FAILED");
             sendFailedEmail(exam.getStudent(), exam);
         }
 
         exam.updateProgress();
         medicalRepository.save(exam);
+        dataVersions.changed(exam.getStudent().getStudentId());
 
-        return Map.of(
-                "message", passed ? "Medical examination passed" : "Medical examination failed",
-                "examination", convertToMap(exam)
-        );
+        return new MedicalExaminationResult(passed ? "Medical examination passed" : "Medical examination failed",
+                MedicalExaminationView.of(exam));
     }
 
     /**
      * Submit to EMGS
      */
     @Transactional
-    public Map<String, Object> submitToEmgs(Long id, String staffId) {
-        MedicalExamination exam = medicalRepository.findById(id)
+    public MedicalExaminationResult submitToEmgs(Long id, String staffId) {
+        MedicalExamination exam = medicalRepository.findWithStudentById(id)
                 .orElseThrow(() -> new RuntimeException("Examination not found"));
 
         if (!Boolean.TRUE.equals(exam.getPassed())) {
@@ -145,18 +164,16 @@ public class MedicalExaminationService {
         exam.setSubmittedToEmgs(true);
         exam.setEmgsSubmissionDate(LocalDateTime.now());
         exam.setEmgsReference("EMGS-MED-" + System.currentTimeMillis());
-        exam.setStatus("SUBMITTED_TO_EMGS");
+        changeStatus(exam, "SUBMITTED_TO_EMGS");
         exam.updateProgress();
 
         medicalRepository.save(exam);
+        dataVersions.changed(exam.getStudent().getStudentId());
 
         sendEmgsSubmissionEmail(exam.getStudent(), exam);
 
-        return Map.of(
-                "message", "Successfully submitted to EMGS",
-                "emgsReference", exam.getEmgsReference(),
-                "examination", convertToMap(exam)
-        );
+        return new MedicalExaminationResult("Successfully submitted to EMGS", exam.getEmgsReference(),
+                MedicalExaminationView.of(exam));
     }
 
     /**
@@ -167,8 +184,7 @@ public class MedicalExaminationService {
         User student = userRepository.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
 
-        MedicalExamination exam = medicalRepository.findByStudent(student)
-                .orElseGet(() -> createNewExamination(student));
+        MedicalExamination exam = provision(student);
 
         try {
             // Upload file using your existing FileStorageService
@@ -193,40 +209,41 @@ public class MedicalExaminationService {
     /**
      * Get all examinations (Staff only)
      */
-    public List<Map<String, Object>> getAllExaminations(String status) {
-        List<MedicalExamination> exams;
-
-        if (status != null && !status.isEmpty()) {
-            exams = medicalRepository.findByStatus(status);
-        } else {
-            exams = medicalRepository.findAll();
+    public MedicalExaminationPage getAllExaminations(String status, String clinicName,
+                                                     LocalDate fromDate, LocalDate toDate,
+                                                     String cursor, String sort, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        boolean descending = !"asc".equalsIgnoreCase(sort);
+
+        // One row more than the page tells whether there is a next page, without a COUNT
+        List<MedicalExaminationView> rows = medicalRepository.findStaffPage(emptyToNull(status), emptyToNull(clinicName),
+                fromDate, toDate, emptyToNull(cursor), descending, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<MedicalExaminationView> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            MedicalExaminationView last = page.get(page.size() - 1);
+            nextCursor = KeysetCursor.encode(last.createdAt(), last.id());
         }
 
-        return exams.stream()
-                .map(this::convertToMap)
-                .toList();
+        return new MedicalExaminationPage(page, page.size(), hasMore, nextCursor);
     }
 
     /**
      * Get statistics (Staff only)
      */
-    public Map<String, Object> getStatistics() {
-        long total = medicalRepository.count();
-        long pending = medicalRepository.findByStatus("PENDING").size();
-        long scheduled = medicalRepository.findByStatus("SCHEDULED").size();
-        long completed = medicalRepository.findByStatus("COMPLETED").size();
-        long passed = medicalRepository.findByStatus("PASSED").size();
-        long failed = medicalRepository.findByStatus("FAILED").size();
-        long submittedToEmgs = medicalRepository.findByStatus("SUBMITTED_TO_EMGS").size();
-
-        return Map.of(
-                "totalExaminations", total,
-                "pending", pending,
-                "scheduled", scheduled,
-                "completed", completed,
-                "passed", passed,
-                "failed", failed,
-                "submittedToEmgs", submittedToEmgs
+    public MedicalStatistics getStatistics() {
+        StatusCounters.Counts counts = statusCounters.get(StatusCounters.Kind.MEDICAL);
+
+        return new MedicalStatistics(
+                counts.total(),
+                counts.status("PENDING"),
+                counts.status("SCHEDULED"),
+                counts.status("COMPLETED"),
+                counts.status("PASSED"),
+                counts.status("FAILED"),
+                counts.status("SUBMITTED_TO_EMGS")
         );
     }
 
@@ -242,117 +259,53 @@ public class MedicalExaminationService {
                 .build();
 
         exam = medicalRepository.save(exam);
+        statusCounters.created(StatusCounters.Kind.MEDICAL, exam.getStatus(), null);
+        dataVersions.changed(student.getStudentId());
         log.info("Created medical examination {} for {}", exam.getExaminationNumber(), student.getStudentId());
 
         return exam;
     }
 
-    private String generateExamNumber() {
-        int year = LocalDateTime.now().getYear();
-        long count = medicalRepository.count() + 1;
-        return String.format("MED-%d-%05d", year, count);
+    private void changeStatus(MedicalExamination exam, String newStatus) {
+        statusCounters.statusChanged(StatusCounters.Kind.MEDICAL, exam.getStatus(), newStatus);
+        exam.setStatus(newStatus);
     }
 
-    private Map<String, Object> convertToMap(MedicalExamination exam) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", exam.getId());
-        map.put("examinationNumber", exam.getExaminationNumber());
-        map.put("studentId", exam.getStudent().getStudentId());
-        map.put("studentName", exam.getStudent().getFullName());
-        map.put("status", exam.getStatus());
-        map.put("progressPercentage", exam.getProgressPercentage());
-        map.put("appointmentDate", exam.getAppointmentDate());
-        map.put("clinicName", exam.getClinicName());
-        map.put("clinicAddress", exam.getClinicAddress());
-        map.put("clinicPhone", exam.getClinicPhone());
-        map.put("examinationDate", exam.getExaminationDate());
-        map.put("resultDate", exam.getResultDate());
-        map.put("passed", exam.getPassed());
-        map.put("resultNotes", exam.getResultNotes());
-        map.put("chestXrayDone", exam.getChestXrayDone());
-        map.put("bloodTestDone", exam.getBloodTestDone());
-        map.put("urineTestDone", exam.getUrineTestDone());
-        map.put("submittedToEmgs", exam.getSubmittedToEmgs());
-        map.put("emgsSubmissionDate", exam.getEmgsSubmissionDate());
-        map.put("emgsReference", exam.getEmgsReference());
-        map.put("expiryDate", exam.getExpiryDate());
-        map.put("createdAt", exam.getCreatedAt());
-        map.put("updatedAt", exam.getUpdatedAt());
-        return map;
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private String generateExamNumber() {
+        return referenceNumbers.next("MED", medicalRepository::findHighestNumber);
     }
 
     // Email notifications
 
     private void sendAppointmentEmail(User student, MedicalExamination exam) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy, hh:mm a");
-        String subject = "Medical Appointment Confirmed - Taylor's E-Services";
-        String message = String.format(
-                "Dear %s,\n\n" +
-                        "Your medical examination appointment has been confirmed:\n\n" +
-                        "Date & Time: %s\n" +
-                        "Clinic: %s\n" +
-                        "Address: %s\n\n" +
-                        "Please bring:\n" +
-                        "- Passport\n" +
-                        "- Student ID\n" +
-                        "- Offer letter\n\n" +
-                        "Best regards,\n" +
-                        "Taylor's International Office",
-                student.getFullName(),
-                exam.getAppointmentDate().format(formatter),
-                exam.getClinicName(),
-                exam.getClinicAddress()
-        );
-        emailService.sendEmail(student.getEmail(), subject, message);
+        emailService.sendNotification(student.getEmail(), "medical-appointment",
+                "fullName", student.getFullName(),
+                "appointmentDate", exam.getAppointmentDate(),
+                "clinicName", exam.getClinicName(),
+                "clinicAddress", exam.getClinicAddress());
     }
 
     private void sendPassedEmail(User student, MedicalExamination exam) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
-        String subject = "Medical Examination Passed - Congratulations!";
-        String message = String.format(
-                "Dear %s,\n\n" +
-                        "Congratulations! You have passed your medical examination.\n\n" +
-                        "Examination Number: %s\n" +
-                        "Valid Until: %s\n\n" +
-                        "Your medical clearance will be submitted to EMGS.\n\n" +
-                        "Best regards,\n" +
-                        "Taylor's International Office",
-                student.getFullName(),
-                exam.getExaminationNumber(),
-                exam.getExpiryDate().format(formatter)
-        );
-        emailService.sendEmail(student.getEmail(), subject, message);
+        emailService.sendNotification(student.getEmail(), "medical-passed",
+                "fullName", student.getFullName(),
+                "examinationNumber", exam.getExaminationNumber(),
+                "expiryDate", exam.getExpiryDate());
     }
 
     private void sendFailedEmail(User student, MedicalExamination exam) {
-        String subject = "Medical Examination - Retest Required";
-        String message = String.format(
-                "Dear %s,\n\n" +
-                        "Your medical examination requires further attention.\n\n" +
-                        "Notes: %s\n\n" +
-                        "Please contact the International Office for next steps.\n\n" +
-                        "Best regards,\n" +
-                        "Taylor's International Office",
-                student.getFullName(),
-                exam.getResultNotes()
-        );
-        emailService.sendEmail(student.getEmail(), subject, message);
+        emailService.sendNotification(student.getEmail(), "medical-failed",
+                "fullName", student.getFullName(),
+                "resultNotes", exam.getResultNotes());
     }
 
     private void sendEmgsSubmissionEmail(User student, MedicalExamination exam) {
-        String subject = "Medical Report Submitted to EMGS";
-        String message = String.format(
-                "Dear %s,\n\n" +
-                        "Your medical report has been submitted to EMGS.\n\n" +
-                        "EMGS Reference: %s\n" +
-                        "Submission Date: %s\n\n" +
-                        "You will be notified once EMGS approval is received.\n\n" +
-                        "Best regards,\n" +
-                        "Taylor's International Office",
-                student.getFullName(),
-                exam.getEmgsReference(),
-                exam.getEmgsSubmissionDate().format(DateTimeFormatter.ofPattern("dd MMM yyyy"))
-        );
-        emailService.sendEmail(student.getEmail(), subject, message);
+        emailService.sendNotification(student.getEmail(), "medical-emgs-submitted",
+                "fullName", student.getFullName(),
+                "emgsReference", exam.getEmgsReference(),
+                "submissionDate", exam.getEmgsSubmissionDate());
     }
 }
@@ -0,0 +1,189 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An email template compiled once into literal and placeholder segments.
+ *
+ * Source format: a {@code Subject: ...} line, a blank line, then the body. Placeholders are
+ * {@code {{name}}}, {@code {{name:dd MMM yyyy}}} (a date/time formatted with a cached
+ * DateTimeFormatter) and {@code {{name?N/A}}} (fallback when the value is null).
+ * Rendering appends straight into a per-thread buffer, so the only allocations per send
+ * are the two result Strings.
+ */
+public final class NotificationTemplate {
+
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+    private static final Map<String, DateTimeFormatter> FORMATTERS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final Segment[] subject;
+    private final Segment[] body;
+    private final Map<String, ?> globals;
+
+    private NotificationTemplate(String name, Segment[] subject, Segment[] body, Map<String, ?> globals) {
+        this.name = name;
+        this.subject = subject;
+        this.body = body;
+        this.globals = globals;
+    }
+
+    /**
+     * @param globals values every template can use (e.g. appName), looked up after the render arguments
+     */
+    public static NotificationTemplate compile(String name, String source, Map<String, ?> globals) {
+        String text = source.replace("\r\n", "\n");
+        if (!text.startsWith("Subject:")) {
+            throw new IllegalStateException("Email template " + name + " must start with a Subject: line");
+        }
+        int subjectEnd = text.indexOf('\n');
+        if (subjectEnd < 0) {
+            throw new IllegalStateException("Email template " + name + " has no body");
+        }
+
+        String subjectText = text.substring("Subject:".length(), subjectEnd).trim();
+        String bodyText = text.substring(subjectEnd + 1);
+        if (bodyText.startsWith("\n")) {
+            bodyText = bodyText.substring(1);
+        }
+        if (bodyText.endsWith("\n")) {
+            bodyText = bodyText.substring(0, bodyText.length() - 1);
+        }
+
+        return new NotificationTemplate(name, parse(name, subjectText), parse(name, bodyText), globals);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param namesAndValues alternating placeholder names and values; values may be null
+     */
+    public RenderedEmail render(Object... namesAndValues) {
+        if (namesAndValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Template " + name + " needs name/value pairs");
+        }
+
+        StringBuilder buffer = BUFFER.get();
+        try {
+            String renderedSubject = renderInto(buffer, subject, namesAndValues);
+            String renderedBody = renderInto(buffer, body, namesAndValues);
+            return new RenderedEmail(renderedSubject, renderedBody);
+        } finally {
+            // Don't let one unusually large email pin a big buffer on every thread
+            if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+                BUFFER.remove();
+            }
+        }
+    }
+
+    private String renderInto(StringBuilder buffer, Segment[] segments, Object[] namesAndValues) {
+        buffer.setLength(0);
+        for (Segment segment : segments) {
+            if (segment.variable == null) {
+                buffer.append(segment.literal);
+            } else {
+                append(buffer, segment, lookup(segment.variable, namesAndValues));
+            }
+        }
+        return buffer.toString();
+    }
+
+    private Object lookup(String variable, Object[] namesAndValues) {
+        // A handful of pairs: a linear scan beats building a map per send
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (variable.equals(namesAndValues[i])) {
+                return namesAndValues[i + 1];
+            }
+        }
+        return globals.get(variable);
+    }
+
+    private static void append(StringBuilder buffer, Segment segment, Object value) {
+        if (value == null) {
+            if (segment.defaultValue != null) {
+                buffer.append(segment.defaultValue);
+            }
+        } else if (segment.formatter != null && value instanceof TemporalAccessor temporal) {
+            segment.formatter.formatTo(temporal, buffer);
+        } else if (value instanceof CharSequence chars) {
+            buffer.append(chars);
+        } else if (value instanceof Integer number) {
+            buffer.append(number.intValue());
+        } else if (value instanceof Long number) {
+            buffer.append(number.longValue());
+        } else {
+            buffer.append(value);
+        }
+    }
+
+    private static Segment[] parse(String name, String text) {
+        List<Segment> segments = new ArrayList<>();
+        int position = 0;
+        while (position < text.length()) {
+            int open = text.indexOf("{{", position);
+            if (open < 0) {
+                segments.add(Segment.literal(text.substring(position)));
+                break;
+            }
+            if (open > position) {
+                segments.add(Segment.literal(text.substring(position, open)));
+            }
+            int close = text.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalStateException("Unclosed placeholder in email template " + name);
+            }
+            segments.add(Segment.placeholder(text.substring(open + 2, close).trim()));
+            position = close + 2;
+        }
+        return segments.toArray(new Segment[0]);
+    }
+
+    private static final class Segment {
+
+        private final String literal;
+        private final String variable;
+        private final DateTimeFormatter formatter;
+        private final String defaultValue;
+
+        private Segment(String literal, String variable, DateTimeFormatter formatter, String defaultValue) {
+            this.literal = literal;
+            this.variable = variable;
+            this.formatter = formatter;
+            this.defaultValue = defaultValue;
+        }
+
+        static Segment literal(String text) {
+            return new Segment(text, null, null, null);
+        }
+
+        // name, name:pattern or name?default
+        static Segment placeholder(String expression) {
+            int end = 0;
+            while (end < expression.length() && Character.isJavaIdentifierPart(expression.charAt(end))) {
+                end++;
+            }
+            String variable = expression.substring(0, end);
+            if (end == expression.length()) {
+                return new Segment(null, variable, null, null);
+            }
+
+            String argument = expression.substring(end + 1);
+            return switch (expression.charAt(end)) {
+                case ':' -> new Segment(null, variable, FORMATTERS.computeIfAbsent(argument, DateTimeFormatter::ofPattern), null);
+                case '?' -> new Segment(null, variable, null, argument);
+                default -> throw new IllegalStateException("Invalid placeholder {{" + expression + "}}");
+            };
+        }
+    }
+
+    public record RenderedEmail(String subject, String body) {
+    }
+}
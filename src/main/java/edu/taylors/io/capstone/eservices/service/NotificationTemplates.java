@@ -0,0 +1,61 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.service.NotificationTemplate.RenderedEmail;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads every {@code *.txt} under app.email.templates.location at startup and compiles it
+ * (see {@link NotificationTemplate}); the file name without extension is the template name.
+ * Point the location at a directory outside the jar to change email copy without a rebuild.
+ */
+@Slf4j
+@Component
+public class NotificationTemplates {
+
+    @Value("${app.email.templates.location:classpath:templates/email/}")
+    private String location;
+
+    @Value("${app.name}")
+    private String appName;
+
+    private Map<String, NotificationTemplate> templates;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Map<String, Object> globals = Map.of("appName", appName);
+        String pattern = location.endsWith("/") ? location + "*.txt" : location + "/*.txt";
+
+        Map<String, NotificationTemplate> compiled = new HashMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(pattern)) {
+            String fileName = resource.getFilename();
+            String name = fileName.substring(0, fileName.length() - ".txt".length());
+            try (InputStream in = resource.getInputStream()) {
+                compiled.put(name, NotificationTemplate.compile(name, new String(in.readAllBytes(), StandardCharsets.UTF_8), globals));
+            }
+        }
+        templates = Map.copyOf(compiled);
+        log.info("Compiled {} email templates from {}", templates.size(), location);
+    }
+
+    /**
+     * @param namesAndValues alternating placeholder names and values
+     */
+    public RenderedEmail render(String templateName, Object... namesAndValues) {
+        NotificationTemplate template = templates.get(templateName);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown email template: " + templateName);
+        }
+        return template.render(namesAndValues);
+    }
+}
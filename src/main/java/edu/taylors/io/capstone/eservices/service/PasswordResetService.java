@@ -4,6 +4,8 @@ import edu.taylors.io.capstone.eservices.entity.PasswordResetToken;
 import edu.taylors.io.capstone.eservices.entity.User;
 import edu.taylors.io.capstone.eservices.repository.PasswordResetTokenRepository;
 import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import edu.taylors.io.capstone.eservices.security.TokenRevocationService;
+import edu.taylors.io.capstone.eservices.security.UserCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -21,6 +23,9 @@ public class PasswordResetService {
     private final PasswordResetTokenRepository resetTokenRepository;
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserCache userCache;
+    private final RefreshTokenService refreshTokenService;
 
     @Value("${app.password-reset.token.expiration:3600000}") // 1 hour in milliseconds
     private Long tokenExpiration;
@@ -106,6 +111,9 @@ public class PasswordResetService {
         // Update password
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userCache.evict(user.getStudentId());
+        tokenRevocationService.revokeAllTokens(user.getStudentId());
+        refreshTokenService.deleteAllRefreshTokens(user.getStudentId());
 
         // Mark token as used
         resetToken.setUsed(true);
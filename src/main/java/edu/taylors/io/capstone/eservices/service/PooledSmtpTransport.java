@@ -0,0 +1,214 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps authenticated SMTP connections open and sends batches of messages over one session,
+ * instead of a new connection (TCP + STARTTLS + AUTH) per message as JavaMailSender does.
+ *
+ * At most {@code maxConnections} sessions to the host exist at once; callers beyond that
+ * wait for one to be returned. Sessions are recycled after {@code maxMessagesPerConnection}
+ * messages (providers cap this) or when idle longer than {@code idleTimeoutMillis}.
+ */
+@Slf4j
+public class PooledSmtpTransport implements DisposableBean {
+
+    // A connection used this recently is assumed alive without a NOOP round-trip
+    private static final long TRUSTED_IDLE_MILLIS = 5_000;
+
+    private final Session session;
+    private final String protocol;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final int maxConnections;
+    private final int maxMessagesPerConnection;
+    private final long idleTimeoutMillis;
+
+    private final Semaphore permits;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder messagesSent = new LongAdder();
+    private final LongAdder messagesFailed = new LongAdder();
+
+    public PooledSmtpTransport(Session session, String protocol, String host, int port,
+                               String username, String password,
+                               int maxConnections, int maxMessagesPerConnection, long idleTimeoutMillis) {
+        this.session = session;
+        this.protocol = protocol;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.maxConnections = maxConnections;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    public MimeMessage createMessage(String from, String to, String subject, String text) throws MessagingException {
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(new InternetAddress(from));
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(to));
+        message.setSubject(subject, "UTF-8");
+        message.setText(text, "UTF-8");
+        message.setSentDate(new Date());
+        message.saveChanges();
+        return message;
+    }
+
+    /**
+     * Send the messages in order over one pooled session.
+     *
+     * @return one entry per message: null if it was accepted by the server, otherwise the failure
+     */
+    public List<Exception> sendBatch(List<MimeMessage> messages) throws InterruptedException {
+        List<Exception> results = new ArrayList<>(messages.size());
+
+        PooledConnection connection = null;
+        MessagingException connectFailure = null;
+        permits.acquire();
+        try {
+            for (MimeMessage message : messages) {
+                if (connectFailure != null) {
+                    // Server unreachable: fail the rest now instead of waiting out the connect timeout per message
+                    results.add(connectFailure);
+                    messagesFailed.increment();
+                    continue;
+                }
+                try {
+                    if (connection == null || connection.sent >= maxMessagesPerConnection) {
+                        close(connection);
+                        connection = null;
+                        connection = borrowOrOpen();
+                    }
+                    connection = sendOne(connection, message);
+                    results.add(null);
+                    messagesSent.increment();
+                } catch (MessagingException e) {
+                    results.add(e);
+                    messagesFailed.increment();
+                    if (connection == null) {
+                        connectFailure = e;
+                    } else if (!connection.transport.isConnected()) {
+                        close(connection);
+                        connection = null;
+                    }
+                }
+            }
+        } finally {
+            if (connection != null) {
+                connection.lastUsedMillis = System.currentTimeMillis();
+                idle.offerFirst(connection);
+            }
+            permits.release();
+        }
+        return results;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("host", host);
+        stats.put("maxConnections", maxConnections);
+        stats.put("inUse", maxConnections - permits.availablePermits());
+        stats.put("idle", idle.size());
+        stats.put("connectionsOpened", connectionsOpened.sum());
+        stats.put("messagesSent", messagesSent.sum());
+        stats.put("messagesFailed", messagesFailed.sum());
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+
+    // A server that dropped a kept-alive session gets one fresh connection before the message fails
+    private PooledConnection sendOne(PooledConnection connection, MimeMessage message) throws MessagingException {
+        try {
+            connection.transport.sendMessage(message, message.getAllRecipients());
+        } catch (MessagingException e) {
+            if (connection.transport.isConnected() || connection.sent == 0) {
+                throw e;
+            }
+            close(connection);
+            connection = open();
+            connection.transport.sendMessage(message, message.getAllRecipients());
+        }
+        connection.sent++;
+        return connection;
+    }
+
+    // Most recently used first, so a quiet period lets the extra connections time out
+    private PooledConnection borrowOrOpen() throws MessagingException {
+        long now = System.currentTimeMillis();
+        PooledConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            if (connection.isUsable(now)) {
+                return connection;
+            }
+            close(connection);
+        }
+        return open();
+    }
+
+    private PooledConnection open() throws MessagingException {
+        Transport transport = session.getTransport(protocol);
+        transport.connect(host, port, username, password);
+        connectionsOpened.increment();
+        return new PooledConnection(transport);
+    }
+
+    private void close(PooledConnection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    private final class PooledConnection {
+
+        private final Transport transport;
+        private int sent;
+        private long lastUsedMillis = System.currentTimeMillis();
+
+        private PooledConnection(Transport transport) {
+            this.transport = transport;
+        }
+
+        private boolean isUsable(long now) {
+            long idleMillis = now - lastUsedMillis;
+            if (idleMillis > idleTimeoutMillis || sent >= maxMessagesPerConnection) {
+                return false;
+            }
+            // isConnected() costs a NOOP round-trip, only worth it after a pause
+            return idleMillis < TRUSTED_IDLE_MILLIS || transport.isConnected();
+        }
+    }
+}
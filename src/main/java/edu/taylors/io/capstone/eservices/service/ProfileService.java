@@ -7,12 +7,14 @@ import edu.taylors.io.capstone.eservices.entity.LoginHistory;
 import edu.taylors.io.capstone.eservices.entity.User;
 import edu.taylors.io.capstone.eservices.repository.LoginHistoryRepository;
 import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import edu.taylors.io.capstone.eservices.security.TokenRevocationService;
+import edu.taylors.io.capstone.eservices.security.UserCache;
+import edu.taylors.io.capstone.eservices.security.UserUnitOfWork;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -23,6 +25,11 @@ public class ProfileService {
     private final UserRepository userRepository;
     private final LoginHistoryRepository loginHistoryRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserCache userCache;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginHistoryRecorder loginHistoryRecorder;
+    private final StudentDataVersions dataVersions;
 
     public ProfileDTO getProfile(String studentId) {
         User user = userRepository.findByStudentId(studentId)
@@ -48,6 +55,10 @@ public class ProfileService {
         User user = userRepository.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        // The name is shown on the student dashboard, so a new one must change its ETags
+        boolean nameChanged = (request.getFirstName() != null && !request.getFirstName().equals(user.getFirstName()))
+                || (request.getLastName() != null && !request.getLastName().equals(user.getLastName()));
+
         // Update fields if provided
         if (request.getFirstName() != null) {
             user.setFirstName(request.getFirstName());
@@ -70,6 +81,10 @@ public class ProfileService {
         }
 
         userRepository.save(user);
+        userCache.evict(studentId);
+        if (nameChanged) {
+            dataVersions.changed(studentId);
+        }
 
         return getProfile(studentId);
     }
@@ -98,6 +113,11 @@ public class ProfileService {
         // Update password
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        userCache.evict(studentId);
+
+        // Access tokens and sessions issued with the old password stop working immediately
+        tokenRevocationService.revokeAllTokens(studentId);
+        refreshTokenService.deleteAllRefreshTokens(studentId);
     }
 
     @Transactional
@@ -107,6 +127,7 @@ public class ProfileService {
 
         user.setProfilePictureUrl(pictureUrl);
         userRepository.save(user);
+        userCache.evict(studentId);
     }
 
     public List<LoginHistoryDTO> getLoginHistory(String studentId) {
@@ -128,26 +149,18 @@ public class ProfileService {
                 .collect(Collectors.toList());
     }
 
-    @Transactional
+    // Audit rows are written behind the request by LoginHistoryRecorder
     public void recordLogin(String studentId, String ipAddress,
                             String userAgent, boolean successful) {
-        User user = userRepository.findByStudentId(studentId)
+        User user = userCache.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        LoginHistory loginHistory = LoginHistory.builder()
-                .user(user)
-                .ipAddress(ipAddress)
-                .userAgent(userAgent)
-                .location("Unknown") // You can integrate IP geolocation API here
-                .successful(successful)
-                .build();
-
-        loginHistoryRepository.save(loginHistory);
+        loginHistoryRecorder.record(user.getId(), ipAddress, userAgent, successful);
+    }
 
-        // Update last login time
-        if (successful) {
-            user.setLastLoginAt(LocalDateTime.now());
-            userRepository.save(user);
-        }
+    // Login-flow variant: the user is already loaded; lastLoginAt is coalesced by the recorder too
+    public void recordLogin(UserUnitOfWork unitOfWork, String ipAddress,
+                            String userAgent, boolean successful) {
+        loginHistoryRecorder.record(unitOfWork.getUser().getId(), ipAddress, userAgent, successful);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,172 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Hands out reference numbers such as APT-2026-00042, unique across nodes and restarting at 1
+ * every year.
+ *
+ * Each node reserves a block of blockSize numbers at a time from reference_sequences (hi/lo)
+ * and serves the block from an AtomicLong, so only one allocation in blockSize touches the
+ * database. Numbers left in a block when a node stops are never used, so references are
+ * unique and increasing per node but may have gaps.
+ *
+ * Blocks are reserved in their own transaction on a small pool of their own (app.reference-numbers
+ * .pool-size): callers allocate from inside their booking or creation transaction, and a refill
+ * that needed a second connection from the main pool could wait forever behind those callers.
+ * A caller that rolls back therefore never returns numbers this node still hands out.
+ */
+@Slf4j
+@Component
+public class ReferenceNumberAllocator implements DisposableBean {
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transaction;
+    private final HikariDataSource ownPool;
+    private final int blockSize;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private final LongAdder allocated = new LongAdder();
+    private final LongAdder blocksReserved = new LongAdder();
+
+    @Autowired
+    public ReferenceNumberAllocator(DataSourceProperties dataSourceProperties,
+                                    @Value("${app.reference-numbers.pool-size:2}") int poolSize,
+                                    @Value("${app.reference-numbers.block-size:20}") int blockSize) {
+        this(newPool(dataSourceProperties, poolSize), true, blockSize);
+    }
+
+    // Each instance stands in for one node in tests
+    ReferenceNumberAllocator(DataSource dataSource, int blockSize) {
+        this(dataSource, false, blockSize);
+    }
+
+    private ReferenceNumberAllocator(DataSource dataSource, boolean ownsPool, int blockSize) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        this.ownPool = ownsPool ? (HikariDataSource) dataSource : null;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * @param prefix        e.g. "APT"
+     * @param highestIssued given "APT-2026-", the highest number already stored with that prefix
+     *                      (or null); only asked when the year's sequence row is first created,
+     *                      so numbers issued before the sequence existed are not handed out again
+     */
+    public String next(String prefix, Function<String, Long> highestIssued) {
+        return next(prefix, LocalDate.now().getYear(), highestIssued);
+    }
+
+    String next(String prefix, int year, Function<String, Long> highestIssued) {
+        String name = prefix + "-" + year;
+        Counter counter = counters.computeIfAbsent(name, key -> new Counter());
+
+        while (true) {
+            Block block = counter.block;
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value <= block.last) {
+                    allocated.increment();
+                    return String.format("%s-%d-%05d", prefix, year, value);
+                }
+            }
+            // Block used up: one thread reserves the next, the others wait and retry
+            synchronized (counter) {
+                if (counter.block == block) {
+                    counter.block = reserve(name, prefix + "-" + year + "-", highestIssued);
+                }
+            }
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("blockSize", blockSize);
+        stats.put("allocated", allocated.sum());
+        stats.put("blocksReserved", blocksReserved.sum());
+        stats.put("sequences", counters.size());
+        return stats;
+    }
+
+    @Override
+    public void destroy() {
+        if (ownPool != null) {
+            ownPool.close();
+        }
+    }
+
+    private Block reserve(String name, String referencePrefix, Function<String, Long> highestIssued) {
+        while (true) {
+            try {
+                Block block = transaction.execute(status -> reserveBlock(name, referencePrefix, highestIssued));
+                blocksReserved.increment();
+                log.debug("Reserved {} numbers {}-{}", name, block.next.get(), block.last);
+                return block;
+            } catch (DataIntegrityViolationException e) {
+                // Another node created the year's row first; take a block from it instead
+                log.debug("Sequence {} created concurrently, retrying", name);
+            }
+        }
+    }
+
+    // The UPDATE keeps the row locked until commit, so concurrent reservations queue on it.
+    // The INSERT fails with a duplicate key if another node has just created the row.
+    private Block reserveBlock(String name, String referencePrefix, Function<String, Long> highestIssued) {
+        if (jdbc.update("UPDATE reference_sequences SET last_reserved = last_reserved + ?, " +
+                "updated_at = CURRENT_TIMESTAMP WHERE name = ?", blockSize, name) == 1) {
+            long last = jdbc.queryForObject("SELECT last_reserved FROM reference_sequences WHERE name = ?",
+                    Long.class, name);
+            return new Block(last - blockSize + 1, last);
+        }
+
+        // Once per prefix and year; a JPA query, so it joins the caller's transaction if there is one
+        Long highest = highestIssued.apply(referencePrefix);
+        long start = highest != null ? highest : 0;
+        jdbc.update("INSERT INTO reference_sequences (name, last_reserved, updated_at) " +
+                "VALUES (?, ?, CURRENT_TIMESTAMP)", name, start + blockSize);
+        return new Block(start + 1, start + blockSize);
+    }
+
+    private static HikariDataSource newPool(DataSourceProperties properties, int poolSize) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("reference-sequences");
+        pool.setMaximumPoolSize(poolSize);
+        pool.setMinimumIdle(0);
+        return pool;
+    }
+
+    private static final class Counter {
+        volatile Block block;
+    }
+
+    private static final class Block {
+        final AtomicLong next;
+        final long last;
+
+        Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
@@ -1,70 +1,132 @@
 package edu.taylors.io.capstone.eservices.service;
 
+import edu.taylors.io.capstone.eservices.entity.RefreshToken;
 import edu.taylors.io.capstone.eservices.entity.User;
+import edu.taylors.io.capstone.eservices.repository.RefreshTokenRepository;
 import edu.taylors.io.capstone.eservices.repository.UserRepository;
 import edu.taylors.io.capstone.eservices.security.JwtUtil;
+import edu.taylors.io.capstone.eservices.security.UserCache;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.HexFormat;
 import java.util.Optional;
 
+/**
+ * Refresh tokens live in the refresh_tokens table, one row per session, so a user can be
+ * logged in on several devices. Each refresh token can be used once: refreshing deletes it
+ * and issues a new one (rotation).
+ */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenService {
 
+    private final RefreshTokenRepository refreshTokenRepository;
     private final UserRepository userRepository;
+    private final UserCache userCache;
     private final JwtUtil jwtUtil;
 
     @Transactional
     public String createRefreshToken(String studentId) {
-        User user = userRepository.findByStudentId(studentId)
+        User user = userCache.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Generate new refresh token
+        return createRefreshToken(user);
+    }
+
+    // Starts a new session (one INSERT); the user's other sessions stay valid
+    @Transactional
+    public String createRefreshToken(User user) {
         String refreshToken = jwtUtil.generateRefreshToken();
 
-        // Convert Date to LocalDateTime
         LocalDateTime expiryDate = LocalDateTime.ofInstant(
                 jwtUtil.getRefreshTokenExpiryDate().toInstant(),
                 ZoneId.systemDefault()
         );
 
-        // Save to database
-        user.setRefreshToken(refreshToken);
-        user.setRefreshTokenExpiryDate(expiryDate);
-        userRepository.save(user);
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(refreshToken))
+                .user(userRepository.getReferenceById(user.getId()))
+                .expiresAt(expiryDate)
+                .build());
 
         return refreshToken;
     }
 
-    public Optional<User> findByRefreshToken(String refreshToken) {
-        return userRepository.findByRefreshToken(refreshToken);
-    }
+    /**
+     * Exchange a refresh token for a new one. Empty if the token is unknown, expired,
+     * already used, or belongs to a disabled account.
+     */
+    @Transactional
+    public Optional<RotatedToken> rotate(String refreshToken) {
+        if (refreshToken == null) {
+            return Optional.empty();
+        }
 
-    public boolean validateRefreshToken(String refreshToken) {
-        Optional<User> userOpt = findByRefreshToken(refreshToken);
+        String tokenHash = hash(refreshToken);
+        Optional<RefreshToken> existing = refreshTokenRepository.findWithUserByTokenHash(tokenHash);
+        if (existing.isEmpty()) {
+            return Optional.empty();
+        }
 
-        if (userOpt.isEmpty()) {
-            return false;
+        // Deleting first makes the token single-use even under concurrent refreshes
+        if (refreshTokenRepository.deleteByTokenHash(tokenHash) == 0) {
+            return Optional.empty();
         }
 
-        User user = userOpt.get();
+        RefreshToken token = existing.get();
+        User user = token.getUser();
+        if (token.isExpired() || !user.isEnabled()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new RotatedToken(user, createRefreshToken(user)));
+    }
 
-        // Check if token is expired
-        return user.getRefreshTokenExpiryDate() != null
-                && user.getRefreshTokenExpiryDate().isAfter(LocalDateTime.now());
+    // Log out one session
+    @Transactional
+    public void deleteRefreshToken(String refreshToken) {
+        if (refreshToken != null) {
+            refreshTokenRepository.deleteByTokenHash(hash(refreshToken));
+        }
     }
 
+    // Log out every session, e.g. after a password change
     @Transactional
-    public void deleteRefreshToken(String studentId) {
-        User user = userRepository.findByStudentId(studentId)
+    public void deleteAllRefreshTokens(String studentId) {
+        User user = userCache.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        user.setRefreshToken(null);
-        user.setRefreshTokenExpiryDate(null);
-        userRepository.save(user);
+        refreshTokenRepository.deleteAllByUserId(user.getId());
+    }
+
+    @Scheduled(fixedDelayString = "${app.refresh-token.purge-interval:3600000}",
+            initialDelayString = "${app.refresh-token.purge-interval:3600000}")
+    public void purgeExpiredTokens() {
+        int purged = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(refreshToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public record RotatedToken(User user, String refreshToken) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,461 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.entity.AvailabilityRule;
+import edu.taylors.io.capstone.eservices.entity.TimeSlot;
+import edu.taylors.io.capstone.eservices.repository.AvailabilityRuleRepository;
+import edu.taylors.io.capstone.eservices.repository.TimeSlotRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory copy of availability_rules and time_slots so the available-slots endpoint never
+ * queries the database.
+ *
+ * Persisted slots are grouped per (location, date) into a start-time-ordered array; each slot
+ * keeps its booked count in an AtomicInteger. Rules are expanded on the fly for the date
+ * being asked about, skipping any start time that already has a persisted slot (booked or
+ * full). Bookings, cancellations, reschedules, new slots and new rules are written through
+ * after their transaction commits. {@link #verify()} compares the index against the tables on
+ * a schedule and repairs drift (e.g. a booking made by another node).
+ */
+@Slf4j
+@Component
+public class SlotAvailabilityIndex {
+
+    private static final Comparator<Slot> BY_DATE_AND_TIME =
+            Comparator.comparing(Slot::date).thenComparing(Slot::startTime).thenComparing(Slot::locationName);
+
+    private final TimeSlotRepository timeSlotRepository;
+    private final AvailabilityRuleRepository availabilityRuleRepository;
+
+    // How far ahead rules are expanded when no date is given (the unfiltered listing)
+    @Value("${app.slots.rules.horizon-days:60}")
+    private int horizonDays = 60;
+
+    private final Map<DayKey, Day> days = new ConcurrentHashMap<>();
+    private volatile Map<String, List<Rule>> rulesByLocation = Map.of();
+    private final Map<Long, Slot> slotsById = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> locationsByType = new ConcurrentHashMap<>();
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder repairs = new LongAdder();
+    private volatile boolean loaded;
+    private volatile LocalDateTime lastVerifiedAt;
+
+    public SlotAvailabilityIndex(TimeSlotRepository timeSlotRepository,
+                                 AvailabilityRuleRepository availabilityRuleRepository) {
+        this.timeSlotRepository = timeSlotRepository;
+        this.availabilityRuleRepository = availabilityRuleRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        List<TimeSlot> all = timeSlotRepository.findAllWithStaff();
+        Map<DayKey, List<Slot>> grouped = new HashMap<>();
+        for (TimeSlot timeSlot : all) {
+            Slot slot = Slot.of(timeSlot);
+            grouped.computeIfAbsent(new DayKey(slot.locationName(), slot.date()), key -> new ArrayList<>()).add(slot);
+        }
+
+        days.clear();
+        slotsById.clear();
+        locationsByType.clear();
+        grouped.forEach((key, slots) -> {
+            slots.forEach(this::register);
+            slots.sort(BY_DATE_AND_TIME);
+            days.put(key, new Day(slots.toArray(new Slot[0])));
+        });
+        loadRules();
+        loaded = true;
+        log.info("Slot availability index loaded {} slots over {} location-days and {} availability rules",
+                all.size(), days.size(), ruleCount());
+    }
+
+    public List<Slot> findAvailable(String locationName, LocalDate date) {
+        lookups.increment();
+        List<Slot> result = new ArrayList<>();
+        collectDay(locationName, date, result);
+        return result;
+    }
+
+    // Both dates inclusive
+    public List<Slot> findAvailableByType(String locationType, LocalDate startDate, LocalDate endDate) {
+        lookups.increment();
+        Set<String> locations = locationsByType.getOrDefault(locationType, Set.of());
+        List<Slot> result = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            for (String location : locations) {
+                collectDay(location, date, result);
+            }
+        }
+        result.sort(BY_DATE_AND_TIME);
+        return result;
+    }
+
+    // Every persisted slot with room, plus rule slots from today to the horizon
+    public List<Slot> findAllAvailable() {
+        lookups.increment();
+        List<Slot> result = new ArrayList<>();
+        for (Day day : days.values()) {
+            collectAvailable(day, result);
+        }
+        LocalDate today = LocalDate.now();
+        for (Map.Entry<String, List<Rule>> entry : rulesByLocation.entrySet()) {
+            for (LocalDate date = today; !date.isAfter(today.plusDays(horizonDays)); date = date.plusDays(1)) {
+                collectGenerated(entry.getValue(), days.get(new DayKey(entry.getKey(), date)), date, result);
+            }
+        }
+        result.sort(BY_DATE_AND_TIME);
+        return result;
+    }
+
+    /**
+     * The rule that offers this exact slot, if any; used to create the time_slots row on first booking.
+     */
+    public Optional<Rule> findRule(String locationName, LocalDate date, LocalTime startTime) {
+        for (Rule rule : rulesByLocation.getOrDefault(locationName, List.of())) {
+            if (rule.appliesOn(date) && Arrays.asList(rule.startTimes()).contains(startTime)) {
+                return Optional.of(rule);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Whether this slot already has a time_slots row, as far as this node has seen.
+     */
+    public boolean isPersisted(String locationName, LocalDate date, LocalTime startTime) {
+        Day day = days.get(new DayKey(locationName, date));
+        return day != null && day.hasStart(startTime);
+    }
+
+    // Write-through hooks: applied only once the caller's transaction commits
+
+    public void booked(Long slotId) {
+        afterCommit(() -> adjust(slotId, 1));
+    }
+
+    public void released(Long slotId) {
+        afterCommit(() -> adjust(slotId, -1));
+    }
+
+    public void added(List<TimeSlot> timeSlots) {
+        List<Slot> slots = timeSlots.stream().map(Slot::of).toList();
+        afterCommit(() -> slots.forEach(this::insert));
+    }
+
+    public void ruleChanged(AvailabilityRule availabilityRule) {
+        Rule rule = Rule.of(availabilityRule);
+        afterCommit(() -> putRule(rule));
+    }
+
+    /**
+     * Compare every slot with the table and fix the index where they differ. A mismatch is
+     * re-read once before it counts, so a booking committed mid-scan is not reported.
+     *
+     * @return number of slots repaired
+     */
+    @Scheduled(fixedDelayString = "${app.slots.index.verify-interval:600000}",
+            initialDelayString = "${app.slots.index.verify-interval:600000}")
+    public int verify() {
+        if (!loaded) {
+            return 0;
+        }
+        // Rules are few; reloading them is cheaper than diffing
+        loadRules();
+
+        List<Long> suspects = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (TimeSlot timeSlot : timeSlotRepository.findAllWithStaff()) {
+            seen.add(timeSlot.getId());
+            Slot slot = slotsById.get(timeSlot.getId());
+            if (slot == null || !slot.matches(timeSlot)) {
+                suspects.add(timeSlot.getId());
+            }
+        }
+
+        int repaired = 0;
+        for (Long id : suspects) {
+            TimeSlot current = timeSlotRepository.findById(id).orElse(null);
+            Slot slot = slotsById.get(id);
+            if (current == null || (slot != null && slot.matches(current))) {
+                continue;
+            }
+            if (slot == null) {
+                insert(Slot.of(current));
+            } else {
+                slot.booked.set(current.getBookedAppointments());
+            }
+            repaired++;
+        }
+        for (Long id : slotsById.keySet()) {
+            // Not in the scan: deleted, unless it was created after the scan started
+            if (!seen.contains(id) && !timeSlotRepository.existsById(id)) {
+                remove(id);
+                repaired++;
+            }
+        }
+
+        lastVerifiedAt = LocalDateTime.now();
+        if (repaired > 0) {
+            repairs.add(repaired);
+            log.warn("Slot availability index repaired {} slots that differed from time_slots", repaired);
+        }
+        return repaired;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("slots", slotsById.size());
+        stats.put("rules", ruleCount());
+        stats.put("locationDays", days.size());
+        stats.put("lookups", lookups.sum());
+        stats.put("repairs", repairs.sum());
+        stats.put("lastVerifiedAt", lastVerifiedAt);
+        return stats;
+    }
+
+    private void collectDay(String locationName, LocalDate date, List<Slot> result) {
+        Day day = days.get(new DayKey(locationName, date));
+        int persisted = result.size();
+        collectAvailable(day, result);
+        List<Rule> rules = rulesByLocation.get(locationName);
+        if (rules != null && collectGenerated(rules, day, date, result)) {
+            result.subList(persisted, result.size()).sort(BY_DATE_AND_TIME);
+        }
+    }
+
+    // Rule slots for the day that have no persisted row yet; a persisted row (even a full one) wins
+    private static boolean collectGenerated(List<Rule> rules, Day day, LocalDate date, List<Slot> result) {
+        boolean added = false;
+        Set<LocalTime> generated = null;
+        for (Rule rule : rules) {
+            if (!rule.appliesOn(date) || rule.capacity() <= 0) {
+                continue;
+            }
+            for (LocalTime start : rule.startTimes()) {
+                if (day != null && day.hasStart(start)) {
+                    continue;
+                }
+                if (generated == null) {
+                    generated = new HashSet<>();
+                }
+                if (generated.add(start)) {
+                    result.add(rule.slotAt(date, start));
+                    added = true;
+                }
+            }
+        }
+        return added;
+    }
+
+    private static void collectAvailable(Day day, List<Slot> result) {
+        if (day == null) {
+            return;
+        }
+        for (Slot slot : day.slots()) {
+            if (slot.hasAvailableSlots()) {
+                result.add(slot);
+            }
+        }
+    }
+
+    private void adjust(Long slotId, int delta) {
+        Slot slot = slotsById.get(slotId);
+        if (slot != null) {
+            // Same bounds as the conditional UPDATEs in TimeSlotRepository
+            slot.booked.updateAndGet(booked -> Math.max(0, Math.min(slot.maxAppointments(), booked + delta)));
+        }
+    }
+
+    private void loadRules() {
+        Map<String, List<Rule>> byLocation = new HashMap<>();
+        for (AvailabilityRule availabilityRule : availabilityRuleRepository.findAllWithDetails()) {
+            Rule rule = Rule.of(availabilityRule);
+            byLocation.computeIfAbsent(rule.locationName(), location -> new ArrayList<>()).add(rule);
+            registerLocation(rule.locationType(), rule.locationName());
+        }
+        byLocation.replaceAll((location, rules) -> List.copyOf(rules));
+        rulesByLocation = Map.copyOf(byLocation);
+    }
+
+    // Copy-on-write: readers always see a complete map
+    private synchronized void putRule(Rule rule) {
+        Map<String, List<Rule>> byLocation = new HashMap<>(rulesByLocation);
+        List<Rule> rules = new ArrayList<>(byLocation.getOrDefault(rule.locationName(), List.of()));
+        rules.removeIf(existing -> existing.id().equals(rule.id()));
+        rules.add(rule);
+        byLocation.put(rule.locationName(), List.copyOf(rules));
+        rulesByLocation = Map.copyOf(byLocation);
+        registerLocation(rule.locationType(), rule.locationName());
+    }
+
+    private int ruleCount() {
+        return rulesByLocation.values().stream().mapToInt(List::size).sum();
+    }
+
+    private void registerLocation(String locationType, String locationName) {
+        if (locationType != null) {
+            locationsByType.computeIfAbsent(locationType, type -> ConcurrentHashMap.newKeySet()).add(locationName);
+        }
+    }
+
+    private void register(Slot slot) {
+        slotsById.put(slot.id(), slot);
+        registerLocation(slot.locationType(), slot.locationName());
+    }
+
+    // New arrays are swapped in whole; the Slot objects (and their counters) are shared
+    private void insert(Slot slot) {
+        register(slot);
+        days.compute(new DayKey(slot.locationName(), slot.date()), (key, day) -> {
+            Slot[] slots = day == null ? new Slot[0] : day.slots();
+            Slot[] grown = Arrays.copyOf(slots, slots.length + 1);
+            grown[slots.length] = slot;
+            Arrays.sort(grown, BY_DATE_AND_TIME);
+            return new Day(grown);
+        });
+    }
+
+    private void remove(Long id) {
+        Slot slot = slotsById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        days.computeIfPresent(new DayKey(slot.locationName(), slot.date()), (key, day) -> {
+            Slot[] remaining = Arrays.stream(day.slots()).filter(s -> !s.id().equals(id)).toArray(Slot[]::new);
+            return remaining.length == 0 ? null : new Day(remaining);
+        });
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record DayKey(String locationName, LocalDate date) {
+    }
+
+    private record Day(Slot[] slots) {
+
+        boolean hasStart(LocalTime start) {
+            for (Slot slot : slots) {
+                if (slot.startTime().equals(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Snapshot of an AvailabilityRule with its start times precomputed.
+     */
+    public record Rule(Long id, String locationType, String locationName, String roomNumber,
+                       String appointmentType, Long staffId, String staffName, Set<DayOfWeek> daysOfWeek,
+                       LocalDate validFrom, LocalDate validUntil, LocalTime[] startTimes,
+                       int slotMinutes, int capacity, Set<LocalDate> excludedDates) {
+
+        static Rule of(AvailabilityRule rule) {
+            List<LocalTime> starts = new ArrayList<>();
+            for (LocalTime start = rule.getStartTime();
+                 !start.plusMinutes(rule.getSlotMinutes()).isAfter(rule.getEndTime())
+                         && !start.plusMinutes(rule.getSlotMinutes()).isBefore(start);
+                 start = start.plusMinutes(rule.getSlotMinutes())) {
+                starts.add(start);
+            }
+            return new Rule(rule.getId(), rule.getLocationType(), rule.getLocationName(), rule.getRoomNumber(),
+                    rule.getAppointmentType(),
+                    rule.getStaff() != null ? rule.getStaff().getId() : null,
+                    rule.getStaff() != null ? rule.getStaff().getFullName() : null,
+                    parseDays(rule.getDaysOfWeek()), rule.getValidFrom(), rule.getValidUntil(),
+                    starts.toArray(new LocalTime[0]), rule.getSlotMinutes(), rule.getCapacity(),
+                    Set.copyOf(rule.getExcludedDates()));
+        }
+
+        // "MON,TUE,FRI" -> {MONDAY, TUESDAY, FRIDAY}
+        public static Set<DayOfWeek> parseDays(String daysOfWeek) {
+            Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+            for (String day : daysOfWeek.split(",")) {
+                String code = day.trim().toUpperCase();
+                for (DayOfWeek candidate : DayOfWeek.values()) {
+                    if (candidate.name().startsWith(code) && code.length() >= 3) {
+                        days.add(candidate);
+                    }
+                }
+            }
+            return days;
+        }
+
+        public boolean appliesOn(LocalDate date) {
+            return !date.isBefore(validFrom) && !date.isAfter(validUntil)
+                    && daysOfWeek.contains(date.getDayOfWeek()) && !excludedDates.contains(date);
+        }
+
+        Slot slotAt(LocalDate date, LocalTime start) {
+            return new Slot(null, locationType, locationName, roomNumber, staffName, date, start,
+                    start.plusMinutes(slotMinutes), capacity, new AtomicInteger());
+        }
+    }
+
+    /**
+     * Snapshot of a slot's fixed fields plus its live booked count.
+     */
+    public record Slot(Long id, String locationType, String locationName, String roomNumber, String staffName,
+                       LocalDate date, LocalTime startTime, LocalTime endTime, int maxAppointments,
+                       AtomicInteger booked) {
+
+        static Slot of(TimeSlot timeSlot) {
+            return new Slot(timeSlot.getId(), timeSlot.getLocationType(), timeSlot.getLocationName(),
+                    timeSlot.getRoomNumber(), timeSlot.getStaff() != null ? timeSlot.getStaff().getFullName() : null,
+                    timeSlot.getDate(), timeSlot.getStartTime(), timeSlot.getEndTime(),
+                    timeSlot.getMaxAppointments(), new AtomicInteger(timeSlot.getBookedAppointments()));
+        }
+
+        public boolean hasAvailableSlots() {
+            return booked.get() < maxAppointments;
+        }
+
+        public int getAvailableSlots() {
+            return maxAppointments - booked.get();
+        }
+
+        boolean matches(TimeSlot timeSlot) {
+            return booked.get() == timeSlot.getBookedAppointments()
+                    && maxAppointments == timeSlot.getMaxAppointments();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.entity.TimeSlot;
+import edu.taylors.io.capstone.eservices.repository.TimeSlotRepository;
+import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Creates the time_slots row for a rule-generated slot the first time someone books it.
+ *
+ * Called before the booking transaction opens, so the insert commits on the one connection
+ * the request holds and the booking then reads the row like any other. Two students racing
+ * for the same new slot both end up booking the one row: the loser of the insert gets a
+ * DataIntegrityViolationException from the unique (location, date, start) key and books the
+ * winner's. A booking that fails afterwards leaves the row behind as an ordinary free slot.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlotMaterializer {
+
+    private final TimeSlotRepository timeSlotRepository;
+    private final UserRepository userRepository;
+    private final SlotAvailabilityIndex slotIndex;
+
+    @Transactional
+    public TimeSlot materialize(SlotAvailabilityIndex.Rule rule, LocalDate date, LocalTime startTime) {
+        TimeSlot slot = TimeSlot.builder()
+                .locationType(rule.locationType())
+                .locationName(rule.locationName())
+                .roomNumber(rule.roomNumber())
+                .appointmentType(rule.appointmentType())
+                .staff(rule.staffId() != null ? userRepository.findById(rule.staffId()).orElse(null) : null)
+                .date(date)
+                .startTime(startTime)
+                .endTime(startTime.plusMinutes(rule.slotMinutes()))
+                .maxAppointments(rule.capacity())
+                .bookedAppointments(0)
+                .isAvailable(true)
+                .build();
+
+        slot = timeSlotRepository.saveAndFlush(slot);
+        slotIndex.added(List.of(slot));
+        log.debug("Materialized slot {} at {} {} {} from rule {}", slot.getId(), rule.locationName(), date, startTime, rule.id());
+        return slot;
+    }
+}
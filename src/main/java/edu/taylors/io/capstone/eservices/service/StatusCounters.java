@@ -0,0 +1,205 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.repository.AppointmentRepository;
+import edu.taylors.io.capstone.eservices.repository.MedicalExaminationRepository;
+import edu.taylors.io.capstone.eservices.repository.VisaApplicationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Row counts per status (and per type, for appointments) of appointments, visa applications
+ * and medical examinations, so the staff statistics dashboards never query the database.
+ *
+ * Services report every create and status change; counters move once the transaction
+ * commits. {@link #reconcile()} recounts each table with one GROUP BY on a schedule and
+ * overwrites the counters, which repairs changes made by another node or outside the services.
+ */
+@Slf4j
+@Component
+public class StatusCounters {
+
+    public enum Kind { APPOINTMENT, VISA, MEDICAL }
+
+    private final AppointmentRepository appointmentRepository;
+    private final VisaApplicationRepository visaRepository;
+    private final MedicalExaminationRepository medicalRepository;
+
+    private final Map<Kind, Counts> counts = new EnumMap<>(Kind.class);
+
+    private final LongAdder reconciliations = new LongAdder();
+    private final LongAdder corrections = new LongAdder();
+    private volatile LocalDateTime lastReconciledAt;
+
+    public StatusCounters(AppointmentRepository appointmentRepository,
+                          VisaApplicationRepository visaRepository,
+                          MedicalExaminationRepository medicalRepository) {
+        this.appointmentRepository = appointmentRepository;
+        this.visaRepository = visaRepository;
+        this.medicalRepository = medicalRepository;
+        for (Kind kind : Kind.values()) {
+            counts.put(kind, new Counts());
+        }
+    }
+
+    @PostConstruct
+    public void load() {
+        reconcile();
+    }
+
+    /**
+     * @param type appointment type, or null for kinds without one
+     */
+    public void created(Kind kind, String status, String type) {
+        afterCommit(() -> {
+            Counts kindCounts = counts.get(kind);
+            kindCounts.add(status, type, 1);
+            kindCounts.total.increment();
+        });
+    }
+
+    public void statusChanged(Kind kind, String oldStatus, String newStatus) {
+        if (oldStatus != null && oldStatus.equals(newStatus)) {
+            return;
+        }
+        afterCommit(() -> {
+            Counts kindCounts = counts.get(kind);
+            kindCounts.add(oldStatus, null, -1);
+            kindCounts.add(newStatus, null, 1);
+        });
+    }
+
+    public Counts get(Kind kind) {
+        return counts.get(kind);
+    }
+
+    /**
+     * Recount every table and overwrite the counters; returns how many counters were wrong.
+     */
+    @Scheduled(fixedDelayString = "${app.statistics.reconcile-interval:300000}",
+            initialDelayString = "${app.statistics.reconcile-interval:300000}")
+    public int reconcile() {
+        int corrected = counts.get(Kind.APPOINTMENT).replace(appointmentRepository.countGroupedByStatusAndType())
+                + counts.get(Kind.VISA).replace(visaRepository.countGroupedByStatus())
+                + counts.get(Kind.MEDICAL).replace(medicalRepository.countGroupedByStatus());
+
+        reconciliations.increment();
+        corrections.add(corrected);
+        lastReconciledAt = LocalDateTime.now();
+        if (corrected > 0 && reconciliations.sum() > 1) {
+            log.info("Status counters reconciled, {} counters corrected", corrected);
+        }
+        return corrected;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Kind kind : Kind.values()) {
+            stats.put(kind.name().toLowerCase(), counts.get(kind).total());
+        }
+        stats.put("reconciliations", reconciliations.sum());
+        stats.put("corrections", corrections.sum());
+        stats.put("lastReconciledAt", lastReconciledAt);
+        return stats;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Counters for one table; reads are a map lookup and a LongAdder sum.
+     */
+    public static final class Counts {
+
+        private final LongAdder total = new LongAdder();
+        private final Map<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> byType = new ConcurrentHashMap<>();
+
+        public long total() {
+            return total.sum();
+        }
+
+        public long status(String status) {
+            LongAdder count = byStatus.get(status);
+            return count == null ? 0 : count.sum();
+        }
+
+        public long type(String type) {
+            LongAdder count = byType.get(type);
+            return count == null ? 0 : count.sum();
+        }
+
+        void add(String status, String type, long delta) {
+            if (status != null) {
+                byStatus.computeIfAbsent(status, key -> new LongAdder()).add(delta);
+            }
+            if (type != null) {
+                byType.computeIfAbsent(type, key -> new LongAdder()).add(delta);
+            }
+        }
+
+        // Rows are [status, count] or [status, type, count]
+        synchronized int replace(List<Object[]> rows) {
+            Map<String, Long> statuses = new HashMap<>();
+            Map<String, Long> types = new HashMap<>();
+            long rowTotal = 0;
+            for (Object[] row : rows) {
+                long count = ((Number) row[row.length - 1]).longValue();
+                statuses.merge(String.valueOf(row[0]), count, Long::sum);
+                if (row.length > 2 && row[1] != null) {
+                    types.merge(String.valueOf(row[1]), count, Long::sum);
+                }
+                rowTotal += count;
+            }
+
+            int corrected = overwrite(byStatus, statuses) + overwrite(byType, types);
+            long drift = rowTotal - total.sum();
+            if (drift != 0) {
+                total.add(drift);
+                corrected++;
+            }
+            return corrected;
+        }
+
+        private static int overwrite(Map<String, LongAdder> counters, Map<String, Long> actual) {
+            int corrected = 0;
+            for (Map.Entry<String, LongAdder> counter : counters.entrySet()) {
+                if (!actual.containsKey(counter.getKey()) && counter.getValue().sum() != 0) {
+                    counter.getValue().reset();
+                    corrected++;
+                }
+            }
+            for (Map.Entry<String, Long> entry : actual.entrySet()) {
+                LongAdder counter = counters.computeIfAbsent(entry.getKey(), key -> new LongAdder());
+                long drift = entry.getValue() - counter.sum();
+                if (drift != 0) {
+                    counter.add(drift);
+                    corrected++;
+                }
+            }
+            return corrected;
+        }
+    }
+}
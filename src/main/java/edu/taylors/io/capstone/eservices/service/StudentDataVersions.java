@@ -0,0 +1,123 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A version per student, moved by every write to that student's appointments, visa application
+ * or medical examination. The student dashboard endpoints turn it into a strong ETag and answer
+ * a matching If-None-Match with 304 before loading anything.
+ *
+ * The version is the users.data_version column, incremented in the same transaction as the write,
+ * so every node and every restart agrees on it. Reads go through a small cache; a write evicts
+ * locally, and other nodes see it once their entry expires (app.student-versions.ttl).
+ */
+@Component
+public class StudentDataVersions {
+
+    private final UserRepository userRepository;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder changes = new LongAdder();
+
+    @Value("${app.student-versions.max-size:10000}")
+    private int maxSize;
+
+    @Value("${app.student-versions.ttl:2000}")
+    private long ttlMillis;
+
+    public StudentDataVersions(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Move the student's version with the surrounding transaction, and drop the cached one now
+     * and again when it completes, so a reader that loaded the pre-commit version cannot keep it.
+     */
+    public void changed(String studentId) {
+        if (studentId == null) {
+            return;
+        }
+        userRepository.incrementDataVersion(studentId);
+        entries.remove(studentId);
+        changes.increment();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    entries.remove(studentId);
+                }
+            });
+        }
+    }
+
+    // Read before loading the response, so the tag is never newer than the body it goes with
+    public String etag(String studentId) {
+        return "\"" + version(studentId) + "\"";
+    }
+
+    // For responses that also depend on something else, e.g. today's date for upcoming appointments
+    public String etag(String studentId, Object qualifier) {
+        return "\"" + version(studentId) + "-" + qualifier + "\"";
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("changes", changes.sum());
+        return stats;
+    }
+
+    private long version(String studentId) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(studentId);
+        if (entry != null && entry.expiresAtMillis() > now) {
+            hits.increment();
+            return entry.version();
+        }
+
+        misses.increment();
+        long version = userRepository.findDataVersionByStudentId(studentId).orElse(0L);
+        put(studentId, version, now);
+        return version;
+    }
+
+    private void put(String studentId, long version, long now) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            makeRoom(now);
+        }
+        entries.put(studentId, new Entry(version, now + ttlMillis));
+    }
+
+    // Expired entries go first; if the cache is still full, drop arbitrary ones
+    private void makeRoom(long now) {
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() >= maxSize && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record Entry(long version, long expiresAtMillis) {
+    }
+}
@@ -10,15 +10,16 @@ import com.warrenstrange.googleauth.GoogleAuthenticatorQRGenerator;
 import edu.taylors.io.capstone.eservices.entity.TwoFactorMethod;
 import edu.taylors.io.capstone.eservices.entity.User;
 import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import edu.taylors.io.capstone.eservices.security.OtpStore;
+import edu.taylors.io.capstone.eservices.security.UserCache;
+import edu.taylors.io.capstone.eservices.security.UserUnitOfWork;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.ByteArrayOutputStream;
-import java.time.LocalDateTime;
 import java.util.Base64;
-import java.util.Random;
 
 @Service
 @RequiredArgsConstructor
@@ -26,60 +27,68 @@ public class TwoFactorAuthService {
 
     private final UserRepository userRepository;
     private final EmailService emailService;
+    private final UserCache userCache;
+    private final OtpStore otpStore;
     private final GoogleAuthenticator googleAuthenticator = new GoogleAuthenticator();
 
     @Value("${app.name}")
     private String appName;
 
-    @Value("${app.2fa.otp.expiration}")
-    private Long otpExpiration;
-
     // ==========================================
     // EMAIL OTP Methods
     // ==========================================
 
-    @Transactional
     public void sendEmailOtp(String studentId) {
-        User user = userRepository.findByStudentId(studentId)
+        User user = userCache.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        // Generate 6-digit OTP
-        String otp = generateNumericOtp(6);
-
-        // Save OTP to database
-        user.setEmailOtp(otp);
-        user.setEmailOtpExpiryDate(LocalDateTime.now().plusSeconds(otpExpiration / 1000));
-        user.setEmailOtpVerified(false);
-        userRepository.save(user);
+        // Generate 6-digit OTP (only its hash is kept)
+        String otp = otpStore.issue(studentId);
 
         // Send email
         emailService.sendOtpEmail(user.getEmail(), otp, user.getStudentId());
     }
 
-    public boolean verifyEmailOtp(String studentId, String otp) {
-        User user = userRepository.findByStudentId(studentId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    // Login-flow variant: the OTP no longer touches the users row, mail it once the request's changes are stored
+    public void sendEmailOtp(UserUnitOfWork unitOfWork) {
+        String otp = otpStore.issue(unitOfWork.getStudentId());
 
-        // Check if OTP exists and not expired
-        if (user.getEmailOtp() == null || user.getEmailOtpExpiryDate() == null) {
-            return false;
-        }
+        User user = unitOfWork.getUser();
+        unitOfWork.afterFlush(() -> emailService.sendOtpEmail(user.getEmail(), otp, user.getStudentId()));
+    }
 
-        if (LocalDateTime.now().isAfter(user.getEmailOtpExpiryDate())) {
-            return false; // OTP expired
-        }
+    public boolean verifyEmailOtp(String studentId, String otp) {
+        return otpStore.verify(studentId, otp);
+    }
 
-        return user.getEmailOtp().equals(otp);
+    public boolean verifyEmailOtp(User user, String otp) {
+        return otpStore.verify(user.getStudentId(), otp);
     }
 
     @Transactional
     public void markEmailOtpAsVerified(String studentId) {
-        User user = userRepository.findByStudentId(studentId)
+        otpStore.invalidate(studentId); // OTP is single use
+
+        User cached = userCache.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        if (cached.isEmailOtpVerified()) {
+            return;
+        }
 
+        User user = userRepository.findByStudentId(studentId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
         user.setEmailOtpVerified(true);
-        user.setEmailOtp(null); // Clear OTP after verification
         userRepository.save(user);
+        userCache.evict(studentId);
+    }
+
+    public void markEmailOtpAsVerified(UserUnitOfWork unitOfWork) {
+        otpStore.invalidate(unitOfWork.getStudentId()); // OTP is single use
+
+        // Email ownership only needs recording once, not on every login
+        if (!unitOfWork.getUser().isEmailOtpVerified()) {
+            unitOfWork.set("emailOtpVerified", true);
+        }
     }
 
     // ==========================================
@@ -98,6 +107,7 @@ public class TwoFactorAuthService {
         // Save secret to database
         user.setTwoFactorSecret(secret);
         userRepository.save(user);
+        userCache.evict(studentId);
 
         return secret;
     }
@@ -133,7 +143,7 @@ public class TwoFactorAuthService {
     }
 
     public boolean verifyGoogleAuthCode(String studentId, int code) {
-        User user = userRepository.findByStudentId(studentId)
+        User user = userCache.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         if (user.getTwoFactorSecret() == null) {
@@ -155,6 +165,7 @@ public class TwoFactorAuthService {
         user.setTwoFactorEnabled(true);
         user.setTwoFactorMethod(method);
         userRepository.save(user);
+        userCache.evict(studentId);
 
         // Send confirmation email
         emailService.send2FASetupEmail(user.getEmail(), user.getStudentId(), method.toString());
@@ -168,33 +179,20 @@ public class TwoFactorAuthService {
         user.setTwoFactorEnabled(false);
         user.setTwoFactorMethod(TwoFactorMethod.NONE);
         user.setTwoFactorSecret(null);
-        user.setEmailOtp(null);
-        user.setEmailOtpExpiryDate(null);
         userRepository.save(user);
+        userCache.evict(studentId);
+        otpStore.invalidate(studentId);
     }
 
     public boolean is2FAEnabled(String studentId) {
-        User user = userRepository.findByStudentId(studentId)
+        User user = userCache.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return user.isTwoFactorEnabled();
     }
 
     public TwoFactorMethod get2FAMethod(String studentId) {
-        User user = userRepository.findByStudentId(studentId)
+        User user = userCache.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         return user.getTwoFactorMethod();
     }
-
-    // ==========================================
-    // Helper Methods
-    // ==========================================
-
-    private String generateNumericOtp(int length) {
-        Random random = new Random();
-        StringBuilder otp = new StringBuilder();
-        for (int i = 0; i < length; i++) {
-            otp.append(random.nextInt(10));
-        }
-        return otp.toString();
-    }
-}
\ No newline at end of file
+}
@@ -1,123 +1,142 @@
 package edu.taylors.io.capstone.eservices.service;
 
+import edu.taylors.io.capstone.eservices.dto.VisaApplicationPage;
+import edu.taylors.io.capstone.eservices.dto.VisaApplicationResult;
+import edu.taylors.io.capstone.eservices.dto.VisaApplicationView;
+import edu.taylors.io.capstone.eservices.dto.VisaHistory;
+import edu.taylors.io.capstone.eservices.dto.VisaStatistics;
+import edu.taylors.io.capstone.eservices.dto.VisaTimeline;
 import edu.taylors.io.capstone.eservices.entity.MedicalExamination;
 import edu.taylors.io.capstone.eservices.entity.User;
 import edu.taylors.io.capstone.eservices.entity.VisaApplication;
+import edu.taylors.io.capstone.eservices.entity.VisaEvent;
+import edu.taylors.io.capstone.eservices.entity.VisaStatus;
+import edu.taylors.io.capstone.eservices.repository.KeysetCursor;
 import edu.taylors.io.capstone.eservices.repository.MedicalExaminationRepository;
 import edu.taylors.io.capstone.eservices.repository.UserRepository;
 import edu.taylors.io.capstone.eservices.repository.VisaApplicationRepository;
+import edu.taylors.io.capstone.eservices.repository.VisaEventRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class VisaApplicationService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
+    // States staff set through updateEmgsStatus; the others have their own endpoints
+    private static final Set<VisaStatus> STAFF_STATUSES = EnumSet.of(
+            VisaStatus.EMGS_APPROVED, VisaStatus.VAL_ISSUED, VisaStatus.IMMIGRATION_SUBMITTED,
+            VisaStatus.IMMIGRATION_APPROVED, VisaStatus.PASS_COLLECTED, VisaStatus.REJECTED);
+
     private final VisaApplicationRepository visaRepository;
+    private final VisaEventRepository eventRepository;
     private final UserRepository userRepository;
     private final MedicalExaminationRepository medicalRepository;
     private final MedicalExaminationService medicalService;
     private final EmailService emailService;
+    private final ReferenceNumberAllocator referenceNumbers;
+    private final StatusCounters statusCounters;
+    private final StudentDataVersions dataVersions;
 
     /**
-     * Get or create visa application for student
+     * Get visa application for student. Read-only: a student without one gets a "Not Started"
+     * view that is not stored; the row is provisioned by the first write that needs it.
      */
-    @Transactional
-    public Map<String, Object> getVisaApplication(String studentId) {
+    @Transactional(readOnly = true)
+    public VisaApplicationView getVisaApplication(String studentId) {
+        Optional<VisaApplicationView> existing = visaRepository.findViewByStudentId(studentId);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
         User student = userRepository.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
-
-        VisaApplication visa = visaRepository.findByStudent(student)
-                .orElseGet(() -> createNewVisaApplication(student));
-
-        return convertToMap(visa);
+        return VisaApplicationView.notStarted(student);
     }
 
     /**
      * Create new visa application with program details
      */
     @Transactional
-    public Map<String, Object> createVisaApplication(String studentId, Map<String, Object> request) {
+    public VisaApplicationResult createVisaApplication(String studentId, Map<String, Object> request) {
         User student = userRepository.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
 
-        // Check if already exists
-        if (visaRepository.findByStudent(student).isPresent()) {
+        // A provisioned row that was never started (e.g. created by a read before reads stopped
+        // creating them) is filled in; anything further along already exists
+        VisaApplication visa = visaRepository.findByStudent(student).orElse(null);
+        if (visa != null && (visa.getApplicationDate() != null
+                || !VisaStatus.PENDING.name().equals(visa.getStatus()))) {
             throw new RuntimeException("Visa application already exists");
         }
+        if (visa == null) {
+            visa = provision(student);
+        }
 
-        VisaApplication visa = VisaApplication.builder()
-                .student(student)
-                .applicationNumber(generateApplicationNumber())
-                .visaType((String) request.getOrDefault("visaType", "STUDENT_PASS"))
-                .passportNumber((String) request.get("passportNumber"))
-                .passportExpiry(parseDate((String) request.get("passportExpiry")))
-                .nationality((String) request.get("nationality"))
-                .programName((String) request.get("programName"))
-                .faculty((String) request.get("faculty"))
-                .programStartDate(parseDate((String) request.get("programStartDate")))
-                .status("PENDING")
-                .currentStage("Application Created")
-                .applicationDate(LocalDateTime.now())
-                .build();
+        visa.setVisaType((String) request.getOrDefault("visaType", "STUDENT_PASS"));
+        visa.setPassportNumber((String) request.get("passportNumber"));
+        visa.setPassportExpiry(parseDate((String) request.get("passportExpiry")));
+        visa.setNationality((String) request.get("nationality"));
+        visa.setProgramName((String) request.get("programName"));
+        visa.setFaculty((String) request.get("faculty"));
+        visa.setProgramStartDate(parseDate((String) request.get("programStartDate")));
+        visa.setCurrentStage(VisaStatus.PENDING.getStage());
+        visa.setApplicationDate(LocalDateTime.now());
+        visa.advance(VisaStatus.PENDING);
 
-        visa.updateProgress();
         visa = visaRepository.save(visa);
+        dataVersions.changed(studentId);
+        appendEvent(visa, VisaStatus.PENDING, visa.getApplicationDate(), visa.getApplicationNumber(), studentId, null);
 
-        // Also create medical examination if doesn't exist
-        medicalService.getMedicalExamination(studentId);
+        // Also provision the medical examination if it doesn't exist
+        medicalService.provision(student);
 
         log.info("Created visa application {} for {}", visa.getApplicationNumber(), studentId);
 
         sendApplicationCreatedEmail(student, visa);
 
-        return Map.of(
-                "message", "Visa application created successfully",
-                "application", convertToMap(visa)
-        );
+        return new VisaApplicationResult("Visa application created successfully", VisaApplicationView.of(visa));
     }
 
     /**
      * Submit documents
      */
     @Transactional
-    public Map<String, Object> submitDocuments(String studentId) {
+    public VisaApplicationResult submitDocuments(String studentId) {
         User student = userRepository.findByStudentId(studentId)
                 .orElseThrow(() -> new RuntimeException("Student not found"));
 
         VisaApplication visa = visaRepository.findByStudent(student)
-                .orElseThrow(() -> new RuntimeException("Visa application not found"));
-
-        visa.setDocumentsSubmittedDate(LocalDateTime.now());
-        visa.setStatus("DOCUMENTS_SUBMITTED");
-        visa.setCurrentStage("Documents Submitted - Pending Review");
-        visa.updateProgress();
+                .orElseGet(() -> provision(student));
 
+        transition(visa, VisaStatus.DOCUMENTS_SUBMITTED, null, studentId, null);
         visaRepository.save(visa);
 
         sendDocumentsSubmittedEmail(student, visa);
 
-        return Map.of(
-                "message", "Documents submitted successfully",
-                "application", convertToMap(visa)
-        );
+        return new VisaApplicationResult("Documents submitted successfully", VisaApplicationView.of(visa));
     }
 
     /**
      * Submit to EMGS (Staff only)
      */
     @Transactional
-    public Map<String, Object> submitToEmgs(Long id, String staffId) {
-        VisaApplication visa = visaRepository.findById(id)
+    public VisaApplicationResult submitToEmgs(Long id, String staffId) {
+        VisaApplication visa = visaRepository.findWithStudentById(id)
                 .orElseThrow(() -> new RuntimeException("Visa application not found"));
 
         // Check if ready
@@ -125,382 +144,302 @@ public class VisaApplicationService {
             throw new RuntimeException("Cannot submit to EMGS: Documents or medical not complete");
         }
 
-        visa.setEmgsSubmissionDate(LocalDateTime.now());
-        visa.setEmgsReference("EMGS-VISA-" + System.currentTimeMillis());
-        visa.setStatus("EMGS_PROCESSING");
-        visa.setCurrentStage("EMGS Processing - 0%");
         visa.setLastUpdatedBy(staffId);
-        visa.updateProgress();
-
+        transition(visa, VisaStatus.EMGS_PROCESSING, "EMGS-VISA-" + System.currentTimeMillis(), staffId, null);
         visaRepository.save(visa);
 
         sendEmgsSubmissionEmail(visa.getStudent(), visa);
 
-        return Map.of(
-                "message", "Successfully submitted to EMGS",
-                "emgsReference", visa.getEmgsReference(),
-                "application", convertToMap(visa)
-        );
+        return new VisaApplicationResult("Successfully submitted to EMGS", visa.getEmgsReference(),
+                VisaApplicationView.of(visa));
     }
 
     /**
      * Update EMGS status (Staff only)
      */
     @Transactional
-    public Map<String, Object> updateEmgsStatus(Long id, String newStatus, String notes, String staffId) {
-        VisaApplication visa = visaRepository.findById(id)
+    public VisaApplicationResult updateEmgsStatus(Long id, String newStatus, String notes, String staffId) {
+        VisaApplication visa = visaRepository.findWithStudentById(id)
                 .orElseThrow(() -> new RuntimeException("Visa application not found"));
 
+        VisaStatus next = VisaStatus.from(newStatus);
+        if (!STAFF_STATUSES.contains(next)) {
+            throw new RuntimeException("Status " + newStatus + " cannot be set directly");
+        }
+
         String oldStatus = visa.getStatus();
-        visa.setStatus(newStatus);
         visa.setProcessingNotes(notes);
         visa.setLastUpdatedBy(staffId);
-
-        // Update specific dates based on status
-        switch (newStatus) {
-            case "EMGS_APPROVED":
-                visa.setEmgsApprovalDate(LocalDateTime.now());
-                visa.setCurrentStage("EMGS Approved - 32%");
-                break;
-            case "VAL_ISSUED":
-                visa.setValIssuedDate(LocalDateTime.now());
-                visa.setValExpiryDate(LocalDateTime.now().plusMonths(6));  // VAL valid 6 months
-                visa.setValNumber("VAL-" + System.currentTimeMillis());
-                visa.setCurrentStage("VAL Issued - 70%");
-                break;
-            case "IMMIGRATION_SUBMITTED":
-                visa.setImmigrationSubmissionDate(LocalDateTime.now());
-                visa.setCurrentStage("Immigration Processing");
-                break;
-            case "IMMIGRATION_APPROVED":
-                visa.setImmigrationApprovalDate(LocalDateTime.now());
-                visa.setCurrentStage("Student Pass Approved - Ready for Collection");
-                break;
-            case "PASS_COLLECTED":
-                visa.setPassCollectedDate(LocalDateTime.now());
-                visa.setCurrentStage("Student Pass Collected - Complete");
-                break;
-            case "REJECTED":
-                visa.setCurrentStage("Application Rejected");
-                break;
-        }
-
-        visa.updateProgress();
+        transition(visa, next, next == VisaStatus.VAL_ISSUED ? "VAL-" + System.currentTimeMillis() : null,
+                staffId, notes);
         visaRepository.save(visa);
 
         sendStatusUpdateEmail(visa.getStudent(), visa, oldStatus, newStatus);
 
-        return Map.of(
-                "message", "Status updated successfully",
-                "application", convertToMap(visa)
-        );
+        return new VisaApplicationResult("Status updated successfully", VisaApplicationView.of(visa));
     }
 
     /**
      * Get visa timeline (Student)
      */
-    public Map<String, Object> getVisaTimeline(String studentId) {
-        User student = userRepository.findByStudentId(studentId)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
-
-        VisaApplication visa = visaRepository.findByStudent(student)
-                .orElseThrow(() -> new RuntimeException("Visa application not found"));
+    public VisaTimeline getVisaTimeline(String studentId) {
+        VisaApplication visa = visaRepository.findByStudentStudentId(studentId).orElse(null);
+        if (visa == null) {
+            // Not started (see getVisaApplication): nothing has happened yet
+            return new VisaTimeline(null, VisaStatus.PENDING.name(), "Not Started", 0, List.of());
+        }
 
-        List<Map<String, Object>> timeline = buildTimeline(visa);
+        List<VisaEvent> events = eventRepository.findByVisaApplicationIdOrderByIdAsc(visa.getId());
+        if (events.isEmpty()) {
+            events = legacyEvents(visa);
+        }
 
-        return Map.of(
-                "applicationNumber", visa.getApplicationNumber(),
-                "currentStatus", visa.getStatus(),
-                "currentStage", visa.getCurrentStage(),
-                "progressPercentage", visa.getProgressPercentage(),
-                "timeline", timeline
+        return new VisaTimeline(
+                visa.getApplicationNumber(),
+                visa.getStatus(),
+                visa.getCurrentStage(),
+                visa.getProgressPercentage(),
+                buildTimeline(visa, events)
         );
     }
 
     /**
-     * Get all visa applications (Staff)
+     * Get every status transition of an application (Staff audit)
      */
-    public List<Map<String, Object>> getAllVisaApplications(String status) {
-        List<VisaApplication> applications;
+    public VisaHistory getVisaHistory(Long id) {
+        if (!visaRepository.existsById(id)) {
+            throw new RuntimeException("Visa application not found");
+        }
+
+        return new VisaHistory(id, eventRepository.findByVisaApplicationIdOrderByIdAsc(id).stream()
+                .map(VisaHistory.Event::of)
+                .toList());
+    }
 
-        if (status != null && !status.isEmpty()) {
-            applications = visaRepository.findByStatus(status);
-        } else {
-            applications = visaRepository.findAll();
+    /**
+     * Get all visa applications (Staff)
+     */
+    public VisaApplicationPage getAllVisaApplications(String status, String visaType, String nationality,
+                                                      LocalDate fromDate, LocalDate toDate,
+                                                      String cursor, String sort, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        boolean descending = !"asc".equalsIgnoreCase(sort);
+
+        // One row more than the page tells whether there is a next page, without a COUNT
+        List<VisaApplicationView> rows = visaRepository.findStaffPage(emptyToNull(status), emptyToNull(visaType),
+                emptyToNull(nationality), fromDate, toDate, emptyToNull(cursor), descending, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<VisaApplicationView> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            VisaApplicationView last = page.get(page.size() - 1);
+            nextCursor = KeysetCursor.encode(last.createdAt(), last.id());
         }
 
-        return applications.stream()
-                .map(this::convertToMap)
-                .toList();
+        return new VisaApplicationPage(page, page.size(), hasMore, nextCursor);
     }
 
     /**
      * Get visa statistics (Staff)
      */
-    public Map<String, Object> getVisaStatistics() {
-        long total = visaRepository.count();
-        long pending = visaRepository.countByStatus("PENDING");
-        long documentsSubmitted = visaRepository.countByStatus("DOCUMENTS_SUBMITTED");
-        long emgsProcessing = visaRepository.countByStatus("EMGS_PROCESSING");
-        long emgsApproved = visaRepository.countByStatus("EMGS_APPROVED");
-        long valIssued = visaRepository.countByStatus("VAL_ISSUED");
-        long immigrationProcessing = visaRepository.countByStatus("IMMIGRATION_SUBMITTED");
-        long approved = visaRepository.countByStatus("IMMIGRATION_APPROVED");
-        long collected = visaRepository.countByStatus("PASS_COLLECTED");
-        long rejected = visaRepository.countByStatus("REJECTED");
-
-        return Map.of(
-                "totalApplications", total,
-                "pending", pending,
-                "documentsSubmitted", documentsSubmitted,
-                "emgsProcessing", emgsProcessing,
-                "emgsApproved", emgsApproved,
-                "valIssued", valIssued,
-                "immigrationProcessing", immigrationProcessing,
-                "approved", approved,
-                "collected", collected,
-                "rejected", rejected
+    public VisaStatistics getVisaStatistics() {
+        StatusCounters.Counts counts = statusCounters.get(StatusCounters.Kind.VISA);
+
+        return new VisaStatistics(
+                counts.total(),
+                counts.status("PENDING"),
+                counts.status("DOCUMENTS_SUBMITTED"),
+                counts.status("EMGS_PROCESSING"),
+                counts.status("EMGS_APPROVED"),
+                counts.status("VAL_ISSUED"),
+                counts.status("IMMIGRATION_SUBMITTED"),
+                counts.status("IMMIGRATION_APPROVED"),
+                counts.status("PASS_COLLECTED"),
+                counts.status("REJECTED")
         );
     }
 
     // Helper methods
 
-    private VisaApplication createNewVisaApplication(User student) {
+    // Lazy provisioning: the row is created by the first write that needs it, never by a read
+    private VisaApplication provision(User student) {
         VisaApplication visa = VisaApplication.builder()
                 .student(student)
                 .applicationNumber(generateApplicationNumber())
-                .status("PENDING")
+                .status(VisaStatus.PENDING.name())
                 .currentStage("Not Started")
                 .progressPercentage(0)
                 .build();
 
-        return visaRepository.save(visa);
-    }
-
-    private String generateApplicationNumber() {
-        int year = LocalDateTime.now().getYear();
-        long count = visaRepository.count() + 1;
-        return String.format("VA-%d-%05d", year, count);
+        visa = visaRepository.save(visa);
+        statusCounters.created(StatusCounters.Kind.VISA, visa.getStatus(), null);
+        dataVersions.changed(student.getStudentId());
+        return visa;
     }
 
-    private LocalDateTime parseDate(String dateStr) {
-        if (dateStr == null || dateStr.isEmpty()) {
-            return null;
+    /**
+     * The only way an application changes state: validates the transition, stamps the matching
+     * date column, advances progress by the new state's weight and appends the event.
+     */
+    private void transition(VisaApplication visa, VisaStatus next, String reference, String actor, String note) {
+        VisaStatus current = VisaStatus.from(visa.getStatus());
+        if (!current.canMoveTo(next)) {
+            throw new RuntimeException("Cannot move visa application from " + current + " to " + next);
         }
-        return LocalDateTime.parse(dateStr);
-    }
-
-    private List<Map<String, Object>> buildTimeline(VisaApplication visa) {
-        List<Map<String, Object>> timeline = new java.util.ArrayList<>();
-
-        if (visa.getApplicationDate() != null) {
-            timeline.add(createTimelineEvent(
-                    "Application Created",
-                    visa.getApplicationDate(),
-                    "completed",
-                    "Application " + visa.getApplicationNumber() + " created"
-            ));
+        // The check above read the status; claim it in one statement so two racing requests cannot
+        // both pass it. The loser throws and its transaction, event included, rolls back.
+        if (visaRepository.updateStatusIf(visa.getId(), visa.getStatus(), next.name()) == 0) {
+            throw new RuntimeException("Visa application was changed by another request, please reload");
         }
 
-        if (visa.getDocumentsSubmittedDate() != null) {
-            timeline.add(createTimelineEvent(
-                    "Documents Submitted",
-                    visa.getDocumentsSubmittedDate(),
-                    "completed",
-                    "All required documents submitted"
-            ));
+        LocalDateTime now = LocalDateTime.now();
+        switch (next) {
+            case DOCUMENTS_SUBMITTED -> visa.setDocumentsSubmittedDate(now);
+            case EMGS_PROCESSING -> {
+                visa.setEmgsSubmissionDate(now);
+                visa.setEmgsReference(reference);
+            }
+            case EMGS_APPROVED -> visa.setEmgsApprovalDate(now);
+            case VAL_ISSUED -> {
+                visa.setValIssuedDate(now);
+                visa.setValExpiryDate(now.plusMonths(6));  // VAL valid 6 months
+                visa.setValNumber(reference);
+            }
+            case IMMIGRATION_SUBMITTED -> visa.setImmigrationSubmissionDate(now);
+            case IMMIGRATION_APPROVED -> visa.setImmigrationApprovalDate(now);
+            case PASS_COLLECTED -> visa.setPassCollectedDate(now);
+            case REJECTED -> visa.setRejectionReason(note);
+            default -> {
+            }
         }
 
-        // Medical check
-        if (visa.getMedicalExamination() != null) {
-            MedicalExamination medical = visa.getMedicalExamination();
-            String medicalStatus = medical.getStatus().equals("PASSED") ? "completed" : "in_progress";
-            timeline.add(createTimelineEvent(
-                    "Medical Examination",
-                    medical.getResultDate(),
-                    medicalStatus,
-                    "Medical status: " + medical.getStatus()
-            ));
-        }
+        changeStatus(visa, next.name());
+        visa.setCurrentStage(next.getStage());
+        visa.advance(next);
+        appendEvent(visa, next, now, reference, actor, note);
+        dataVersions.changed(visa.getStudent().getStudentId());
+    }
 
-        if (visa.getEmgsSubmissionDate() != null) {
-            timeline.add(createTimelineEvent(
-                    "EMGS Submission",
-                    visa.getEmgsSubmissionDate(),
-                    "completed",
-                    "Reference: " + visa.getEmgsReference()
-            ));
-        }
+    private void appendEvent(VisaApplication visa, VisaStatus status, LocalDateTime occurredAt,
+                             String reference, String actor, String note) {
+        eventRepository.save(VisaEvent.builder()
+                .visaApplicationId(visa.getId())
+                .status(status)
+                .occurredAt(occurredAt)
+                .reference(reference)
+                .actor(actor)
+                .note(note)
+                .build());
+    }
 
-        if (visa.getEmgsApprovalDate() != null) {
-            timeline.add(createTimelineEvent(
-                    "EMGS Approved (32%)",
-                    visa.getEmgsApprovalDate(),
-                    "completed",
-                    "EMGS approval received"
-            ));
-        }
+    private void changeStatus(VisaApplication visa, String newStatus) {
+        statusCounters.statusChanged(StatusCounters.Kind.VISA, visa.getStatus(), newStatus);
+        visa.setStatus(newStatus);
+    }
 
-        if (visa.getValIssuedDate() != null) {
-            timeline.add(createTimelineEvent(
-                    "VAL Issued (70%)",
-                    visa.getValIssuedDate(),
-                    "completed",
-                    "VAL Number: " + visa.getValNumber()
-            ));
-        }
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
 
-        if (visa.getImmigrationSubmissionDate() != null) {
-            timeline.add(createTimelineEvent(
-                    "Immigration Submission",
-                    visa.getImmigrationSubmissionDate(),
-                    "completed",
-                    "Submitted to Immigration Department"
-            ));
-        }
+    private String generateApplicationNumber() {
+        return referenceNumbers.next("VA", visaRepository::findHighestNumber);
+    }
 
-        if (visa.getImmigrationApprovalDate() != null) {
-            timeline.add(createTimelineEvent(
-                    "Immigration Approved",
-                    visa.getImmigrationApprovalDate(),
-                    "completed",
-                    "Student Pass approved"
-            ));
+    private LocalDateTime parseDate(String dateStr) {
+        if (dateStr == null || dateStr.isEmpty()) {
+            return null;
         }
+        return LocalDateTime.parse(dateStr);
+    }
 
-        if (visa.getPassCollectedDate() != null) {
-            timeline.add(createTimelineEvent(
-                    "Pass Collected",
-                    visa.getPassCollectedDate(),
+    private List<VisaTimeline.Event> buildTimeline(VisaApplication visa, List<VisaEvent> events) {
+        List<VisaTimeline.Event> timeline = new ArrayList<>(events.size() + 1);
+        MedicalExamination medical = visa.getMedicalExamination();
+        boolean medicalShown = medical == null;
+
+        for (VisaEvent event : events) {
+            // The medical examination has its own lifecycle; it shows after document submission
+            if (!medicalShown && event.getStatus().compareTo(VisaStatus.DOCUMENTS_SUBMITTED) > 0) {
+                timeline.add(medicalEvent(medical));
+                medicalShown = true;
+            }
+            timeline.add(new VisaTimeline.Event(
+                    event.getStatus().getTitle(),
+                    event.getOccurredAt(),
                     "completed",
-                    "Student Pass collected - Process complete"
+                    event.getStatus().describe(event)
             ));
         }
+        if (!medicalShown) {
+            timeline.add(medicalEvent(medical));
+        }
 
         return timeline;
     }
 
-    private Map<String, Object> createTimelineEvent(String title, LocalDateTime date, String status, String description) {
-        Map<String, Object> event = new HashMap<>();
-        event.put("title", title);
-        event.put("date", date);
-        event.put("status", status);
-        event.put("description", description);
-        return event;
+    private static VisaTimeline.Event medicalEvent(MedicalExamination medical) {
+        return new VisaTimeline.Event(
+                "Medical Examination",
+                medical.getResultDate(),
+                "PASSED".equals(medical.getStatus()) ? "completed" : "in_progress",
+                "Medical status: " + medical.getStatus()
+        );
     }
 
-    private Map<String, Object> convertToMap(VisaApplication visa) {
-        Map<String, Object> map = new HashMap<>();
-        map.put("id", visa.getId());
-        map.put("applicationNumber", visa.getApplicationNumber());
-        map.put("studentId", visa.getStudent().getStudentId());
-        map.put("studentName", visa.getStudent().getFullName());
-        map.put("status", visa.getStatus());
-        map.put("currentStage", visa.getCurrentStage());
-        map.put("progressPercentage", visa.getProgressPercentage());
-        map.put("visaType", visa.getVisaType());
-        map.put("applicationDate", visa.getApplicationDate());
-        map.put("documentsSubmittedDate", visa.getDocumentsSubmittedDate());
-        map.put("emgsSubmissionDate", visa.getEmgsSubmissionDate());
-        map.put("emgsReference", visa.getEmgsReference());
-        map.put("emgsApprovalDate", visa.getEmgsApprovalDate());
-        map.put("valIssuedDate", visa.getValIssuedDate());
-        map.put("valNumber", visa.getValNumber());
-        map.put("valExpiryDate", visa.getValExpiryDate());
-        map.put("passportNumber", visa.getPassportNumber());
-        map.put("nationality", visa.getNationality());
-        map.put("programName", visa.getProgramName());
-        map.put("faculty", visa.getFaculty());
-        map.put("medicalComplete", visa.isMedicalComplete());
-        map.put("readyForEmgs", visa.isReadyForEmgsSubmission());
-        map.put("createdAt", visa.getCreatedAt());
-        map.put("updatedAt", visa.getUpdatedAt());
-        return map;
+    // Applications from before visa_events: the same events read off the date columns (not stored)
+    private static List<VisaEvent> legacyEvents(VisaApplication visa) {
+        List<VisaEvent> events = new ArrayList<>();
+        addLegacyEvent(events, VisaStatus.PENDING, visa.getApplicationDate(), visa.getApplicationNumber());
+        addLegacyEvent(events, VisaStatus.DOCUMENTS_SUBMITTED, visa.getDocumentsSubmittedDate(), null);
+        addLegacyEvent(events, VisaStatus.EMGS_PROCESSING, visa.getEmgsSubmissionDate(), visa.getEmgsReference());
+        addLegacyEvent(events, VisaStatus.EMGS_APPROVED, visa.getEmgsApprovalDate(), null);
+        addLegacyEvent(events, VisaStatus.VAL_ISSUED, visa.getValIssuedDate(), visa.getValNumber());
+        addLegacyEvent(events, VisaStatus.IMMIGRATION_SUBMITTED, visa.getImmigrationSubmissionDate(), null);
+        addLegacyEvent(events, VisaStatus.IMMIGRATION_APPROVED, visa.getImmigrationApprovalDate(), null);
+        addLegacyEvent(events, VisaStatus.PASS_COLLECTED, visa.getPassCollectedDate(), null);
+        return events;
+    }
+
+    private static void addLegacyEvent(List<VisaEvent> events, VisaStatus status, LocalDateTime occurredAt,
+                                       String reference) {
+        if (occurredAt != null) {
+            events.add(VisaEvent.builder().status(status).occurredAt(occurredAt).reference(reference).build());
+        }
     }
 
     // Email notifications
 
     private void sendApplicationCreatedEmail(User student, VisaApplication visa) {
-        String subject = "Visa Application Created - Taylor's E-Services";
-        String message = String.format(
-                "Dear %s,\n\n" +
-                        "Your visa application has been created successfully.\n\n" +
-                        "Application Number: %s\n" +
-                        "Visa Type: %s\n" +
-                        "Program: %s\n\n" +
-                        "Next Steps:\n" +
-                        "1. Complete medical examination\n" +
-                        "2. Submit required documents\n" +
-                        "3. Wait for staff review\n\n" +
-                        "You can track your application status in the E-Services portal.\n\n" +
-                        "Best regards,\n" +
-                        "Taylor's International Office",
-                student.getFullName(),
-                visa.getApplicationNumber(),
-                visa.getVisaType(),
-                visa.getProgramName()
-        );
-        emailService.sendEmail(student.getEmail(), subject, message);
+        emailService.sendNotification(student.getEmail(), "visa-created",
+                "fullName", student.getFullName(),
+                "applicationNumber", visa.getApplicationNumber(),
+                "visaType", visa.getVisaType(),
+                "programName", visa.getProgramName());
     }
 
     private void sendDocumentsSubmittedEmail(User student, VisaApplication visa) {
-        String subject = "Documents Submitted Successfully";
-        String message = String.format(
-                "Dear %s,\n\n" +
-                        "Your documents have been submitted successfully.\n\n" +
-                        "Application Number: %s\n" +
-                        "Submission Date: %s\n\n" +
-                        "Your application is now under review by the International Office staff.\n" +
-                        "You will be notified once the review is complete.\n\n" +
-                        "Best regards,\n" +
-                        "Taylor's International Office",
-                student.getFullName(),
-                visa.getApplicationNumber(),
-                visa.getDocumentsSubmittedDate().format(DateTimeFormatter.ofPattern("dd MMM yyyy"))
-        );
-        emailService.sendEmail(student.getEmail(), subject, message);
+        emailService.sendNotification(student.getEmail(), "visa-documents-submitted",
+                "fullName", student.getFullName(),
+                "applicationNumber", visa.getApplicationNumber(),
+                "submittedDate", visa.getDocumentsSubmittedDate());
     }
 
     private void sendEmgsSubmissionEmail(User student, VisaApplication visa) {
-        String subject = "Application Submitted to EMGS";
-        String message = String.format(
-                "Dear %s,\n\n" +
-                        "Your visa application has been submitted to EMGS.\n\n" +
-                        "Application Number: %s\n" +
-                        "EMGS Reference: %s\n" +
-                        "Submission Date: %s\n\n" +
-                        "EMGS processing typically takes 10-14 working days.\n" +
-                        "You will be notified once EMGS approval is received.\n\n" +
-                        "Best regards,\n" +
-                        "Taylor's International Office",
-                student.getFullName(),
-                visa.getApplicationNumber(),
-                visa.getEmgsReference(),
-                visa.getEmgsSubmissionDate().format(DateTimeFormatter.ofPattern("dd MMM yyyy"))
-        );
-        emailService.sendEmail(student.getEmail(), subject, message);
+        emailService.sendNotification(student.getEmail(), "visa-emgs-submitted",
+                "fullName", student.getFullName(),
+                "applicationNumber", visa.getApplicationNumber(),
+                "emgsReference", visa.getEmgsReference(),
+                "submissionDate", visa.getEmgsSubmissionDate());
     }
 
     private void sendStatusUpdateEmail(User student, VisaApplication visa, String oldStatus, String newStatus) {
-        String subject = "Visa Application Status Update";
-        String message = String.format(
-                "Dear %s,\n\n" +
-                        "Your visa application status has been updated.\n\n" +
-                        "Application Number: %s\n" +
-                        "Previous Status: %s\n" +
-                        "Current Status: %s\n" +
-                        "Current Stage: %s\n" +
-                        "Progress: %d%%\n\n" +
-                        "You can view full details in the E-Services portal.\n\n" +
-                        "Best regards,\n" +
-                        "Taylor's International Office",
-                student.getFullName(),
-                visa.getApplicationNumber(),
-                oldStatus,
-                newStatus,
-                visa.getCurrentStage(),
-                visa.getProgressPercentage()
-        );
-        emailService.sendEmail(student.getEmail(), subject, message);
+        emailService.sendNotification(student.getEmail(), "visa-status-updated",
+                "fullName", student.getFullName(),
+                "applicationNumber", visa.getApplicationNumber(),
+                "oldStatus", oldStatus,
+                "newStatus", newStatus,
+                "currentStage", visa.getCurrentStage(),
+                "progressPercentage", visa.getProgressPercentage());
     }
 }
@@ -0,0 +1,171 @@
+package edu.taylors.io.capstone.eservices.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GET /api/visa/my-application per second from 8 threads (in-memory H2, plain JDBC), for a
+ * returning student and for a first-time one: the old read that provisioned the row in a
+ * write transaction, versus the read-only "Not Started" response.
+ *
+ * The provisioning insert is rolled back so the same students stay first-time; on a real
+ * database the commit (a log flush) makes the old path slower still.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=edu.taylors.io.capstone.eservices.benchmark.FirstVisitReadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class FirstVisitReadBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:first_visit;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    // Students 1..STUDENTS have an application, STUDENTS+1..2*STUDENTS have never visited
+    private static final int STUDENTS = 1000;
+
+    private static final String VIEW =
+            "SELECT v.id, v.application_number, s.student_id, s.first_name, s.last_name, v.status, " +
+                    "v.current_stage, v.progress_percentage FROM visa_applications v " +
+                    "JOIN users s ON s.id = v.user_id WHERE s.student_id = ?";
+
+    private final AtomicLong applicationNumbers = new AtomicLong();
+
+    private Connection setupConnection;
+
+    @Setup
+    public void setUp() throws SQLException {
+        setupConnection = DriverManager.getConnection(URL, "sa", "");
+        try (Statement statement = setupConnection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS visa_applications");
+            statement.execute("DROP TABLE IF EXISTS users");
+            statement.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, student_id VARCHAR(20) UNIQUE, " +
+                    "first_name VARCHAR(50), last_name VARCHAR(50))");
+            statement.execute("CREATE TABLE visa_applications (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                    "user_id BIGINT NOT NULL, application_number VARCHAR(20) UNIQUE, status VARCHAR(30), " +
+                    "current_stage VARCHAR(100), progress_percentage INT, created_at TIMESTAMP)");
+            statement.execute("CREATE INDEX idx_visa_applications_user ON visa_applications (user_id)");
+            statement.execute("INSERT INTO users SELECT x, 'TP' || x, 'First', 'Last' " +
+                    "FROM SYSTEM_RANGE(1, " + 2 * STUDENTS + ")");
+            statement.execute("INSERT INTO visa_applications (user_id, application_number, status, current_stage, " +
+                    "progress_percentage, created_at) SELECT x, 'VA-2026-' || x, 'PENDING', 'Application Created', " +
+                    "5, CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + STUDENTS + ")");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        setupConnection.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        Connection connection;
+        PreparedStatement view;
+        PreparedStatement student;
+        PreparedStatement provision;
+
+        @Setup
+        public void open() throws SQLException {
+            connection = DriverManager.getConnection(URL, "sa", "");
+            view = connection.prepareStatement(VIEW);
+            student = connection.prepareStatement(
+                    "SELECT id, first_name, last_name FROM users WHERE student_id = ?");
+            provision = connection.prepareStatement("INSERT INTO visa_applications (user_id, application_number, " +
+                    "status, current_stage, progress_percentage, created_at) " +
+                    "VALUES (?, ?, 'PENDING', 'Not Started', 0, CURRENT_TIMESTAMP)");
+        }
+
+        @TearDown
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public String returningStudent(Session session) throws SQLException {
+        return readView(session, "TP" + ThreadLocalRandom.current().nextInt(1, STUDENTS + 1));
+    }
+
+    @Benchmark
+    public String firstVisitProvisioning(Session session) throws SQLException {
+        String studentId = firstTimeStudent();
+        Connection connection = session.connection;
+        connection.setAutoCommit(false);
+        try {
+            String found = readView(session, studentId);
+            if (found != null) {
+                connection.commit();
+                return found;
+            }
+            long userId = readStudent(session, studentId);
+            session.provision.setLong(1, userId);
+            session.provision.setString(2, "VA-NEW-" + applicationNumbers.incrementAndGet());
+            session.provision.executeUpdate();
+            connection.rollback();
+            return studentId;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    @Benchmark
+    public String firstVisitNotStarted(Session session) throws SQLException {
+        String studentId = firstTimeStudent();
+        Connection connection = session.connection;
+        connection.setReadOnly(true);
+        try {
+            String found = readView(session, studentId);
+            if (found != null) {
+                return found;
+            }
+            readStudent(session, studentId);
+            return studentId;
+        } finally {
+            connection.setReadOnly(false);
+        }
+    }
+
+    private static String firstTimeStudent() {
+        return "TP" + ThreadLocalRandom.current().nextInt(STUDENTS + 1, 2 * STUDENTS + 1);
+    }
+
+    private static String readView(Session session, String studentId) throws SQLException {
+        session.view.setString(1, studentId);
+        try (ResultSet row = session.view.executeQuery()) {
+            return row.next() ? row.getString(2) : null;
+        }
+    }
+
+    private static long readStudent(Session session, String studentId) throws SQLException {
+        session.student.setString(1, studentId);
+        try (ResultSet row = session.student.executeQuery()) {
+            row.next();
+            return row.getLong(1);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FirstVisitReadBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,99 @@
+package edu.taylors.io.capstone.eservices.benchmark;
+
+import edu.taylors.io.capstone.eservices.entity.User;
+import edu.taylors.io.capstone.eservices.security.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT cost in JwtAuthenticationFilter.
+ * legacyTripleParse reproduces the old path (key rebuilt and token parsed three times),
+ * singleParse / cachedClaims are the current JwtUtil.validateAndGetClaims path.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=edu.taylors.io.capstone.eservices.benchmark.JwtAuthBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+    private JwtUtil cachedJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedJwtUtil = newJwtUtil(10_000);
+        uncachedJwtUtil = newJwtUtil(0);
+
+        User user = User.builder()
+                .studentId("TP012345")
+                .email("TestSTU1@gmail.com")
+                .password("x")
+                .role("ROLE_STUDENT")
+                .enabled(true)
+                .build();
+        token = cachedJwtUtil.generateAccessToken(user);
+    }
+
+    @Benchmark
+    public boolean legacyTripleParse() {
+        // extractUsername in the filter, then extractUsername + extractExpiration in validateToken
+        String username = legacyParse(token).getSubject();
+        String again = legacyParse(token).getSubject();
+        Date expiration = legacyParse(token).getExpiration();
+        return username.equals(again) && !expiration.before(new Date());
+    }
+
+    @Benchmark
+    public Claims singleParse() {
+        return uncachedJwtUtil.validateAndGetClaims(token).orElseThrow();
+    }
+
+    @Benchmark
+    public Claims cachedClaims() {
+        return cachedJwtUtil.validateAndGetClaims(token).orElseThrow();
+    }
+
+    private static Claims legacyParse(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private static JwtUtil newJwtUtil(int cacheSize) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "accessTokenExpiration", 900000L);
+        ReflectionTestUtils.setField(jwtUtil, "refreshTokenExpiration", 604800000L);
+        ReflectionTestUtils.setField(jwtUtil, "claimsCacheMaxSize", cacheSize);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtAuthBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,104 @@
+package edu.taylors.io.capstone.eservices.benchmark;
+
+import edu.taylors.io.capstone.eservices.service.NotificationTemplate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering the appointment confirmation email: the old String.format body with
+ * DateTimeFormatter.ofPattern per send, versus the compiled template. Add
+ * -prof gc to compare bytes allocated per email as well as time.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=edu.taylors.io.capstone.eservices.benchmark.NotificationTemplateBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NotificationTemplateBenchmark {
+
+    private final String fullName = "Aisha Rahman";
+    private final String appointmentNumber = "APT-2026-00042";
+    private final String appointmentType = "VISA_CONSULTATION";
+    private final String locationName = "International Office";
+    private final String roomNumber = "B-2-14";
+    private final LocalDate date = LocalDate.of(2026, 3, 9);
+    private final LocalTime time = LocalTime.of(14, 30);
+    private final Integer durationMinutes = 30;
+    private final String purpose = "Visa renewal";
+    private final String reminderLeadTime = "24 hours";
+
+    private NotificationTemplate template;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/templates/email/appointment-booked.txt")) {
+            template = NotificationTemplate.compile("appointment-booked",
+                    new String(in.readAllBytes(), StandardCharsets.UTF_8), Map.of());
+        }
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd MMM yyyy");
+        DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("hh:mm a");
+
+        String subject = "Appointment Booked - " + appointmentType;
+        String message = String.format(
+                "Dear %s,\n\n" +
+                        "Your appointment has been booked successfully.\n\n" +
+                        "Appointment Details:\n" +
+                        "Number: %s\n" +
+                        "Type: %s\n" +
+                        "Location: %s\n" +
+                        "Room: %s\n" +
+                        "Date: %s\n" +
+                        "Time: %s\n" +
+                        "Duration: %d minutes\n\n" +
+                        "Purpose: %s\n\n" +
+                        "Please confirm your appointment by clicking the link in your student portal.\n" +
+                        "You will receive a reminder %s before your appointment.\n\n" +
+                        "Best regards,\n" +
+                        "Taylor's University",
+                fullName, appointmentNumber, appointmentType, locationName, roomNumber,
+                date.format(dateFormatter), time.format(timeFormatter), durationMinutes, purpose, reminderLeadTime);
+        return subject + message;
+    }
+
+    @Benchmark
+    public NotificationTemplate.RenderedEmail compiledTemplate() {
+        return template.render(
+                "fullName", fullName,
+                "appointmentNumber", appointmentNumber,
+                "appointmentType", appointmentType,
+                "locationName", locationName,
+                "roomNumber", roomNumber,
+                "appointmentDate", date,
+                "appointmentTime", time,
+                "durationMinutes", durationMinutes,
+                "purpose", purpose,
+                "reminderLeadTime", reminderLeadTime);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(NotificationTemplateBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
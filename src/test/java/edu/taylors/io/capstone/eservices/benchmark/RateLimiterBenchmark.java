@@ -0,0 +1,77 @@
+package edu.taylors.io.capstone.eservices.benchmark;
+
+import edu.taylors.io.capstone.eservices.security.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request overhead of RateLimiter.tryAcquire, which must stay well under a microsecond.
+ * allowed / rejected hammer a single key from 4 threads (worst-case CAS contention),
+ * manyKeys spreads requests over 10k accounts the way a login storm would.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=edu.taylors.io.capstone.eservices.benchmark.RateLimiterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class RateLimiterBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    private RateLimiter unlimited;
+    private RateLimiter exhausted;
+    private String[] keys;
+
+    @Setup
+    public void setUp() {
+        // Refills faster than the benchmark can drain it, so every call is allowed
+        unlimited = new RateLimiter("unlimited", Integer.MAX_VALUE / 2, 1, KEYS * 2, 1000, 512);
+        // One token per hour, taken immediately, so every call is rejected
+        exhausted = new RateLimiter("exhausted", 1, TimeUnit.HOURS.toMillis(1), KEYS * 2, 1000, 512);
+        exhausted.tryAcquire("TP012345", System.currentTimeMillis());
+
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "TP" + (100000 + i);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    public long allowed() {
+        return unlimited.tryAcquire("TP012345", System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public long rejected() {
+        return exhausted.tryAcquire("TP012345", System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public long manyKeys(Cursor cursor) {
+        String key = keys[cursor.next];
+        cursor.next = (cursor.next + 1) % KEYS;
+        return unlimited.tryAcquire(key, System.currentTimeMillis());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RateLimiterBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,147 @@
+package edu.taylors.io.capstone.eservices.benchmark;
+
+import edu.taylors.io.capstone.eservices.entity.AvailabilityRule;
+import edu.taylors.io.capstone.eservices.entity.TimeSlot;
+import edu.taylors.io.capstone.eservices.repository.AvailabilityRuleRepository;
+import edu.taylors.io.capstone.eservices.repository.TimeSlotRepository;
+import edu.taylors.io.capstone.eservices.service.SlotAvailabilityIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The same weekday 09:00-17:00 half-hour schedule for 10 locations, published either as one
+ * time_slots row per slot (the old create-slots) or as one availability rule per location.
+ * Setup prints how many rows each needs; the benchmarks compare location + date lookups,
+ * where the rule side expands the day's slots on every call.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=edu.taylors.io.capstone.eservices.benchmark.RecurringAvailabilityBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class RecurringAvailabilityBenchmark {
+
+    private static final int LOCATIONS = 10;
+    private static final LocalTime OPEN = LocalTime.of(9, 0);
+    private static final LocalTime CLOSE = LocalTime.of(17, 0);
+
+    // How far ahead the schedule is published
+    @Param({"30", "180", "365"})
+    private int days;
+
+    private final LocalDate today = LocalDate.now();
+    private SlotAvailabilityIndex materialized;
+    private SlotAvailabilityIndex ruleBased;
+
+    @Setup
+    public void setUp() {
+        List<TimeSlot> slots = new ArrayList<>();
+        List<AvailabilityRule> rules = new ArrayList<>();
+        long id = 1;
+        for (int location = 0; location < LOCATIONS; location++) {
+            String type = location % 2 == 0 ? "MEDICAL_CLINIC" : "INTERNATIONAL_OFFICE";
+            rules.add(AvailabilityRule.builder()
+                    .id((long) location + 1)
+                    .locationType(type)
+                    .locationName("Location " + location)
+                    .daysOfWeek("MON,TUE,WED,THU,FRI")
+                    .validFrom(today)
+                    .validUntil(today.plusDays(days))
+                    .startTime(OPEN)
+                    .endTime(CLOSE)
+                    .slotMinutes(30)
+                    .capacity(1)
+                    .excludedDates(Set.of())
+                    .build());
+
+            for (int day = 0; day <= days; day++) {
+                LocalDate date = today.plusDays(day);
+                if (date.getDayOfWeek().getValue() > 5) {
+                    continue;
+                }
+                for (LocalTime time = OPEN; time.isBefore(CLOSE); time = time.plusMinutes(30)) {
+                    slots.add(TimeSlot.builder()
+                            .id(id++)
+                            .locationType(type)
+                            .locationName("Location " + location)
+                            .date(date)
+                            .startTime(time)
+                            .endTime(time.plusMinutes(30))
+                            .maxAppointments(1)
+                            .bookedAppointments(0)
+                            .isAvailable(true)
+                            .build());
+                }
+            }
+        }
+        System.out.printf("%n%d days ahead: %d time_slots rows vs %d availability_rules rows%n",
+                days, slots.size(), rules.size());
+
+        materialized = new SlotAvailabilityIndex(timeSlots(slots), rules(List.of()));
+        materialized.load();
+        ruleBased = new SlotAvailabilityIndex(timeSlots(List.of()), rules(rules));
+        ruleBased.load();
+    }
+
+    @Benchmark
+    public List<SlotAvailabilityIndex.Slot> materializedByLocation() {
+        return lookup(materialized);
+    }
+
+    @Benchmark
+    public List<SlotAvailabilityIndex.Slot> rulesByLocation() {
+        return lookup(ruleBased);
+    }
+
+    private List<SlotAvailabilityIndex.Slot> lookup(SlotAvailabilityIndex index) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return index.findAvailable("Location " + random.nextInt(LOCATIONS), today.plusDays(random.nextInt(days)));
+    }
+
+    // Only the bulk loads are needed to fill the index
+    private static TimeSlotRepository timeSlots(List<TimeSlot> slots) {
+        return (TimeSlotRepository) Proxy.newProxyInstance(
+                TimeSlotRepository.class.getClassLoader(), new Class<?>[]{TimeSlotRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAllWithStaff")) {
+                        return slots;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static AvailabilityRuleRepository rules(List<AvailabilityRule> rules) {
+        return (AvailabilityRuleRepository) Proxy.newProxyInstance(
+                AvailabilityRuleRepository.class.getClassLoader(), new Class<?>[]{AvailabilityRuleRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAllWithDetails")) {
+                        return rules;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RecurringAvailabilityBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,125 @@
+package edu.taylors.io.capstone.eservices.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import edu.taylors.io.capstone.eservices.dto.AppointmentPage;
+import edu.taylors.io.capstone.eservices.dto.AppointmentView;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing one page of the staff appointment list (50 rows) the way the message converter
+ * does, straight to an output stream: the old HashMap-per-row response, versus the
+ * AppointmentPage record with and without Blackbird. Add -prof gc for bytes allocated per
+ * response.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=edu.taylors.io.capstone.eservices.benchmark.ResponseSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final ObjectMapper blackbirdMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .registerModule(new BlackbirdModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(32 * 1024);
+
+    private List<AppointmentView> rows;
+
+    @Setup
+    public void setUp() {
+        rows = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            rows.add(new AppointmentView((long) i + 1, "APT-2026-" + String.format("%05d", i + 1),
+                    "TP0" + (12000 + i), "Student " + i,
+                    i % 2 == 0 ? "MEDICAL" : "OFFICE_CONSULTATION", "International Office",
+                    "Level 2, Block B", "B-2-14",
+                    LocalDate.of(2026, 3, 9).plusDays(i % 10), LocalTime.of(9 + i % 8, i % 2 * 30), 30,
+                    "PENDING", "Visa renewal", i % 3 == 0, i % 4 == 0 ? null : "Staff Member",
+                    LocalDateTime.of(2026, 3, 1, 10, 15)));
+        }
+    }
+
+    @Benchmark
+    public int mapResponse() throws IOException {
+        // What getAllAppointments returned before: a HashMap per row plus one for the page
+        List<Map<String, Object>> appointments = new ArrayList<>();
+        for (AppointmentView appointment : rows) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("id", appointment.id());
+            map.put("appointmentNumber", appointment.appointmentNumber());
+            map.put("studentId", appointment.studentId());
+            map.put("studentName", appointment.studentName());
+            map.put("appointmentType", appointment.appointmentType());
+            map.put("locationName", appointment.locationName());
+            map.put("locationAddress", appointment.locationAddress());
+            map.put("roomNumber", appointment.roomNumber());
+            map.put("appointmentDate", appointment.appointmentDate());
+            map.put("appointmentTime", appointment.appointmentTime());
+            map.put("durationMinutes", appointment.durationMinutes());
+            map.put("status", appointment.status());
+            map.put("purpose", appointment.purpose());
+            map.put("confirmedByStudent", appointment.confirmedByStudent());
+            map.put("assignedStaff", appointment.assignedStaff());
+            map.put("createdAt", appointment.createdAt());
+            appointments.add(map);
+        }
+        Map<String, Object> page = new HashMap<>();
+        page.put("appointments", appointments);
+        page.put("count", appointments.size());
+        page.put("hasMore", true);
+        page.put("nextCursor", "asc:2026-03-18:50");
+        return write(mapper, page);
+    }
+
+    @Benchmark
+    public int recordResponse() throws IOException {
+        return write(mapper, new AppointmentPage(rows, rows.size(), true, "asc:2026-03-18:50"));
+    }
+
+    @Benchmark
+    public int recordResponseBlackbird() throws IOException {
+        return write(blackbirdMapper, new AppointmentPage(rows, rows.size(), true, "asc:2026-03-18:50"));
+    }
+
+    private int write(ObjectMapper objectMapper, Object response) throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, response);
+        return out.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ResponseSerializationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,106 @@
+package edu.taylors.io.capstone.eservices.benchmark;
+
+import edu.taylors.io.capstone.eservices.entity.TimeSlot;
+import edu.taylors.io.capstone.eservices.repository.AvailabilityRuleRepository;
+import edu.taylors.io.capstone.eservices.repository.TimeSlotRepository;
+import edu.taylors.io.capstone.eservices.service.SlotAvailabilityIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups per second against SlotAvailabilityIndex holding 90 days of 30-minute slots
+ * (09:00-17:00) for 10 locations, about 14k slots. byLocation is the portal's usual
+ * location + date query; byType scans one week of every location of a type.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=edu.taylors.io.capstone.eservices.benchmark.SlotAvailabilityIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class SlotAvailabilityIndexBenchmark {
+
+    private static final int DAYS = 90;
+    private static final int LOCATIONS = 10;
+
+    private final LocalDate today = LocalDate.now();
+    private SlotAvailabilityIndex index;
+
+    @Setup
+    public void setUp() {
+        List<TimeSlot> slots = new ArrayList<>();
+        long id = 1;
+        for (int location = 0; location < LOCATIONS; location++) {
+            for (int day = 0; day < DAYS; day++) {
+                for (LocalTime time = LocalTime.of(9, 0); time.isBefore(LocalTime.of(17, 0)); time = time.plusMinutes(30)) {
+                    slots.add(TimeSlot.builder()
+                            .id(id++)
+                            .locationType(location % 2 == 0 ? "MEDICAL_CLINIC" : "INTERNATIONAL_OFFICE")
+                            .locationName("Location " + location)
+                            .date(today.plusDays(day))
+                            .startTime(time)
+                            .endTime(time.plusMinutes(30))
+                            .maxAppointments(2)
+                            // Roughly a third of the slots already full
+                            .bookedAppointments((int) (id % 3))
+                            .isAvailable(id % 3 != 2)
+                            .build());
+                }
+            }
+        }
+
+        // Only findAllWithStaff is needed to load the index
+        TimeSlotRepository repository = (TimeSlotRepository) Proxy.newProxyInstance(
+                TimeSlotRepository.class.getClassLoader(), new Class<?>[]{TimeSlotRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAllWithStaff")) {
+                        return slots;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        AvailabilityRuleRepository rules = (AvailabilityRuleRepository) Proxy.newProxyInstance(
+                AvailabilityRuleRepository.class.getClassLoader(), new Class<?>[]{AvailabilityRuleRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findAllWithDetails")) {
+                        return List.of();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        index = new SlotAvailabilityIndex(repository, rules);
+        index.load();
+    }
+
+    @Benchmark
+    public List<SlotAvailabilityIndex.Slot> byLocation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return index.findAvailable("Location " + random.nextInt(LOCATIONS), today.plusDays(random.nextInt(DAYS)));
+    }
+
+    @Benchmark
+    public List<SlotAvailabilityIndex.Slot> byType() {
+        LocalDate start = today.plusDays(ThreadLocalRandom.current().nextInt(DAYS - 7));
+        return index.findAvailableByType("MEDICAL_CLINIC", start, start.plusDays(7));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SlotAvailabilityIndexBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
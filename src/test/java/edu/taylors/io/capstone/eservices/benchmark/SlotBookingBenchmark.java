@@ -0,0 +1,136 @@
+package edu.taylors.io.capstone.eservices.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bookings per second on one hot slot from 8 threads (in-memory H2, plain JDBC):
+ * the single conditional UPDATE used by TimeSlotRepository.tryBook, versus a locked
+ * read-modify-write (SELECT ... FOR UPDATE, check, UPDATE), the cheapest correct
+ * alternative to the old unguarded load/check/save. fullSlot is the rejection path.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=edu.taylors.io.capstone.eservices.benchmark.SlotBookingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class SlotBookingBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:slot_booking;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+    private static final String TRY_BOOK =
+            "UPDATE time_slots SET is_available = CASE WHEN booked_appointments + 1 >= max_appointments " +
+                    "THEN FALSE ELSE TRUE END, booked_appointments = booked_appointments + 1 " +
+                    "WHERE id = ? AND is_available = TRUE AND booked_appointments < max_appointments";
+
+    // Effectively unlimited, so the hot slot never fills during a run
+    private static final long HOT_SLOT = 1;
+    private static final long FULL_SLOT = 2;
+
+    private Connection setupConnection;
+
+    @Setup
+    public void setUp() throws SQLException {
+        setupConnection = DriverManager.getConnection(URL, "sa", "");
+        try (Statement statement = setupConnection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS time_slots");
+            statement.execute("CREATE TABLE time_slots (id BIGINT PRIMARY KEY, max_appointments INT, " +
+                    "booked_appointments INT, is_available BOOLEAN)");
+            statement.execute("INSERT INTO time_slots VALUES (" + HOT_SLOT + ", 2147483647, 0, TRUE), " +
+                    "(" + FULL_SLOT + ", 1, 1, FALSE)");
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        setupConnection.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Session {
+        Connection connection;
+        PreparedStatement tryBook;
+        PreparedStatement selectForUpdate;
+        PreparedStatement increment;
+
+        @Setup
+        public void open() throws SQLException {
+            connection = DriverManager.getConnection(URL, "sa", "");
+            tryBook = connection.prepareStatement(TRY_BOOK);
+            selectForUpdate = connection.prepareStatement(
+                    "SELECT max_appointments, booked_appointments, is_available FROM time_slots WHERE id = ? FOR UPDATE");
+            increment = connection.prepareStatement(
+                    "UPDATE time_slots SET booked_appointments = ?, is_available = ? WHERE id = ?");
+        }
+
+        @TearDown
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int conditionalUpdate(Session session) throws SQLException {
+        session.tryBook.setLong(1, HOT_SLOT);
+        return session.tryBook.executeUpdate();
+    }
+
+    @Benchmark
+    public int lockedReadModifyWrite(Session session) throws SQLException {
+        Connection connection = session.connection;
+        connection.setAutoCommit(false);
+        try {
+            session.selectForUpdate.setLong(1, HOT_SLOT);
+            int booked;
+            int max;
+            boolean available;
+            try (ResultSet row = session.selectForUpdate.executeQuery()) {
+                row.next();
+                max = row.getInt(1);
+                booked = row.getInt(2);
+                available = row.getBoolean(3);
+            }
+            if (!available || booked >= max) {
+                connection.rollback();
+                return 0;
+            }
+            session.increment.setInt(1, booked + 1);
+            session.increment.setBoolean(2, booked + 1 < max);
+            session.increment.setLong(3, HOT_SLOT);
+            int updated = session.increment.executeUpdate();
+            connection.commit();
+            return updated;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    @Benchmark
+    public int fullSlot(Session session) throws SQLException {
+        session.tryBook.setLong(1, FULL_SLOT);
+        return session.tryBook.executeUpdate();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SlotBookingBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
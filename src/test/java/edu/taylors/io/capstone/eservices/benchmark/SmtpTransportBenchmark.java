@@ -0,0 +1,104 @@
+package edu.taylors.io.capstone.eservices.benchmark;
+
+import edu.taylors.io.capstone.eservices.service.FakeSmtpServer;
+import edu.taylors.io.capstone.eservices.service.PooledSmtpTransport;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Messages per second through JavaMailSender (one connection per message, as before the
+ * outbox used the pool) versus PooledSmtpTransport (one kept-alive session per chunk),
+ * against FakeSmtpServer with a simulated handshake and per-command round-trip.
+ * Four threads stand in for the outbox's four sender threads.
+ *
+ * Run: mvn test-compile exec:java -Dexec.classpathScope=test
+ *      -Dexec.mainClass=edu.taylors.io.capstone.eservices.benchmark.SmtpTransportBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class SmtpTransportBenchmark {
+
+    private static final int CHUNK_SIZE = 20;
+
+    // TCP + TLS + AUTH against a remote provider, and one round-trip per SMTP command
+    @Param({"30"})
+    private long connectLatencyMillis;
+
+    @Param({"1"})
+    private long commandLatencyMillis;
+
+    private FakeSmtpServer server;
+    private JavaMailSenderImpl mailSender;
+    private PooledSmtpTransport transport;
+    private SimpleMailMessage simpleMessage;
+    private List<MimeMessage> chunk;
+
+    @Setup
+    public void setUp() throws Exception {
+        server = new FakeSmtpServer(connectLatencyMillis, commandLatencyMillis);
+
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.auth", "false");
+
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("127.0.0.1");
+        mailSender.setPort(server.getPort());
+        mailSender.setJavaMailProperties(properties);
+
+        transport = new PooledSmtpTransport(Session.getInstance(properties), "smtp", "127.0.0.1", server.getPort(),
+                null, null, 4, 100, 60_000);
+
+        simpleMessage = new SimpleMailMessage();
+        simpleMessage.setFrom("noreply@example.com");
+        simpleMessage.setTo("student@example.com");
+        simpleMessage.setSubject("Appointment Reminder");
+        simpleMessage.setText("Your appointment APT-2026-0001 is tomorrow at 10:00.");
+
+        chunk = new ArrayList<>(CHUNK_SIZE);
+        for (int i = 0; i < CHUNK_SIZE; i++) {
+            chunk.add(transport.createMessage("noreply@example.com", "student" + i + "@example.com",
+                    "Appointment Reminder", "Your appointment APT-2026-" + i + " is tomorrow at 10:00."));
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        transport.destroy();
+        server.close();
+    }
+
+    @Benchmark
+    public void connectionPerMessage() {
+        mailSender.send(simpleMessage);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHUNK_SIZE)
+    public List<Exception> pooledChunk() throws InterruptedException {
+        return transport.sendBatch(chunk);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SmtpTransportBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
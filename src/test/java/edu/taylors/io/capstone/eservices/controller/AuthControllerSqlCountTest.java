@@ -0,0 +1,148 @@
+package edu.taylors.io.capstone.eservices.controller;
+
+import edu.taylors.io.capstone.eservices.repository.LoginHistoryRepository;
+import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import edu.taylors.io.capstone.eservices.security.OtpStore;
+import edu.taylors.io.capstone.eservices.security.UserCache;
+import edu.taylors.io.capstone.eservices.service.LoginHistoryRecorder;
+import edu.taylors.io.capstone.eservices.service.RefreshTokenService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each auth endpoint issues inside the request
+ * (user loaded once, no writes that can be deferred or avoided).
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class AuthControllerSqlCountTest {
+
+    private static final String STUDENT_ID = "TP012345";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OtpStore otpStore;
+
+    @Autowired
+    private LoginHistoryRecorder loginHistoryRecorder;
+
+    @Autowired
+    private LoginHistoryRepository loginHistoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private UserCache userCache;
+
+    @MockitoBean
+    private JavaMailSender mailSender;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        userCache.clear();
+    }
+
+    @Test
+    void loginLoadsUserAndQueuesOtpMail() throws Exception {
+        statistics.clear();
+
+        login();
+
+        // SELECT user, INSERT email_outbox (OTP mail); login history and lastLoginAt are written behind
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void loginHistoryIsWrittenBehindTheRequest() throws Exception {
+        loginHistoryRecorder.flush();
+        long before = loginHistoryRepository.count();
+
+        login();
+        loginHistoryRecorder.flush();
+
+        assertThat(loginHistoryRepository.count()).isEqualTo(before + 1);
+        assertThat(userRepository.findByStudentId(STUDENT_ID).orElseThrow().getLastLoginAt()).isNotNull();
+    }
+
+    @Test
+    void verifyOtpLoadsUserOnceAndIssuesOneUpdate() throws Exception {
+        String otp = otpStore.issue(STUDENT_ID);
+        statistics.clear();
+
+        mockMvc.perform(post("/api/auth/login/verify-otp")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"" + STUDENT_ID + "\",\"otp\":\"" + otp + "\"}"))
+                .andExpect(status().isOk());
+
+        // SELECT user, INSERT refresh_tokens, UPDATE users (first-time email verified flag)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    void refreshIsOneIndexedLookupPlusRotation() throws Exception {
+        String refreshToken = refreshTokenService.createRefreshToken(STUDENT_ID);
+        statistics.clear();
+
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isOk());
+
+        // SELECT token JOIN user by PK, DELETE used token, INSERT rotated token
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+
+        // The used token cannot be replayed
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void resendOtpLoadsUserAndQueuesOtpMail() throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(post("/api/auth/resend-otp")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"" + STUDENT_ID + "\"}"))
+                .andExpect(status().isOk());
+
+        // SELECT user, INSERT email_outbox; the new OTP goes to the OtpStore, not the users row
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    private void login() throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"studentId\":\"" + STUDENT_ID + "\",\"password\":\"123456\"}"))
+                .andExpect(status().isOk());
+    }
+}
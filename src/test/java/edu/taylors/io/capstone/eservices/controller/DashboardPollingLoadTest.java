@@ -0,0 +1,158 @@
+package edu.taylors.io.capstone.eservices.controller;
+
+import edu.taylors.io.capstone.eservices.entity.User;
+import edu.taylors.io.capstone.eservices.repository.MedicalExaminationRepository;
+import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import edu.taylors.io.capstone.eservices.repository.VisaApplicationRepository;
+import edu.taylors.io.capstone.eservices.repository.VisaEventRepository;
+import edu.taylors.io.capstone.eservices.service.MedicalExaminationService;
+import edu.taylors.io.capstone.eservices.service.VisaApplicationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * A student portal polling the four dashboard endpoints, with and without If-None-Match:
+ * conditional polls cost no SQL until one of the student's records changes. The version TTL is
+ * raised so a slow run cannot add version re-reads to the counts.
+ */
+@SpringBootTest(properties = "app.student-versions.ttl=600000")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class DashboardPollingLoadTest {
+
+    private static final String STUDENT_ID = "POLL-STUDENT";
+    private static final List<String> DASHBOARD = List.of(
+            "/api/visa/my-application", "/api/visa/timeline",
+            "/api/medical/my-examination", "/api/appointments/upcoming");
+
+    // e.g. one poll a minute for 20 minutes, with one status change in between
+    private static final int POLLS = 20;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private VisaApplicationService visaService;
+
+    @Autowired
+    private MedicalExaminationService medicalService;
+
+    @Autowired
+    private VisaEventRepository eventRepository;
+
+    @Autowired
+    private VisaApplicationRepository visaRepository;
+
+    @Autowired
+    private MedicalExaminationRepository medicalRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User student;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        student = userRepository.save(User.builder()
+                .studentId(STUDENT_ID)
+                .email("poll-student@example.com")
+                .password("not-a-hash")
+                .role("ROLE_STUDENT")
+                .firstName("Poll")
+                .lastName("Student")
+                .build());
+        // A returning student: visa application (and so medical examination) already started
+        visaService.createVisaApplication(STUDENT_ID, Map.of("nationality", "Poll Land"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        visaRepository.findByStudent(student).ifPresent(visa -> {
+            eventRepository.deleteAll(eventRepository.findByVisaApplicationIdOrderByIdAsc(visa.getId()));
+            visaRepository.delete(visa);
+        });
+        medicalRepository.findByStudent(student).ifPresent(medicalRepository::delete);
+        userRepository.delete(student);
+    }
+
+    @Test
+    void conditionalPollsSkipTheDatabaseUntilSomethingChanges() throws Exception {
+        Map<String, String> etags = new HashMap<>();
+        poll(etags);
+
+        statistics.clear();
+        for (int i = 0; i < POLLS; i++) {
+            poll(null);
+        }
+        long unconditionalStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        int notModified = 0;
+        for (int i = 0; i < POLLS; i++) {
+            if (i == POLLS / 2) {
+                medicalService.bookAppointment(STUDENT_ID, Map.of(
+                        "appointmentDate", "2031-01-15T09:00:00", "clinicName", "Poll Clinic"));
+                statistics.clear();
+            }
+            notModified += poll(etags);
+        }
+        long conditionalStatements = statistics.getPrepareStatementCount();
+
+        // Every endpoint answers 304 except on the first poll after the change
+        assertThat(notModified).isEqualTo(POLLS * DASHBOARD.size() - DASHBOARD.size());
+        // One full read of the dashboard after the change, versus one per poll, plus re-reading
+        // the version the change evicted
+        assertThat(unconditionalStatements).isGreaterThanOrEqualTo((long) POLLS * DASHBOARD.size());
+        assertThat(conditionalStatements).isEqualTo(unconditionalStatements / POLLS + 1);
+    }
+
+    /**
+     * GET every dashboard endpoint once, sending and then remembering each ETag when etags is
+     * given; returns how many answered 304.
+     */
+    private int poll(Map<String, String> etags) throws Exception {
+        int notModified = 0;
+        for (String path : DASHBOARD) {
+            MockHttpServletRequestBuilder request = get(path).with(user(STUDENT_ID).roles("STUDENT"));
+            if (etags != null && etags.containsKey(path)) {
+                request.header(HttpHeaders.IF_NONE_MATCH, etags.get(path));
+            }
+
+            MvcResult result = mockMvc.perform(request).andReturn();
+            int status = result.getResponse().getStatus();
+            assertThat(status).as(path).isIn(200, 304);
+            if (status == 304) {
+                notModified++;
+            }
+            if (etags != null) {
+                etags.put(path, result.getResponse().getHeader(HttpHeaders.ETAG));
+            }
+        }
+        return notModified;
+    }
+}
@@ -0,0 +1,122 @@
+package edu.taylors.io.capstone.eservices.repository;
+
+import edu.taylors.io.capstone.eservices.entity.TimeSlot;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Thousands of concurrent bookers against one slot: exactly maxAppointments may succeed.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("h2")
+class TimeSlotBookingContentionTest {
+
+    private static final int THREADS = 32;
+    private static final int BOOKERS = 4000;
+    private static final int CAPACITY = 50;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @AfterEach
+    void tearDown() {
+        timeSlotRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentBookersNeverOverbook() throws Exception {
+        TimeSlot slot = newSlot(CAPACITY);
+        AtomicInteger booked = new AtomicInteger();
+
+        long elapsedNanos = hammer(BOOKERS, () -> {
+            if (timeSlotRepository.tryBook(slot.getId()) == 1) {
+                booked.incrementAndGet();
+            }
+        });
+
+        TimeSlot after = timeSlotRepository.findById(slot.getId()).orElseThrow();
+        assertThat(booked.get()).isEqualTo(CAPACITY);
+        assertThat(after.getBookedAppointments()).isEqualTo(CAPACITY);
+        assertThat(after.getIsAvailable()).isFalse();
+        log.info("{} booking attempts on one slot in {} ms ({} attempts/s)",
+                BOOKERS, elapsedNanos / 1_000_000, BOOKERS * 1_000_000_000L / elapsedNanos);
+    }
+
+    @Test
+    void concurrentCancelAndRebookStayWithinCapacity() throws Exception {
+        TimeSlot slot = newSlot(CAPACITY);
+        for (int i = 0; i < CAPACITY; i++) {
+            timeSlotRepository.tryBook(slot.getId());
+        }
+
+        // Every cancellation frees a seat that one of the rebookers may take
+        AtomicInteger releases = new AtomicInteger();
+        AtomicInteger rebooks = new AtomicInteger();
+        hammer(BOOKERS, () -> {
+            if (ThreadLocalRandom.current().nextBoolean()) {
+                releases.addAndGet(timeSlotRepository.release(slot.getId()));
+            } else {
+                rebooks.addAndGet(timeSlotRepository.tryBook(slot.getId()));
+            }
+        });
+
+        TimeSlot after = timeSlotRepository.findById(slot.getId()).orElseThrow();
+        int expected = CAPACITY - releases.get() + rebooks.get();
+        assertThat(after.getBookedAppointments()).isEqualTo(expected).isBetween(0, CAPACITY);
+        assertThat(after.getIsAvailable()).isEqualTo(expected < CAPACITY);
+    }
+
+    private TimeSlot newSlot(int capacity) {
+        return timeSlotRepository.save(TimeSlot.builder()
+                .locationType("INTERNATIONAL_OFFICE")
+                .locationName("International Office")
+                .date(LocalDate.now().plusDays(1))
+                .startTime(LocalTime.of(10, 0))
+                .endTime(LocalTime.of(10, 30))
+                .maxAppointments(capacity)
+                .bookedAppointments(0)
+                .isAvailable(true)
+                .build());
+    }
+
+    private long hammer(int tasks, Runnable task) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            long startNanos = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            return System.nanoTime() - startNanos;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import edu.taylors.io.capstone.eservices.entity.EmailOtp;
+import edu.taylors.io.capstone.eservices.repository.EmailOtpRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static edu.taylors.io.capstone.eservices.security.InMemoryOtpStoreTest.wrong;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The same attempt-limit and expiry rules as InMemoryOtpStoreTest, enforced by the
+ * email_otps table.
+ */
+@SpringBootTest(properties = {"app.2fa.otp.store=database", "app.2fa.otp.max-attempts=5"})
+@ActiveProfiles("h2")
+class DatabaseOtpStoreTest {
+
+    private static final String STUDENT = "TP000101";
+    private static final int MAX_ATTEMPTS = 5;
+
+    @Autowired
+    private OtpStore store;
+
+    @Autowired
+    private EmailOtpRepository emailOtpRepository;
+
+    @AfterEach
+    void tearDown() {
+        emailOtpRepository.deleteAll();
+    }
+
+    @Test
+    void correctOtpMatchesWithinTheAttemptLimit() {
+        assertThat(store).isInstanceOf(DatabaseOtpStore.class);
+        String otp = store.issue(STUDENT);
+        for (int i = 1; i < MAX_ATTEMPTS; i++) {
+            assertThat(store.verify(STUDENT, wrong(otp))).isFalse();
+        }
+
+        assertThat(store.verify(STUDENT, otp)).isTrue();
+    }
+
+    @Test
+    void correctOtpIsRejectedAfterMaxWrongGuesses() {
+        String otp = store.issue(STUDENT);
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            assertThat(store.verify(STUDENT, wrong(otp))).isFalse();
+        }
+
+        assertThat(store.verify(STUDENT, otp)).isFalse();
+        assertThat(emailOtpRepository.findById(STUDENT)).isEmpty();
+    }
+
+    @Test
+    void expiredOtpNeverMatches() {
+        String otp = store.issue(STUDENT);
+        EmailOtp row = emailOtpRepository.findById(STUDENT).orElseThrow();
+        row.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        emailOtpRepository.save(row);
+
+        assertThat(store.verify(STUDENT, otp)).isFalse();
+        assertThat(store.verify(STUDENT, otp)).isFalse();
+        assertThat(emailOtpRepository.findById(STUDENT)).isEmpty();
+    }
+}
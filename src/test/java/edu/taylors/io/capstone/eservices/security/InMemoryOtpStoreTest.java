@@ -0,0 +1,68 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Attempt limit and expiry: once either is reached the OTP never matches again.
+ */
+class InMemoryOtpStoreTest {
+
+    private static final String STUDENT = "TP000100";
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final InMemoryOtpStore store = new InMemoryOtpStore();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(store, "otpExpiration", 300_000L);
+        ReflectionTestUtils.setField(store, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(store, "wheelTickMillis", 1_000L);
+        store.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.destroy();
+    }
+
+    @Test
+    void correctOtpMatchesWithinTheAttemptLimit() {
+        String otp = store.issue(STUDENT);
+        for (int i = 1; i < MAX_ATTEMPTS; i++) {
+            assertThat(store.verify(STUDENT, wrong(otp))).isFalse();
+        }
+
+        assertThat(store.verify(STUDENT, otp)).isTrue();
+    }
+
+    @Test
+    void correctOtpIsRejectedAfterMaxWrongGuesses() {
+        String otp = store.issue(STUDENT);
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            assertThat(store.verify(STUDENT, wrong(otp))).isFalse();
+        }
+
+        assertThat(store.verify(STUDENT, otp)).isFalse();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void expiredOtpNeverMatches() throws Exception {
+        ReflectionTestUtils.setField(store, "otpExpiration", 20L);
+        String otp = store.issue(STUDENT);
+        Thread.sleep(50);
+
+        assertThat(store.verify(STUDENT, otp)).isFalse();
+        assertThat(store.verify(STUDENT, otp)).isFalse();
+        assertThat(store.size()).isZero();
+    }
+
+    static String wrong(String otp) {
+        return otp.equals("000000") ? "111111" : "000000";
+    }
+}
@@ -0,0 +1,61 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The per-IP and per-account buckets apply independently: either one can refuse a call.
+ */
+class LoginRateLimiterTest {
+
+    private final LoginRateLimiter limiter = new LoginRateLimiter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(limiter, "loginCapacity", 2);
+        ReflectionTestUtils.setField(limiter, "loginIntervalMillis", 60_000L);
+        ReflectionTestUtils.setField(limiter, "otpCapacity", 1);
+        ReflectionTestUtils.setField(limiter, "otpIntervalMillis", 60_000L);
+        ReflectionTestUtils.setField(limiter, "passwordResetCapacity", 1);
+        ReflectionTestUtils.setField(limiter, "passwordResetIntervalMillis", 300_000L);
+        ReflectionTestUtils.setField(limiter, "ipCapacity", 3);
+        ReflectionTestUtils.setField(limiter, "ipIntervalMillis", 60_000L);
+        ReflectionTestUtils.setField(limiter, "maxKeys", 1_000);
+        ReflectionTestUtils.setField(limiter, "wheelTickMillis", 1_000L);
+        ReflectionTestUtils.setField(limiter, "wheelSlots", 64);
+        limiter.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        limiter.destroy();
+    }
+
+    @Test
+    void accountLimitFollowsTheAccountAcrossAddresses() {
+        assertThat(limiter.checkLogin("TP000001", "10.0.0.1")).isZero();
+        // Same account however it is typed
+        assertThat(limiter.checkLogin(" tp000001", "10.0.0.2")).isZero();
+        assertThat(limiter.checkLogin("TP000001", "10.0.0.3")).isPositive();
+
+        // Other accounts on that address, and other endpoints for the account, are unaffected
+        assertThat(limiter.checkLogin("TP000002", "10.0.0.3")).isZero();
+        assertThat(limiter.checkOtpResend("TP000001", "10.0.0.4")).isZero();
+    }
+
+    @Test
+    void addressLimitIsSharedByAllAccountsAndEndpoints() {
+        String ip = "10.0.1.1";
+        assertThat(limiter.checkLogin("TP000011", ip)).isZero();
+        assertThat(limiter.checkOtpResend("TP000012", ip)).isZero();
+        assertThat(limiter.checkPasswordReset("student13@example.com", ip)).isZero();
+
+        // A fresh account is still refused from that address, and allowed from another
+        assertThat(limiter.checkLogin("TP000014", ip)).isPositive();
+        assertThat(limiter.checkLogin("TP000014", "10.0.1.2")).isZero();
+    }
+}
@@ -0,0 +1,82 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Token bucket arithmetic, idle-bucket sweeping and the maxKeys bound, on an explicit clock.
+ */
+class RateLimiterTest {
+
+    private static final long INTERVAL = 1_000;
+    private static final long TICK = 100;
+    // Inner wheel spans 800 ms, so buckets due after one interval start in the outer wheel
+    private static final int SLOTS = 8;
+
+    @Test
+    void callBeyondCapacityIsRejectedWithWait() {
+        RateLimiter limiter = new RateLimiter("test", 3, INTERVAL, 100, TICK, SLOTS);
+        long now = System.currentTimeMillis();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("student", now)).isZero();
+        }
+        assertThat(limiter.tryAcquire("student", now)).isEqualTo(INTERVAL);
+        assertThat(limiter.tryAcquire("other", now)).isZero();
+        assertThat(limiter.getStatistics()).containsEntry("allowed", 4L).containsEntry("rejected", 1L);
+    }
+
+    @Test
+    void bucketRefillsOneTokenPerInterval() {
+        RateLimiter limiter = new RateLimiter("test", 2, INTERVAL, 100, TICK, SLOTS);
+        long now = System.currentTimeMillis();
+        limiter.tryAcquire("student", now);
+        limiter.tryAcquire("student", now);
+
+        assertThat(limiter.tryAcquire("student", now + INTERVAL - 1)).isEqualTo(1);
+        assertThat(limiter.tryAcquire("student", now + INTERVAL)).isZero();
+        assertThat(limiter.tryAcquire("student", now + INTERVAL)).isPositive();
+        // Idle for the whole burst: full again
+        assertThat(limiter.tryAcquire("student", now + 4 * INTERVAL)).isZero();
+        assertThat(limiter.tryAcquire("student", now + 4 * INTERVAL)).isZero();
+    }
+
+    @Test
+    void sweepDropsRefilledBucketsAndKeepsBusyOnes() {
+        RateLimiter limiter = new RateLimiter("test", 2, INTERVAL, 100, TICK, SLOTS);
+        long now = System.currentTimeMillis();
+        limiter.tryAcquire("idle", now);
+        limiter.tryAcquire("busy", now);
+        limiter.tryAcquire("busy", now + 900);
+
+        // Both were scheduled one interval out, past the inner wheel, and reach it by cascading
+        limiter.sweep(now + INTERVAL + TICK);
+        assertThat(limiter.size()).isEqualTo(1);
+        assertThat(limiter.getStatistics()).containsEntry("expired", 1L);
+
+        // busy was re-scheduled for when it refills
+        limiter.sweep(now + 2 * INTERVAL + TICK);
+        assertThat(limiter.size()).isZero();
+        assertThat(limiter.getStatistics()).containsEntry("expired", 2L);
+
+        // A swept key starts again with a full bucket
+        assertThat(limiter.tryAcquire("busy", now + 2 * INTERVAL + TICK)).isZero();
+        assertThat(limiter.tryAcquire("busy", now + 2 * INTERVAL + TICK)).isZero();
+    }
+
+    @Test
+    void newKeysFailOpenAtMaxKeys() {
+        RateLimiter limiter = new RateLimiter("test", 1, INTERVAL, 2, TICK, SLOTS);
+        long now = System.currentTimeMillis();
+        limiter.tryAcquire("a", now);
+        limiter.tryAcquire("b", now);
+
+        assertThat(limiter.tryAcquire("c", now)).isZero();
+        assertThat(limiter.tryAcquire("c", now)).isZero();
+        assertThat(limiter.size()).isEqualTo(2);
+        assertThat(limiter.getStatistics()).containsEntry("overflow", 2L);
+        // Keys already tracked are still limited
+        assertThat(limiter.tryAcquire("a", now)).isPositive();
+    }
+}
@@ -0,0 +1,60 @@
+package edu.taylors.io.capstone.eservices.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keys come due on their tick, whether scheduled into the inner wheel or cascaded from the outer one.
+ */
+class TimingWheelTest {
+
+    // 8 slots of 100 ms: inner span 800 ms, outer span 6.4 s
+    private final TimingWheel<String> wheel = new TimingWheel<>(100, 8, 0);
+    private final List<String> due = new ArrayList<>();
+
+    @Test
+    void innerKeyComesDueOnItsTick() {
+        wheel.schedule("near", 250);
+
+        wheel.advance(199, due::add);
+        assertThat(due).isEmpty();
+        wheel.advance(200, due::add);
+        assertThat(due).containsExactly("near");
+        wheel.advance(1_000, due::add);
+        assertThat(due).containsExactly("near");
+    }
+
+    @Test
+    void outerKeyCascadesAndComesDueOnItsTick() {
+        wheel.schedule("far", 2_050);
+
+        wheel.advance(1_999, due::add);
+        assertThat(due).isEmpty();
+        wheel.advance(2_000, due::add);
+        assertThat(due).containsExactly("far");
+    }
+
+    @Test
+    void keysAreNotLostAcrossLongPauses() {
+        wheel.schedule("near", 300);
+        wheel.schedule("far", 3_000);
+
+        wheel.advance(5_000, due::add);
+        assertThat(due).containsExactlyInAnyOrder("near", "far");
+    }
+
+    @Test
+    void keyScheduledInThePastComesDueOnTheNextTick() {
+        wheel.advance(1_000, due::add);
+        wheel.schedule("late", 500);
+
+        wheel.advance(1_099, due::add);
+        assertThat(due).isEmpty();
+        wheel.advance(1_100, due::add);
+        assertThat(due).containsExactly("late");
+    }
+}
@@ -0,0 +1,122 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.entity.Appointment;
+import edu.taylors.io.capstone.eservices.entity.TimeSlot;
+import edu.taylors.io.capstone.eservices.repository.AppointmentRepository;
+import edu.taylors.io.capstone.eservices.repository.TimeSlotRepository;
+import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Racing cancel/reschedule requests on one appointment move its seat exactly once.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class AppointmentCancelContentionTest {
+
+    private static final String LOCATION = "Contention Test Office";
+    private static final LocalDate DATE = LocalDate.now().plusDays(3);
+    private static final LocalTime TIME = LocalTime.of(11, 0);
+    private static final int CALLERS = 8;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private TimeSlot slot;
+    private Appointment appointment;
+
+    @BeforeEach
+    void setUp() {
+        // Two seats taken: ours and another student's, which a double release would give away
+        slot = timeSlotRepository.save(TimeSlot.builder()
+                .locationType("INTERNATIONAL_OFFICE")
+                .locationName(LOCATION)
+                .date(DATE)
+                .startTime(TIME)
+                .endTime(TIME.plusMinutes(30))
+                .maxAppointments(5)
+                .bookedAppointments(2)
+                .isAvailable(true)
+                .build());
+        appointment = appointmentRepository.save(Appointment.builder()
+                .student(userRepository.findByStudentId("TP012345").orElseThrow())
+                .appointmentNumber("CONTENTION-1")
+                .appointmentType("CONSULTATION")
+                .locationName(LOCATION)
+                .appointmentDate(DATE)
+                .appointmentTime(TIME)
+                .status("PENDING")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        appointmentRepository.deleteById(appointment.getId());
+        timeSlotRepository.deleteById(slot.getId());
+    }
+
+    @Test
+    void concurrentCancelsReleaseOneSeat() throws Exception {
+        int succeeded = race(() -> appointmentService.cancelAppointment(appointment.getId(), "race", "TP012345"));
+
+        assertThat(succeeded).isEqualTo(1);
+        assertThat(timeSlotRepository.findById(slot.getId()).orElseThrow().getBookedAppointments()).isEqualTo(1);
+        assertThat(appointmentRepository.findById(appointment.getId()).orElseThrow().getStatus()).isEqualTo("CANCELLED");
+    }
+
+    private int race(Runnable call) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CALLERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>(CALLERS);
+            for (int i = 0; i < CALLERS; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    call.run();
+                    succeeded.incrementAndGet();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // The losers are told the appointment changed under them
+                    assertThat(e.getCause()).isInstanceOf(RuntimeException.class);
+                }
+            }
+            return succeeded.get();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
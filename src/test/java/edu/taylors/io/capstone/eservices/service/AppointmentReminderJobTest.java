@@ -0,0 +1,135 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.entity.Appointment;
+import edu.taylors.io.capstone.eservices.entity.EmailOutbox;
+import edu.taylors.io.capstone.eservices.entity.User;
+import edu.taylors.io.capstone.eservices.repository.AppointmentRepository;
+import edu.taylors.io.capstone.eservices.repository.EmailOutboxRepository;
+import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Chunked reminder runs over the lead-time window: every due appointment is reminded exactly
+ * once, across chunks and across runs.
+ */
+@SpringBootTest(properties = {
+        "app.appointments.reminder.chunk-size=2",
+        "app.appointments.reminder.lead-time=24h"
+})
+@ActiveProfiles("h2")
+class AppointmentReminderJobTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2031, 3, 1, 8, 0);
+
+    @Autowired
+    private AppointmentReminderJob reminderJob;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Appointment> created = new ArrayList<>();
+    private long lastOutboxId;
+
+    @BeforeEach
+    void setUp() {
+        lastOutboxId = outboxRepository.findAll().stream().mapToLong(EmailOutbox::getId).max().orElse(0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        appointmentRepository.deleteAll(created);
+        outboxRepository.deleteAll(newOutboxRows());
+    }
+
+    @Test
+    void remindsEachDueAppointmentOnce() {
+        User student = userRepository.findByStudentId("TP012345").orElseThrow();
+        Appointment first = save(student, "REMIND-1", LocalDate.of(2031, 3, 1), LocalTime.of(9, 0), "PENDING", false);
+        Appointment second = save(student, "REMIND-2", LocalDate.of(2031, 3, 1), LocalTime.of(9, 0), "CONFIRMED", false);
+        // Reminded by a run that committed this chunk before the node went down
+        save(student, "REMIND-3", LocalDate.of(2031, 3, 1), LocalTime.of(14, 0), "PENDING", true);
+        save(student, "REMIND-4", LocalDate.of(2031, 3, 1), LocalTime.of(15, 0), "CANCELLED", false);
+        Appointment rescheduled = save(student, "REMIND-5", LocalDate.of(2031, 3, 2), LocalTime.of(7, 30), "RESCHEDULED", false);
+        Appointment tooFar = save(student, "REMIND-6", LocalDate.of(2031, 3, 2), LocalTime.of(9, 0), "PENDING", false);
+        Appointment started = save(student, "REMIND-7", LocalDate.of(2031, 3, 1), LocalTime.of(7, 0), "PENDING", false);
+
+        assertThat(reminderJob.sendDueReminders(NOW)).isEqualTo(3);
+        assertThat(reminderJob.sendDueReminders(NOW.plusMinutes(5))).isZero();
+
+        for (Appointment reminded : List.of(first, second, rescheduled)) {
+            Appointment stored = appointmentRepository.findById(reminded.getId()).orElseThrow();
+            assertThat(stored.getReminderSent()).isTrue();
+            assertThat(stored.getReminderSentDate()).isNotNull();
+            assertThat(stored.getReminderCount()).isEqualTo(1);
+        }
+        assertThat(appointmentRepository.findById(tooFar.getId()).orElseThrow().getReminderSent()).isFalse();
+        assertThat(appointmentRepository.findById(started.getId()).orElseThrow().getReminderSent()).isFalse();
+
+        List<EmailOutbox> queued = newOutboxRows();
+        assertThat(queued).hasSize(3);
+        assertThat(queued).allSatisfy(email -> {
+            assertThat(email.getRecipient()).isEqualTo(student.getEmail());
+            assertThat(email.getSubject()).isEqualTo("Reminder: Upcoming Appointment");
+        });
+
+        // tooFar comes into the window later
+        assertThat(reminderJob.sendDueReminders(NOW.plusHours(2))).isEqualTo(1);
+        assertThat(newOutboxRows()).hasSize(4);
+    }
+
+    @Test
+    void leadTimeIsDescribedForTheBookingEmail() {
+        assertThat(reminderJob.describeLeadTime()).isEqualTo("24 hours");
+        try {
+            ReflectionTestUtils.setField(reminderJob, "leadTime", Duration.ofMinutes(90));
+            assertThat(reminderJob.describeLeadTime()).isEqualTo("90 minutes");
+            ReflectionTestUtils.setField(reminderJob, "leadTime", Duration.ofHours(1));
+            assertThat(reminderJob.describeLeadTime()).isEqualTo("1 hour");
+        } finally {
+            ReflectionTestUtils.setField(reminderJob, "leadTime", Duration.ofHours(24));
+        }
+    }
+
+    private Appointment save(User student, String number, LocalDate date, LocalTime time,
+                             String status, boolean reminderSent) {
+        Appointment appointment = appointmentRepository.save(Appointment.builder()
+                .student(student)
+                .appointmentNumber(number)
+                .appointmentType("MEDICAL")
+                .locationName("Reminder Test Clinic")
+                .appointmentDate(date)
+                .appointmentTime(time)
+                .status(status)
+                .reminderSent(reminderSent)
+                .build());
+        created.add(appointment);
+        return appointment;
+    }
+
+    private List<EmailOutbox> newOutboxRows() {
+        return outboxRepository.findAll().stream()
+                .filter(email -> email.getId() > lastOutboxId)
+                .toList();
+    }
+}
@@ -0,0 +1,264 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.entity.EmailOutbox;
+import edu.taylors.io.capstone.eservices.repository.EmailOutboxRepository;
+import jakarta.mail.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Digests, retries, dead-lettering and lease recovery of a dispatcher sending to the in-JVM
+ * FakeSmtpServer. The application's own dispatcher stays disabled (h2 profile); each test
+ * starts a private one over the same email_outbox table.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class EmailOutboxDispatcherTest {
+
+    private static final String RECIPIENT = "outbox-student@example.com";
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private NotificationTemplates templates;
+
+    @Autowired
+    private EmailService emailService;
+
+    private FakeSmtpServer server;
+    private PooledSmtpTransport transport;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        // Rows queued by other tests would be sent along and skew the counts
+        outboxRepository.deleteAll();
+
+        server = new FakeSmtpServer(0, 0);
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.auth", "false");
+        transport = new PooledSmtpTransport(Session.getInstance(properties), "smtp", "127.0.0.1", server.getPort(),
+                null, null, 2, 100, 60_000);
+
+        dispatcher = new EmailOutboxDispatcher(outboxRepository, transport, templates);
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "noreply@example.com");
+        ReflectionTestUtils.setField(dispatcher, "enabled", true);
+        ReflectionTestUtils.setField(dispatcher, "parallelism", 2);
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 50);
+        ReflectionTestUtils.setField(dispatcher, "chunkSize", 20);
+        ReflectionTestUtils.setField(dispatcher, "digestMaxItems", 20);
+        ReflectionTestUtils.setField(dispatcher, "pollIntervalMillis", 50L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffMillis", 60_000L);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffMillis", 3_600_000L);
+        ReflectionTestUtils.setField(dispatcher, "leaseMillis", 300_000L);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        dispatcher.destroy();
+        transport.destroy();
+        server.close();
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    void notificationsInOneWindowGoOutAsOneDigest() throws Exception {
+        notifyStatusChange("PENDING", "DOCUMENTS_SUBMITTED");
+        notifyStatusChange("DOCUMENTS_SUBMITTED", "EMGS_PROCESSING");
+        List<EmailOutbox> held = recipientRows();
+        assertThat(held).allMatch(e -> e.isDigestible() && e.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        endWindow(held.get(0));
+        dispatcher.init();
+
+        for (EmailOutbox email : held) {
+            EmailOutbox sent = await(email, e -> "SENT".equals(e.getStatus()));
+            assertThat(sent.getAttempts()).isEqualTo(1);
+        }
+        assertThat(server.getMessageCount()).isEqualTo(1);
+        assertThat(dispatcher.getStatistics()).containsEntry("mergedIntoDigestsSinceStartup", 1L);
+    }
+
+    @Test
+    void otpAndPasswordMailIsNeverHeld() throws Exception {
+        notifyStatusChange("PENDING", "DOCUMENTS_SUBMITTED");
+        emailService.sendOtpEmail(RECIPIENT, "123456", "TP012345");
+        emailService.sendPasswordChangedConfirmation(RECIPIENT, "TP012345");
+        dispatcher.init();
+
+        List<EmailOutbox> rows = recipientRows();
+        EmailOutbox notification = rows.get(0);
+        for (EmailOutbox urgent : rows.subList(1, rows.size())) {
+            assertThat(urgent.isDigestible()).isFalse();
+            await(urgent, e -> "SENT".equals(e.getStatus()));
+        }
+        // Sent on their own, not merged with (or waiting for) the held notification
+        assertThat(server.getMessageCount()).isEqualTo(2);
+        assertThat(outboxRepository.findById(notification.getId()).orElseThrow().getStatus()).isEqualTo("PENDING");
+    }
+
+    @Test
+    void failedDigestPutsEveryMergedRowBack() throws Exception {
+        server.setRejectMessages(true);
+        notifyStatusChange("PENDING", "DOCUMENTS_SUBMITTED");
+        notifyStatusChange("DOCUMENTS_SUBMITTED", "EMGS_PROCESSING");
+        notifyStatusChange("EMGS_PROCESSING", "EMGS_APPROVED");
+        List<EmailOutbox> held = recipientRows();
+        endWindow(held.get(0));
+        dispatcher.init();
+
+        for (EmailOutbox email : held) {
+            EmailOutbox failed = await(email, e -> "PENDING".equals(e.getStatus()) && e.getLastError() != null);
+            assertThat(failed.getAttempts()).isEqualTo(1);
+            assertThat(failed.getNextAttemptAt()).isAfter(LocalDateTime.now());
+        }
+        assertThat(server.getMessageCount()).isZero();
+    }
+
+    @Test
+    void secretsAreNotKeptOnceSentOrDead() throws Exception {
+        emailService.sendOtpEmail(RECIPIENT, "482913", "TP012345");
+        emailService.sendPasswordResetEmail(RECIPIENT, "reset-token-5f1c9e", "TP012345");
+        emailService.sendPasswordChangedConfirmation(RECIPIENT, "TP012345");
+        List<EmailOutbox> queued = recipientRows();
+        assertThat(queued).extracting(EmailOutbox::isSensitive).containsExactly(true, true, false);
+        dispatcher.init();
+
+        for (EmailOutbox email : queued) {
+            await(email, e -> "SENT".equals(e.getStatus()));
+        }
+        assertThat(server.getMessageCount()).isEqualTo(3);
+        assertNoSecretsAtRest("482913", "reset-token-5f1c9e");
+        assertThat(outboxRepository.findById(queued.get(2).getId()).orElseThrow().getBody()).contains("TP012345");
+
+        // Dead-lettered rows are kept for inspection, still without the secret
+        outboxRepository.deleteAll();
+        server.setRejectMessages(true);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffMillis", 10L);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffMillis", 50L);
+        emailService.sendOtpEmail(RECIPIENT, "730264", "TP012345");
+        await(recipientRows().get(0), e -> "DEAD".equals(e.getStatus()));
+        assertNoSecretsAtRest("730264");
+    }
+
+    @Test
+    void failedSendGoesBackToPendingWithBackoff() throws Exception {
+        server.setRejectMessages(true);
+        EmailOutbox email = queue("Retry me");
+        LocalDateTime started = LocalDateTime.now();
+        dispatcher.init();
+
+        EmailOutbox failed = await(email, e -> "PENDING".equals(e.getStatus()) && e.getLastError() != null);
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        // initial-backoff plus up to 10% jitter
+        assertThat(failed.getNextAttemptAt()).isAfter(started.plusSeconds(59));
+        assertThat(server.getMessageCount()).isZero();
+    }
+
+    @Test
+    void emailIsDeadAfterMaxAttempts() throws Exception {
+        server.setRejectMessages(true);
+        ReflectionTestUtils.setField(dispatcher, "initialBackoffMillis", 10L);
+        ReflectionTestUtils.setField(dispatcher, "maxBackoffMillis", 50L);
+        EmailOutbox email = queue("Never delivered");
+        dispatcher.init();
+
+        EmailOutbox dead = await(email, e -> "DEAD".equals(e.getStatus()));
+        assertThat(dead.getAttempts()).isEqualTo(MAX_ATTEMPTS);
+        assertThat(dead.getLastError()).isNotBlank();
+        assertThat(dead.getSentAt()).isNull();
+    }
+
+    @Test
+    void expiredLeaseIsClaimedAgain() throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        // Claimed by a dispatcher that died mid-send, and one still held by a live sender
+        EmailOutbox abandoned = outboxRepository.save(sending("Abandoned", now.minusSeconds(1)));
+        EmailOutbox leased = outboxRepository.save(sending("Leased", now.plusMinutes(5)));
+        dispatcher.init();
+
+        EmailOutbox resent = await(abandoned, e -> "SENT".equals(e.getStatus()));
+        assertThat(resent.getAttempts()).isEqualTo(2);
+        assertThat(outboxRepository.findById(leased.getId()).orElseThrow().getStatus()).isEqualTo("SENDING");
+        assertThat(server.getMessageCount()).isEqualTo(1);
+    }
+
+    private void notifyStatusChange(String oldStatus, String newStatus) {
+        emailService.sendNotification(RECIPIENT, "visa-status-updated",
+                "fullName", "Outbox Student",
+                "applicationNumber", "VA-2026-000001",
+                "oldStatus", oldStatus,
+                "newStatus", newStatus,
+                "currentStage", newStatus,
+                "progressPercentage", 10);
+    }
+
+    private void assertNoSecretsAtRest(String... secrets) {
+        for (EmailOutbox email : outboxRepository.findAll()) {
+            assertThat(email.getBody()).doesNotContain(secrets);
+            assertThat(email.getSubject()).doesNotContain(secrets);
+        }
+    }
+
+    private List<EmailOutbox> recipientRows() {
+        return outboxRepository.findAll().stream()
+                .filter(e -> RECIPIENT.equals(e.getRecipient()))
+                .sorted(Comparator.comparing(EmailOutbox::getId))
+                .toList();
+    }
+
+    // As if app.email.digest.window had passed for this notification only
+    private void endWindow(EmailOutbox email) {
+        email.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(email);
+    }
+
+    private EmailOutbox queue(String subject) {
+        return outboxRepository.save(EmailOutbox.builder()
+                .recipient(RECIPIENT)
+                .subject(subject)
+                .body("Body of " + subject)
+                .build());
+    }
+
+    private static EmailOutbox sending(String subject, LocalDateTime leaseUntil) {
+        return EmailOutbox.builder()
+                .recipient(RECIPIENT)
+                .subject(subject)
+                .body("Body of " + subject)
+                .status("SENDING")
+                .attempts(1)
+                .nextAttemptAt(leaseUntil)
+                .build();
+    }
+
+    // Re-read the row until the dispatcher has moved it into the expected state
+    private EmailOutbox await(EmailOutbox email, Predicate<EmailOutbox> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            EmailOutbox current = outboxRepository.findById(email.getId()).orElseThrow();
+            if (condition.test(current)) {
+                return current;
+            }
+            assertThat(System.currentTimeMillis())
+                    .as("email %d still %s", current.getId(), current.getStatus())
+                    .isLessThan(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Minimal in-JVM SMTP server for tests and benchmarks: accepts every message and counts it.
+ *
+ * {@code connectLatencyMillis} is slept before the greeting (stands in for TCP + TLS + AUTH
+ * against a real provider) and {@code commandLatencyMillis} before every reply (one network
+ * round-trip), so connection reuse shows up in the numbers the way it does in production.
+ * No AUTH or STARTTLS: connect with mail.smtp.auth=false. {@link #setRejectMessages} makes
+ * the server refuse DATA with a 554 while keeping the session open, like a provider throttling.
+ */
+public class FakeSmtpServer implements AutoCloseable {
+
+    private final long connectLatencyMillis;
+    private final long commandLatencyMillis;
+    private final ServerSocket serverSocket;
+    private final ExecutorService sessions = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "fake-smtp");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final LongAdder messages = new LongAdder();
+    private volatile boolean rejectMessages;
+
+    public FakeSmtpServer(long connectLatencyMillis, long commandLatencyMillis) {
+        this.connectLatencyMillis = connectLatencyMillis;
+        this.commandLatencyMillis = commandLatencyMillis;
+        try {
+            this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        sessions.execute(this::acceptLoop);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.get();
+    }
+
+    public long getMessageCount() {
+        return messages.sum();
+    }
+
+    public void setRejectMessages(boolean rejectMessages) {
+        this.rejectMessages = rejectMessages;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        sessions.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.incrementAndGet();
+                sessions.execute(() -> handle(socket));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII))) {
+            OutputStream out = socket.getOutputStream();
+            sleep(connectLatencyMillis);
+            reply(out, "220 localhost fake ESMTP");
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.length() < 4 ? line : line.substring(0, 4).toUpperCase(Locale.ROOT);
+                switch (command) {
+                    case "EHLO" -> reply(out, "250-localhost\r\n250 8BITMIME");
+                    case "HELO", "MAIL", "RCPT", "RSET", "NOOP" -> reply(out, "250 OK");
+                    case "DATA" -> {
+                        if (rejectMessages) {
+                            reply(out, "554 Transaction failed");
+                            continue;
+                        }
+                        reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = in.readLine()) != null && !line.equals(".")) {
+                            // discard the message body
+                        }
+                        messages.increment();
+                        reply(out, "250 OK queued");
+                    }
+                    case "QUIT" -> {
+                        reply(out, "221 Bye");
+                        return;
+                    }
+                    default -> reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // client went away or server closing
+        }
+    }
+
+    private void reply(OutputStream out, String response) throws IOException, InterruptedException {
+        sleep(commandLatencyMillis);
+        out.write((response + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.dto.AppointmentPage;
+import edu.taylors.io.capstone.eservices.dto.AppointmentView;
+import edu.taylors.io.capstone.eservices.dto.MedicalExaminationPage;
+import edu.taylors.io.capstone.eservices.dto.MedicalExaminationView;
+import edu.taylors.io.capstone.eservices.dto.VisaApplicationPage;
+import edu.taylors.io.capstone.eservices.dto.VisaApplicationView;
+import edu.taylors.io.capstone.eservices.entity.Appointment;
+import edu.taylors.io.capstone.eservices.entity.MedicalExamination;
+import edu.taylors.io.capstone.eservices.entity.User;
+import edu.taylors.io.capstone.eservices.entity.VisaApplication;
+import edu.taylors.io.capstone.eservices.repository.AppointmentRepository;
+import edu.taylors.io.capstone.eservices.repository.MedicalExaminationRepository;
+import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import edu.taylors.io.capstone.eservices.repository.VisaApplicationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins list and detail reads to one SQL statement each, whatever the number of students,
+ * staff and linked examinations on the page (no per-row loads of associations).
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class ListSqlCountTest {
+
+    private static final String LOCATION = "Query Count Clinic";
+    private static final String NATIONALITY = "Query Count Land";
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private VisaApplicationService visaService;
+
+    @Autowired
+    private MedicalExaminationService medicalService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private VisaApplicationRepository visaRepository;
+
+    @Autowired
+    private MedicalExaminationRepository medicalRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private final List<User> users = new ArrayList<>();
+    private final List<Appointment> appointments = new ArrayList<>();
+    private final List<VisaApplication> visas = new ArrayList<>();
+    private final List<MedicalExamination> examinations = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        User staff = saveUser("QC-STAFF", "ROLE_STAFF");
+        for (int i = 0; i < 4; i++) {
+            User student = saveUser("QC-" + i, "ROLE_STUDENT");
+
+            MedicalExamination exam = medicalRepository.save(MedicalExamination.builder()
+                    .student(student)
+                    .examinationNumber("QC-MED-" + i)
+                    .clinicName(LOCATION)
+                    .status(i % 2 == 0 ? "PASSED" : "PENDING")
+                    .build());
+            examinations.add(exam);
+
+            visas.add(visaRepository.save(VisaApplication.builder()
+                    .student(student)
+                    .applicationNumber("QC-VA-" + i)
+                    .nationality(NATIONALITY)
+                    .medicalExamination(exam)
+                    .documentsSubmittedDate(LocalDate.of(2030, 1, 1).atStartOfDay())
+                    .status("DOCUMENTS_SUBMITTED")
+                    .build()));
+
+            for (int j = 0; j < 2; j++) {
+                appointments.add(appointmentRepository.save(Appointment.builder()
+                        .student(student)
+                        .appointmentNumber("QC-APT-" + i + "-" + j)
+                        .appointmentType("OFFICE_CONSULTATION")
+                        .locationName(LOCATION)
+                        .appointmentDate(LocalDate.now().plusDays(1 + i))
+                        .appointmentTime(LocalTime.of(9 + j, 0))
+                        .assignedStaff(j == 0 ? staff : null)
+                        .medicalExamination(exam)
+                        .status("PENDING")
+                        .build()));
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        appointmentRepository.deleteAll(appointments);
+        visaRepository.deleteAll(visas);
+        medicalRepository.deleteAll(examinations);
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    void staffListsIssueOneQueryPerPage() {
+        int appointmentPages = countPages("appointments", cursor -> {
+            AppointmentPage page = appointmentService.getAllAppointments(
+                    null, null, LOCATION, null, null, cursor, "asc", 3);
+            return new Page(page.appointments().stream().map(AppointmentView::studentName).toList(), page.nextCursor());
+        });
+        int visaPages = countPages("applications", cursor -> {
+            VisaApplicationPage page = visaService.getAllVisaApplications(
+                    null, null, NATIONALITY, null, null, cursor, "asc", 3);
+            return new Page(page.applications().stream().map(VisaApplicationView::studentName).toList(), page.nextCursor());
+        });
+        int medicalPages = countPages("examinations", cursor -> {
+            MedicalExaminationPage page = medicalService.getAllExaminations(
+                    null, LOCATION, null, null, cursor, "asc", 3);
+            return new Page(page.examinations().stream().map(MedicalExaminationView::studentName).toList(), page.nextCursor());
+        });
+
+        assertThat(appointmentPages).isEqualTo(3);
+        assertThat(visaPages).isEqualTo(2);
+        assertThat(medicalPages).isEqualTo(2);
+    }
+
+    @Test
+    void studentReadsIssueOneQuery() {
+        String studentId = users.get(1).getStudentId();
+
+        statistics.clear();
+        assertThat(appointmentService.getMyAppointments(studentId, null)).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        assertThat(appointmentService.getUpcomingAppointments(studentId)).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        VisaApplicationView visa = visaService.getVisaApplication(studentId);
+        assertThat(visa.studentName()).isEqualTo("Query Count");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        assertThat(medicalService.getMedicalExamination(studentId).examinationNumber()).isEqualTo("QC-MED-1");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void firstVisitReadsWriteNothing() {
+        String studentId = saveUser("QC-NEW", "ROLE_STUDENT").getStudentId();
+
+        // View lookup misses, then the student for the name; no INSERT
+        statistics.clear();
+        VisaApplicationView visa = visaService.getVisaApplication(studentId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(visa.id()).isNull();
+        assertThat(visa.currentStage()).isEqualTo("Not Started");
+        assertThat(visa.studentName()).isEqualTo("Query Count");
+
+        statistics.clear();
+        MedicalExaminationView exam = medicalService.getMedicalExamination(studentId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(exam.id()).isNull();
+        assertThat(exam.status()).isEqualTo("PENDING");
+
+        assertThat(visaService.getVisaTimeline(studentId).timeline()).isEmpty();
+        assertThat(visaRepository.findByStudentStudentId(studentId)).isEmpty();
+        assertThat(medicalRepository.findByStudentStudentId(studentId)).isEmpty();
+    }
+
+    private int countPages(String listKey, Function<String, Page> readPage) {
+        int pages = 0;
+        String cursor = null;
+        do {
+            statistics.clear();
+            Page page = readPage.apply(cursor);
+            assertThat(statistics.getPrepareStatementCount()).as("statements for page %d of %s", pages, listKey)
+                    .isEqualTo(1);
+
+            assertThat(page.studentNames()).containsOnly("Query Count");
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+        return pages;
+    }
+
+    private record Page(List<String> studentNames, String nextCursor) {
+    }
+
+    private User saveUser(String studentId, String role) {
+        User user = userRepository.save(User.builder()
+                .studentId(studentId)
+                .email(studentId.toLowerCase() + "@example.com")
+                .password("not-a-hash")
+                .role(role)
+                .firstName("Query")
+                .lastName("Count")
+                .build());
+        users.add(user);
+        return user;
+    }
+}
@@ -0,0 +1,84 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.service.NotificationTemplate.RenderedEmail;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The compiled templates must produce the same text as the String.format bodies they replaced.
+ */
+class NotificationTemplateTest {
+
+    static NotificationTemplate load(String name) throws IOException {
+        try (InputStream in = NotificationTemplateTest.class.getResourceAsStream("/templates/email/" + name + ".txt")) {
+            return NotificationTemplate.compile(name, new String(in.readAllBytes(), StandardCharsets.UTF_8),
+                    Map.of("appName", "E-Services Platform"));
+        }
+    }
+
+    @Test
+    void appointmentBookedMatchesStringFormat() throws IOException {
+        LocalDate date = LocalDate.of(2026, 3, 9);
+        LocalTime time = LocalTime.of(14, 30);
+
+        RenderedEmail email = load("appointment-booked").render(
+                "fullName", "Aisha Rahman",
+                "appointmentNumber", "APT-2026-00042",
+                "appointmentType", "VISA_CONSULTATION",
+                "locationName", "International Office",
+                "roomNumber", null,
+                "appointmentDate", date,
+                "appointmentTime", time,
+                "durationMinutes", 30,
+                "purpose", "Visa renewal",
+                "reminderLeadTime", "90 minutes");
+
+        String expected = String.format(
+                "Dear %s,\n\n" +
+                        "Your appointment has been booked successfully.\n\n" +
+                        "Appointment Details:\n" +
+                        "Number: %s\n" +
+                        "Type: %s\n" +
+                        "Location: %s\n" +
+                        "Room: %s\n" +
+                        "Date: %s\n" +
+                        "Time: %s\n" +
+                        "Duration: %d minutes\n\n" +
+                        "Purpose: %s\n\n" +
+                        "Please confirm your appointment by clicking the link in your student portal.\n" +
+                        "You will receive a reminder %s before your appointment.\n\n" +
+                        "Best regards,\n" +
+                        "Taylor's University",
+                "Aisha Rahman", "APT-2026-00042", "VISA_CONSULTATION", "International Office", "N/A",
+                date.format(DateTimeFormatter.ofPattern("dd MMM yyyy")),
+                time.format(DateTimeFormatter.ofPattern("hh:mm a")),
+                30, "Visa renewal", "90 minutes");
+
+        assertThat(email.subject()).isEqualTo("Appointment Booked - VISA_CONSULTATION");
+        assertThat(email.body()).isEqualTo(expected);
+    }
+
+    @Test
+    void globalsFillPlaceholdersNotPassedIn() throws IOException {
+        RenderedEmail email = load("otp").render("studentId", "TP012345", "otp", "123456");
+
+        assertThat(email.subject()).isEqualTo("E-Services Platform - Your OTP Code");
+        assertThat(email.body()).contains("Your OTP code is: 123456").endsWith("E-Services Platform Team");
+    }
+
+    @Test
+    void unclosedPlaceholderFailsAtCompileTime() {
+        assertThatThrownBy(() -> NotificationTemplate.compile("broken", "Subject: Hi\n\nDear {{fullName", Map.of()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,113 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Connection reuse and the per-host cap, against the in-JVM FakeSmtpServer.
+ */
+class PooledSmtpTransportTest {
+
+    private FakeSmtpServer server;
+    private PooledSmtpTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        server = new FakeSmtpServer(0, 0);
+        transport = newTransport(2, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        transport.destroy();
+        server.close();
+    }
+
+    @Test
+    void batchesShareOneSession() throws Exception {
+        for (int batch = 0; batch < 3; batch++) {
+            List<Exception> results = transport.sendBatch(messages(transport, 10));
+            assertThat(results).containsOnlyNulls().hasSize(10);
+        }
+
+        assertThat(server.getMessageCount()).isEqualTo(30);
+        assertThat(server.getConnectionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void connectionsAreCappedPerHost() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<Exception>>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                List<MimeMessage> batch = messages(transport, 5);
+                futures.add(callers.submit(() -> transport.sendBatch(batch)));
+            }
+            for (Future<List<Exception>> future : futures) {
+                assertThat(future.get()).containsOnlyNulls();
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(server.getMessageCount()).isEqualTo(80);
+        assertThat(server.getConnectionCount()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void sessionIsRecycledAfterMaxMessages() throws Exception {
+        transport.destroy();
+        transport = newTransport(1, 4);
+
+        transport.sendBatch(messages(transport, 10));
+
+        assertThat(server.getMessageCount()).isEqualTo(10);
+        assertThat(server.getConnectionCount()).isEqualTo(3);
+    }
+
+    @Test
+    void unreachableServerFailsTheBatchAfterOneConnectAttempt() throws Exception {
+        int port = server.getPort();
+        server.close();
+        transport.destroy();
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.auth", "false");
+        transport = new PooledSmtpTransport(Session.getInstance(properties), "smtp", "127.0.0.1", port,
+                null, null, 1, 100, 60_000);
+
+        List<Exception> results = transport.sendBatch(messages(transport, 5));
+
+        assertThat(results).hasSize(5).doesNotContainNull();
+        // Every message carries the one connect failure rather than a connect attempt of its own
+        assertThat(results).allSatisfy(result -> assertThat(result).isSameAs(results.get(0)));
+        assertThat(transport.getStatistics()).containsEntry("messagesFailed", 5L);
+    }
+
+    private PooledSmtpTransport newTransport(int maxConnections, int maxMessagesPerConnection) {
+        Properties properties = new Properties();
+        properties.setProperty("mail.smtp.auth", "false");
+        return new PooledSmtpTransport(Session.getInstance(properties), "smtp", "127.0.0.1", server.getPort(),
+                null, null, maxConnections, maxMessagesPerConnection, 60_000);
+    }
+
+    static List<MimeMessage> messages(PooledSmtpTransport transport, int count) throws Exception {
+        List<MimeMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            messages.add(transport.createMessage("noreply@example.com", "student" + i + "@example.com",
+                    "Appointment Confirmed", "Your appointment APT-2026-" + i + " has been confirmed."));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,123 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.entity.Appointment;
+import edu.taylors.io.capstone.eservices.repository.AppointmentRepository;
+import edu.taylors.io.capstone.eservices.repository.ReferenceSequenceRepository;
+import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Uniqueness under contention. Each allocator instance stands in for one node (JVM): its
+ * blocks live only in its own memory, and all of them share reference_sequences.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class ReferenceNumberAllocatorTest {
+
+    @Autowired
+    private ReferenceSequenceRepository sequenceRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void numbersAreUniqueAcrossThreadsAndNodes() throws Exception {
+        int nodes = 4;
+        int threads = 16;
+        int perThread = 250;
+        List<ReferenceNumberAllocator> allocators = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            allocators.add(new ReferenceNumberAllocator(dataSource, 7));
+        }
+
+        Set<String> issued = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                ReferenceNumberAllocator allocator = allocators.get(t % nodes);
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    int duplicates = 0;
+                    for (int i = 0; i < perThread; i++) {
+                        if (!issued.add(allocator.next("TST", 2026, prefix -> null))) {
+                            duplicates++;
+                        }
+                    }
+                    return duplicates;
+                }));
+            }
+            start.countDown();
+            for (Future<Integer> future : futures) {
+                assertThat(future.get()).isZero();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(issued).hasSize(threads * perThread);
+        assertThat(issued).allMatch(reference -> reference.matches("TST-2026-\\d{5}"));
+        // Each node wastes at most the rest of its last block
+        assertThat(sequenceRepository.findLastReserved("TST-2026")).isLessThanOrEqualTo(threads * perThread + nodes * 7L);
+    }
+
+    @Test
+    void counterRestartsEachYearAndContinuesFromExistingNumbers() {
+        ReferenceNumberAllocator allocator = new ReferenceNumberAllocator(dataSource, 20);
+
+        assertThat(allocator.next("SEQ", 2025, prefix -> 41L)).isEqualTo("SEQ-2025-00042");
+        assertThat(allocator.next("SEQ", 2025, prefix -> 41L)).isEqualTo("SEQ-2025-00043");
+        assertThat(allocator.next("SEQ", 2026, prefix -> null)).isEqualTo("SEQ-2026-00001");
+
+        // A second node continues after the first node's reserved block
+        ReferenceNumberAllocator other = new ReferenceNumberAllocator(dataSource, 20);
+        assertThat(other.next("SEQ", 2025, prefix -> null)).isEqualTo("SEQ-2025-00062");
+    }
+
+    @Test
+    void seedComparesNumbersNotStrings() {
+        List<Appointment> existing = new ArrayList<>();
+        for (String number : List.of("SEED-2031-9999", "SEED-2031-10000", "SEED-2031-00042")) {
+            existing.add(appointmentRepository.save(Appointment.builder()
+                    .student(userRepository.findByStudentId("TP012345").orElseThrow())
+                    .appointmentNumber(number)
+                    .appointmentType("CONSULTATION")
+                    .locationName("Seed Test Office")
+                    .appointmentDate(LocalDate.of(2031, 1, 1))
+                    .appointmentTime(LocalTime.of(9, 0))
+                    .status("CANCELLED")
+                    .build()));
+        }
+        try {
+            assertThat(appointmentRepository.findHighestNumber("SEED-2031-")).isEqualTo(10_000L);
+            assertThat(new ReferenceNumberAllocator(dataSource, 20)
+                    .next("SEED", 2031, appointmentRepository::findHighestNumber)).isEqualTo("SEED-2031-10001");
+        } finally {
+            appointmentRepository.deleteAll(existing);
+        }
+    }
+}
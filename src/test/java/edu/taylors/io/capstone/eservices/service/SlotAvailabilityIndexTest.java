@@ -0,0 +1,148 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.dto.SlotView;
+import edu.taylors.io.capstone.eservices.entity.TimeSlot;
+import edu.taylors.io.capstone.eservices.repository.AvailabilityRuleRepository;
+import edu.taylors.io.capstone.eservices.repository.TimeSlotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Rule expansion, write-through from AppointmentService and the consistency check against
+ * time_slots.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class SlotAvailabilityIndexTest {
+
+    private static final String LOCATION = "International Office";
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private SlotAvailabilityIndex slotIndex;
+
+    @Autowired
+    private SlotMaterializer slotMaterializer;
+
+    @Autowired
+    private TimeSlotRepository timeSlotRepository;
+
+    @Autowired
+    private AvailabilityRuleRepository availabilityRuleRepository;
+
+    @BeforeEach
+    void setUp() {
+        // Other tests in this context change time_slots behind the index
+        slotIndex.verify();
+    }
+
+    @AfterEach
+    void tearDown() {
+        timeSlotRepository.deleteAll();
+        availabilityRuleRepository.deleteAll();
+        slotIndex.verify();
+    }
+
+    @Test
+    void createdSlotsAreServedFromTheIndex() {
+        LocalDate date = LocalDate.now().plusDays(3);
+        Map<String, Object> result = createSlots(date);
+
+        List<SlotView> byLocation = appointmentService.getAvailableSlots(null, LOCATION, date);
+        List<SlotView> byType = appointmentService.getAvailableSlots("INTERNATIONAL_OFFICE", null, date);
+
+        assertThat(result.get("slotsCreated")).isEqualTo(4);
+        assertThat(timeSlotRepository.count()).isZero();
+        assertThat(byLocation).hasSize(4);
+        assertThat(byType).hasSize(4);
+        assertThat(byLocation).extracting(slot -> slot.startTime().toString())
+                .containsExactly("09:00", "09:30", "10:00", "10:30");
+    }
+
+    @Test
+    void excludedDatesHaveNoSlots() {
+        LocalDate date = LocalDate.now().plusDays(5);
+        Long ruleId = (Long) createSlots(date).get("ruleId");
+
+        appointmentService.excludeDate(ruleId, date);
+
+        assertThat(slotIndex.findAvailable(LOCATION, date)).isEmpty();
+        assertThat(slotIndex.findRule(LOCATION, date, LocalTime.of(9, 0))).isEmpty();
+    }
+
+    @Test
+    void materializedSlotReplacesTheRuleSlot() {
+        LocalDate date = LocalDate.now().plusDays(6);
+        createSlots(date);
+        TimeSlot slot = materialize(date, LocalTime.of(9, 30));
+
+        timeSlotRepository.tryBook(slot.getId());
+        slotIndex.booked(slot.getId());
+
+        assertThat(timeSlotRepository.count()).isEqualTo(1);
+        assertThat(slotIndex.findAvailable(LOCATION, date)).extracting(s -> s.startTime().toString())
+                .containsExactly("09:00", "10:00", "10:30");
+    }
+
+    @Test
+    void materializedSlotKeepsTheRuleAppointmentType() {
+        LocalDate date = LocalDate.now().plusDays(7);
+        appointmentService.createTimeSlots(Map.of(
+                "locationType", "INTERNATIONAL_OFFICE",
+                "locationName", LOCATION,
+                "startDate", date.toString(),
+                "endDate", date.toString(),
+                "startTime", "09:00",
+                "endTime", "10:00",
+                "slotDuration", 30,
+                "appointmentType", "VISA_INTERVIEW"), "staff");
+
+        TimeSlot slot = materialize(date, LocalTime.of(9, 0));
+
+        assertThat(timeSlotRepository.findById(slot.getId()).orElseThrow().getAppointmentType())
+                .isEqualTo("VISA_INTERVIEW");
+    }
+
+    @Test
+    void verifyRepairsBookingsMadeBehindTheIndex() {
+        LocalDate date = LocalDate.now().plusDays(4);
+        createSlots(date);
+        TimeSlot first = materialize(date, LocalTime.of(9, 0));
+
+        // e.g. booked through another node
+        timeSlotRepository.tryBook(first.getId());
+        assertThat(slotIndex.findAvailable(LOCATION, date)).hasSize(4);
+
+        assertThat(slotIndex.verify()).isEqualTo(1);
+        assertThat(slotIndex.findAvailable(LOCATION, date)).hasSize(3);
+        assertThat(slotIndex.verify()).isZero();
+    }
+
+    private TimeSlot materialize(LocalDate date, LocalTime time) {
+        return slotMaterializer.materialize(slotIndex.findRule(LOCATION, date, time).orElseThrow(), date, time);
+    }
+
+    private Map<String, Object> createSlots(LocalDate date) {
+        return appointmentService.createTimeSlots(Map.of(
+                "locationType", "INTERNATIONAL_OFFICE",
+                "locationName", LOCATION,
+                "startDate", date.toString(),
+                "endDate", date.toString(),
+                "startTime", "09:00",
+                "endTime", "11:00",
+                "slotDuration", 30), "staff");
+    }
+}
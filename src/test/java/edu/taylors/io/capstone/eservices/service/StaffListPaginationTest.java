@@ -0,0 +1,132 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.dto.AppointmentPage;
+import edu.taylors.io.capstone.eservices.dto.AppointmentView;
+import edu.taylors.io.capstone.eservices.entity.Appointment;
+import edu.taylors.io.capstone.eservices.entity.User;
+import edu.taylors.io.capstone.eservices.repository.AppointmentRepository;
+import edu.taylors.io.capstone.eservices.repository.KeysetCursor;
+import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Keyset pages of the staff appointment list: no row skipped or repeated across pages,
+ * ties on (date, time) broken by id, and filters combined.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class StaffListPaginationTest {
+
+    private static final String LOCATION = "Pagination Test Clinic";
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Appointment> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        User student = userRepository.findByStudentId("TP012345").orElseThrow();
+        LocalDate start = LocalDate.of(2030, 3, 1);
+        for (int i = 0; i < 23; i++) {
+            created.add(appointmentRepository.save(Appointment.builder()
+                    .student(student)
+                    .appointmentNumber("PAGE-" + i)
+                    .appointmentType(i % 2 == 0 ? "MEDICAL" : "OFFICE_CONSULTATION")
+                    .locationName(LOCATION)
+                    .appointmentDate(start.plusDays(i / 6))
+                    // Every third appointment shares its date and time with the previous one
+                    .appointmentTime(LocalTime.of(9, 0).plusMinutes(30L * (i % 6 - (i % 3 == 2 ? 1 : 0))))
+                    .status(i % 4 == 0 ? "CANCELLED" : "PENDING")
+                    .build()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        appointmentRepository.deleteAll(created);
+    }
+
+    @Test
+    void pagesCoverEveryRowOnceInKeyOrder() {
+        for (String sort : List.of("asc", "desc")) {
+            List<Long> seen = readAll(null, null, sort, 5);
+
+            List<Long> expected = created.stream()
+                    .sorted((a, b) -> compare(a, b) * ("asc".equals(sort) ? 1 : -1))
+                    .map(Appointment::getId)
+                    .toList();
+            assertThat(seen).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void filtersCombine() {
+        List<Long> seen = readAll("PENDING", "MEDICAL", "asc", 3);
+
+        assertThat(seen).containsExactlyInAnyOrderElementsOf(created.stream()
+                .filter(a -> a.getStatus().equals("PENDING") && a.getAppointmentType().equals("MEDICAL"))
+                .map(Appointment::getId)
+                .toList());
+    }
+
+    @Test
+    void tamperedCursorIsRejectedAsInvalid() {
+        List<String> cursors = List.of(
+                "not base64!",
+                KeysetCursor.encode("2030-03-01", "09:00"),
+                KeysetCursor.encode("2030-13-01", "09:00", 1),
+                KeysetCursor.encode("2030-03-01", "nine", 1),
+                KeysetCursor.encode("2030-03-01", "09:00", "one"));
+
+        for (String cursor : cursors) {
+            assertThatThrownBy(() -> appointmentService.getAllAppointments(
+                    null, null, LOCATION, null, null, cursor, "asc", 5))
+                    .as(cursor)
+                    .hasMessage("Invalid cursor");
+        }
+    }
+
+    private List<Long> readAll(String status, String type, String sort, int limit) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            AppointmentPage page = appointmentService.getAllAppointments(
+                    status, type, LOCATION, null, null, cursor, sort, limit);
+            for (AppointmentView appointment : page.appointments()) {
+                ids.add(appointment.id());
+            }
+            assertThat(page.count()).isLessThanOrEqualTo(limit);
+            cursor = page.nextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static int compare(Appointment a, Appointment b) {
+        int byDate = a.getAppointmentDate().compareTo(b.getAppointmentDate());
+        if (byDate != 0) {
+            return byDate;
+        }
+        int byTime = a.getAppointmentTime().compareTo(b.getAppointmentTime());
+        return byTime != 0 ? byTime : a.getId().compareTo(b.getId());
+    }
+}
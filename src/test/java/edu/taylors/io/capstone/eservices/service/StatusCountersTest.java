@@ -0,0 +1,84 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.dto.AppointmentStatistics;
+import edu.taylors.io.capstone.eservices.entity.Appointment;
+import edu.taylors.io.capstone.eservices.repository.AppointmentRepository;
+import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counters follow service transitions without a query, and reconciliation repairs rows
+ * written behind their back.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class StatusCountersTest {
+
+    @Autowired
+    private StatusCounters statusCounters;
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Appointment appointment;
+
+    @BeforeEach
+    void setUp() {
+        statusCounters.reconcile();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (appointment != null) {
+            appointmentRepository.delete(appointment);
+        }
+        statusCounters.reconcile();
+    }
+
+    @Test
+    void reconcileRepairsAndTransitionsMoveCounters() {
+        AppointmentStatistics before = appointmentService.getStatistics();
+
+        // e.g. written by another node
+        appointment = appointmentRepository.save(Appointment.builder()
+                .student(userRepository.findByStudentId("TP012345").orElseThrow())
+                .appointmentNumber("COUNTER-1")
+                .appointmentType("MEDICAL")
+                .locationName("Counter Test Clinic")
+                .appointmentDate(LocalDate.of(2030, 1, 1))
+                .appointmentTime(LocalTime.of(9, 0))
+                .status("PENDING")
+                .build());
+        assertThat(appointmentService.getStatistics()).isEqualTo(before);
+
+        assertThat(statusCounters.reconcile()).isGreaterThan(0);
+        AppointmentStatistics afterInsert = appointmentService.getStatistics();
+        assertThat(afterInsert.totalAppointments()).isEqualTo(before.totalAppointments() + 1);
+        assertThat(afterInsert.pending()).isEqualTo(before.pending() + 1);
+        assertThat(afterInsert.medicalAppointments()).isEqualTo(before.medicalAppointments() + 1);
+
+        appointmentService.updateAppointmentStatus(appointment.getId(), "COMPLETED", null, "staff");
+
+        AppointmentStatistics afterUpdate = appointmentService.getStatistics();
+        assertThat(afterUpdate.pending()).isEqualTo(before.pending());
+        assertThat(afterUpdate.completed()).isEqualTo(before.completed() + 1);
+        assertThat(afterUpdate.totalAppointments()).isEqualTo(afterInsert.totalAppointments());
+        assertThat(statusCounters.reconcile()).isZero();
+    }
+}
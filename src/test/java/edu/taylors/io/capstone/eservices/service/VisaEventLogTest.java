@@ -0,0 +1,177 @@
+package edu.taylors.io.capstone.eservices.service;
+
+import edu.taylors.io.capstone.eservices.dto.VisaHistory;
+import edu.taylors.io.capstone.eservices.dto.VisaTimeline;
+import edu.taylors.io.capstone.eservices.entity.MedicalExamination;
+import edu.taylors.io.capstone.eservices.entity.User;
+import edu.taylors.io.capstone.eservices.entity.VisaApplication;
+import edu.taylors.io.capstone.eservices.repository.MedicalExaminationRepository;
+import edu.taylors.io.capstone.eservices.repository.UserRepository;
+import edu.taylors.io.capstone.eservices.repository.VisaApplicationRepository;
+import edu.taylors.io.capstone.eservices.repository.VisaEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Visa transitions go through the state machine, land in visa_events, and the timeline and
+ * progress are projected from them.
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+class VisaEventLogTest {
+
+    private static final String STUDENT = "VE-STUDENT";
+    private static final String STAFF = "VE-STAFF";
+
+    @Autowired
+    private VisaApplicationService visaService;
+
+    @Autowired
+    private VisaApplicationRepository visaRepository;
+
+    @Autowired
+    private VisaEventRepository eventRepository;
+
+    @Autowired
+    private MedicalExaminationRepository medicalRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User student;
+    private Long visaId;
+
+    @BeforeEach
+    void setUp() {
+        student = userRepository.save(User.builder()
+                .studentId(STUDENT)
+                .email("ve-student@example.com")
+                .password("not-a-hash")
+                .role("ROLE_STUDENT")
+                .firstName("Visa")
+                .lastName("Events")
+                .build());
+        visaId = visaService.createVisaApplication(STUDENT, Map.of("nationality", "Event Land"))
+                .application().id();
+    }
+
+    @AfterEach
+    void tearDown() {
+        eventRepository.deleteAll(eventRepository.findByVisaApplicationIdOrderByIdAsc(visaId));
+        visaRepository.deleteById(visaId);
+        medicalRepository.findByStudent(student).ifPresent(medicalRepository::delete);
+        userRepository.delete(student);
+    }
+
+    @Test
+    void timelineAndProgressAreProjectedFromEvents() {
+        visaService.submitDocuments(STUDENT);
+        passMedical();
+        visaService.submitToEmgs(visaId, STAFF);
+        for (String status : List.of("EMGS_APPROVED", "VAL_ISSUED", "IMMIGRATION_SUBMITTED",
+                "IMMIGRATION_APPROVED", "PASS_COLLECTED")) {
+            visaService.updateEmgsStatus(visaId, status, "", STAFF);
+        }
+
+        VisaTimeline timeline = visaService.getVisaTimeline(STUDENT);
+        assertThat(timeline.currentStatus()).isEqualTo("PASS_COLLECTED");
+        assertThat(timeline.currentStage()).isEqualTo("Student Pass Collected - Complete");
+        assertThat(timeline.progressPercentage()).isEqualTo(100);
+        assertThat(timeline.timeline()).extracting(VisaTimeline.Event::title).containsExactly(
+                "Application Created", "Documents Submitted", "Medical Examination", "EMGS Submission",
+                "EMGS Approved (32%)", "VAL Issued (70%)", "Immigration Submission", "Immigration Approved",
+                "Pass Collected");
+
+        VisaApplication visa = visaRepository.findById(visaId).orElseThrow();
+        assertThat(timeline.timeline().get(3).description()).isEqualTo("Reference: " + visa.getEmgsReference());
+        assertThat(timeline.timeline().get(5).description()).isEqualTo("VAL Number: " + visa.getValNumber());
+
+        VisaHistory history = visaService.getVisaHistory(visaId);
+        assertThat(history.events()).extracting(VisaHistory.Event::status).containsExactly(
+                "PENDING", "DOCUMENTS_SUBMITTED", "EMGS_PROCESSING", "EMGS_APPROVED", "VAL_ISSUED",
+                "IMMIGRATION_SUBMITTED", "IMMIGRATION_APPROVED", "PASS_COLLECTED");
+        assertThat(history.events()).extracting(VisaHistory.Event::actor).startsWith(STUDENT, STUDENT, STAFF);
+    }
+
+    @Test
+    void invalidTransitionsAreRejectedAndNotLogged() {
+        assertThatThrownBy(() -> visaService.updateEmgsStatus(visaId, "VAL_ISSUED", "", STAFF))
+                .hasMessage("Cannot move visa application from PENDING to VAL_ISSUED");
+        assertThatThrownBy(() -> visaService.updateEmgsStatus(visaId, "EMGS_PROCESSING", "", STAFF))
+                .hasMessage("Status EMGS_PROCESSING cannot be set directly");
+        assertThatThrownBy(() -> visaService.updateEmgsStatus(visaId, "ON_HOLD", "", STAFF))
+                .hasMessage("Invalid visa status: ON_HOLD");
+
+        visaService.updateEmgsStatus(visaId, "REJECTED", "Passport expired", STAFF);
+        assertThatThrownBy(() -> visaService.submitDocuments(STUDENT))
+                .hasMessage("Cannot move visa application from REJECTED to DOCUMENTS_SUBMITTED");
+
+        VisaTimeline timeline = visaService.getVisaTimeline(STUDENT);
+        assertThat(timeline.progressPercentage()).isEqualTo(5);
+        assertThat(timeline.timeline()).extracting(VisaTimeline.Event::description).containsExactly(
+                "Application " + timeline.applicationNumber() + " created",
+                "Application rejected: Passport expired");
+        assertThat(visaService.getVisaHistory(visaId).events()).hasSize(2);
+    }
+
+    @Test
+    void concurrentTransitionsFromOneStateLogOnce() throws Exception {
+        int callers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger succeeded = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>(callers);
+            for (int i = 0; i < callers; i++) {
+                String note = "Rejection " + i;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    visaService.updateEmgsStatus(visaId, "REJECTED", note, STAFF);
+                    succeeded.incrementAndGet();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(RuntimeException.class);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(succeeded.get()).isEqualTo(1);
+        assertThat(visaService.getVisaHistory(visaId).events()).extracting(VisaHistory.Event::status)
+                .containsExactly("PENDING", "REJECTED");
+    }
+
+    private void passMedical() {
+        MedicalExamination exam = medicalRepository.findByStudent(student).orElseThrow();
+        exam.setStatus("PASSED");
+        medicalRepository.save(exam);
+
+        VisaApplication visa = visaRepository.findById(visaId).orElseThrow();
+        visa.setMedicalExamination(exam);
+        visaRepository.save(visa);
+    }
+}